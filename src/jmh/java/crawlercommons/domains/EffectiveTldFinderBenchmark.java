@@ -0,0 +1,83 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of looking up public suffixes and NIC-assigned domains of host names,
+ * as done for every link discovered by a crawler. The host names cover plain,
+ * multi-level, wildcard, exception, private and unknown suffixes. Run with
+ * <code>-prof gc</code> to compare the allocation rates of the string and the
+ * offset-based methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EffectiveTldFinderBenchmark {
+
+    private static final String[] HOSTS = { "www.example.com", "blogs.finance.yahoo.com", "www.bbc.co.uk", "northleamingtonschool.warwickshire.sch.uk",
+                    "www.city.kawasaki.jp", "myblog.blogspot.com", "foo.bar.gateway.dev", "cdn.static.example.org", "localhost", "www.example.invalidtld" };
+
+    @Setup
+    public void setup() {
+        EffectiveTldFinder.getInstance();
+    }
+
+    @Benchmark
+    public void getAssignedDomain(Blackhole bh) {
+        for (String host : HOSTS) {
+            bh.consume(EffectiveTldFinder.getAssignedDomain(host, true, false));
+        }
+    }
+
+    @Benchmark
+    public void getAssignedDomainOffset(Blackhole bh) {
+        for (String host : HOSTS) {
+            bh.consume(EffectiveTldFinder.getAssignedDomainOffset(host, true, false));
+        }
+    }
+
+    @Benchmark
+    public void getEffectiveTLD(Blackhole bh) {
+        for (String host : HOSTS) {
+            bh.consume(EffectiveTldFinder.getEffectiveTLD(host, false));
+        }
+    }
+
+    @Benchmark
+    public void getEffectiveTLDOffset(Blackhole bh) {
+        for (String host : HOSTS) {
+            bh.consume(EffectiveTldFinder.getEffectiveTLDOffset(host, false));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of {@link SimpleRobotRules#isAllowed(String)} and of the batch
+ * variant {@link SimpleRobotRules#isAllowed(String[], boolean[])}, measured in
+ * checked URLs per second. The rules are parsed from the data set (see
+ * {@link RobotsBenchmarkData}) and the URLs are partially derived from the
+ * rules. Compacted rules (see {@link SimpleRobotRules#compact()}) are matched
+ * if the parameter <code>compact</code> is set to <code>true</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RobotRulesMatchingBenchmark {
+
+    private static final int NUM_URLS = 1024;
+
+    @Param({ "wildcards.txt", "twitter.com-robots.txt", "rules-10k", "deep-wildcards", "multi-agent" })
+    public String dataSet;
+
+    @Param({ "false" })
+    public boolean compact;
+
+    private SimpleRobotRules rules;
+
+    private String[] urls;
+
+    private boolean[] allowed;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] content = RobotsBenchmarkData.load(dataSet);
+        rules = new SimpleRobotRulesParser().parseContent(RobotsBenchmarkData.ROBOTS_URL, content, "text/plain", RobotsBenchmarkData.AGENT_NAMES);
+        urls = RobotsBenchmarkData.urls(rules, NUM_URLS);
+        if (compact) {
+            rules.compact();
+        }
+        allowed = new boolean[NUM_URLS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_URLS)
+    public void isAllowed(Blackhole bh) {
+        for (String url : urls) {
+            bh.consume(rules.isAllowed(url));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_URLS)
+    public boolean[] isAllowedBatch() {
+        rules.isAllowed(urls, allowed);
+        return allowed;
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRule;
+
+/**
+ * Input data for the robots.txt benchmarks: the robots.txt files used in unit
+ * tests (<code>src/test/resources/robots/</code>) and synthetic worst cases.
+ *
+ * <p>
+ * Data sets are addressed by name:
+ * </p>
+ * <ul>
+ * <li>a file name in the test corpus, e.g. <code>twitter.com-robots.txt</code>
+ * </li>
+ * <li><code>rules-10k</code>: a single group with 10,000 allow/disallow
+ * rules, every tenth rule containing wildcards</li>
+ * <li><code>deep-wildcards</code>: rules with many wildcards and end-of-path
+ * anchors, which are expensive to match</li>
+ * <li><code>huge</code>: a robots.txt file of more than 1 MiB, mostly made of
+ * groups for other user-agents and comments</li>
+ * <li><code>multi-agent</code>: 500 groups with multiple user-agent lines each,
+ * several of them addressing the benchmarked crawler</li>
+ * </ul>
+ *
+ * All synthetic data is generated using a fixed random seed, so that the
+ * results of different benchmark runs are comparable.
+ */
+public class RobotsBenchmarkData {
+
+    /** Name of the crawler used to parse the robots.txt files */
+    public static final String AGENT = "crawlerbot";
+
+    public static final Collection<String> AGENT_NAMES = List.of(AGENT);
+
+    /**
+     * Groups of agent names, for crawlers operating under multiple identities.
+     * The other agent names are addressed in the synthetic data sets
+     * <code>huge</code> and <code>multi-agent</code>.
+     */
+    public static final List<Collection<String>> AGENT_GROUPS = List.of(AGENT_NAMES, List.of("otherbot1"), List.of("otherbot42"));
+
+    public static final String ROBOTS_URL = "https://www.example.com/robots.txt";
+
+    private static final String CORPUS_PATH = "/robots/";
+
+    private static final String[] PATH_SEGMENTS = { "about", "account", "admin", "api", "archive", "blog", "cart", "category", "checkout", "css", "de", "en",
+                    "events", "help", "images", "js", "login", "news", "product", "search", "static", "tag", "user", "wp-admin" };
+
+    private static final String[] EXTENSIONS = { "", "/", ".html", ".php", ".jpg", ".pdf", "?id=123", "?q=robots&page=2" };
+
+    private static final long SEED = 42;
+
+    private RobotsBenchmarkData() {
+    }
+
+    /**
+     * @return content of all robots.txt files in the test corpus
+     */
+    public static List<byte[]> corpus() throws IOException {
+        URL url = RobotsBenchmarkData.class.getResource(CORPUS_PATH);
+        if (url == null) {
+            throw new IOException("Test corpus " + CORPUS_PATH + " not found in class path");
+        }
+        Path dir;
+        try {
+            dir = Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        List<byte[]> corpus = new ArrayList<>();
+        for (Path file : files) {
+            corpus.add(Files.readAllBytes(file));
+        }
+        return corpus;
+    }
+
+    /**
+     * @param name
+     *            name of the data set
+     * @return robots.txt content of the data set
+     */
+    public static byte[] load(String name) throws IOException {
+        switch (name) {
+            case "rules-10k":
+                return manyRules(10000);
+            case "deep-wildcards":
+                return deepWildcards();
+            case "huge":
+                return huge();
+            case "multi-agent":
+                return multiAgent();
+            default:
+                try (InputStream in = RobotsBenchmarkData.class.getResourceAsStream(CORPUS_PATH + name)) {
+                    if (in == null) {
+                        throw new IOException("Unknown data set: " + name);
+                    }
+                    return in.readAllBytes();
+                }
+        }
+    }
+
+    private static String randomPath(Random random) {
+        StringBuilder path = new StringBuilder();
+        int depth = 1 + random.nextInt(4);
+        for (int i = 0; i < depth; i++) {
+            path.append('/').append(PATH_SEGMENTS[random.nextInt(PATH_SEGMENTS.length)]);
+            if (random.nextInt(3) == 0) {
+                path.append('-').append(random.nextInt(100));
+            }
+        }
+        return path.toString();
+    }
+
+    private static String randomRule(Random random, int wildcards, boolean anchored) {
+        StringBuilder rule = new StringBuilder();
+        rule.append(random.nextBoolean() ? "Disallow: " : "Allow: ");
+        String path = randomPath(random);
+        if (wildcards == 0) {
+            rule.append(path);
+        } else {
+            // split the path into pieces separated by wildcards
+            rule.append('/');
+            for (int i = 0; i < wildcards; i++) {
+                int start = random.nextInt(path.length());
+                int end = Math.min(path.length(), start + 1 + random.nextInt(4));
+                rule.append('*').append(path, start, end);
+            }
+        }
+        if (anchored) {
+            rule.append(EXTENSIONS[2 + random.nextInt(3)]).append('$');
+        }
+        return rule.toString();
+    }
+
+    private static byte[] manyRules(int numRules) {
+        Random random = new Random(SEED);
+        StringBuilder sb = new StringBuilder();
+        sb.append("User-agent: *\n");
+        for (int i = 0; i < numRules; i++) {
+            boolean wildcard = (i % 10) == 0;
+            sb.append(randomRule(random, wildcard ? 1 + random.nextInt(2) : 0, wildcard && random.nextBoolean())).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deepWildcards() {
+        Random random = new Random(SEED);
+        StringBuilder sb = new StringBuilder();
+        sb.append("User-agent: *\n");
+        for (int i = 0; i < 200; i++) {
+            sb.append(randomRule(random, 4 + random.nextInt(12), random.nextBoolean())).append('\n');
+        }
+        // patterns where the pieces repeat, forcing many comparisons
+        sb.append("Disallow: /*a*a*a*a*a*a*a*a*b$\n");
+        sb.append("Allow: /*aa*aa*aa*aa*ab*\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] huge() {
+        Random random = new Random(SEED);
+        StringBuilder sb = new StringBuilder();
+        int group = 0;
+        while (sb.length() < (1 << 20)) {
+            sb.append("# rules for bot number ").append(group).append('\n');
+            sb.append("User-agent: otherbot").append(group++).append('\n');
+            for (int i = 0; i < 50; i++) {
+                sb.append(randomRule(random, (i % 10) == 0 ? 1 : 0, false)).append('\n');
+            }
+            sb.append("Crawl-delay: ").append(random.nextInt(10)).append("\n\n");
+        }
+        sb.append("User-agent: ").append(AGENT).append('\n');
+        for (int i = 0; i < 100; i++) {
+            sb.append(randomRule(random, (i % 10) == 0 ? 1 : 0, false)).append('\n');
+        }
+        sb.append("\nSitemap: https://www.example.com/sitemap.xml\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] multiAgent() {
+        Random random = new Random(SEED);
+        StringBuilder sb = new StringBuilder();
+        for (int group = 0; group < 500; group++) {
+            for (int i = 0; i < 3; i++) {
+                sb.append("User-agent: otherbot").append(group * 3 + i).append('\n');
+            }
+            if ((group % 50) == 0) {
+                sb.append("User-agent: ").append(AGENT).append('\n');
+            }
+            if ((group % 100) == 0) {
+                sb.append("User-agent: *\n");
+            }
+            for (int i = 0; i < 20; i++) {
+                sb.append(randomRule(random, (i % 10) == 0 ? 1 : 0, false)).append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generate URLs to be checked against parsed rules. Half of the URLs are
+     * derived from the rules (and are likely to match at least one of them),
+     * the other half are random.
+     * 
+     * @param rules
+     *            parsed robots.txt rules
+     * @param numUrls
+     *            number of URLs to generate
+     * @return URLs
+     */
+    public static String[] urls(SimpleRobotRules rules, int numUrls) {
+        Random random = new Random(SEED);
+        List<RobotRule> ruleList = rules.getRobotRules();
+        String[] urls = new String[numUrls];
+        for (int i = 0; i < numUrls; i++) {
+            String path;
+            if (!ruleList.isEmpty() && random.nextBoolean()) {
+                path = ruleList.get(random.nextInt(ruleList.size())).getPrefix();
+                // replace wildcards and remove end-of-path anchor
+                path = path.replace("*", PATH_SEGMENTS[random.nextInt(PATH_SEGMENTS.length)]);
+                if (path.endsWith("$")) {
+                    path = path.substring(0, path.length() - 1);
+                } else {
+                    path += EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+                }
+            } else {
+                path = randomPath(random) + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+            }
+            urls[i] = "https://www.example.com" + path;
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of
+ * {@link SimpleRobotRulesParser#parseContent(String, byte[], String, java.util.Collection)}.
+ * The data set <code>corpus</code> parses all robots.txt files of the test
+ * corpus in one benchmark operation, see {@link RobotsBenchmarkData} for the
+ * other data sets. If the parameter <code>maxInternedRules</code> is positive,
+ * the parser returns interned rules (see
+ * {@link SimpleRobotRulesParser#setMaxInternedRules(int)}), measuring the cost
+ * of a lookup in the interning table.
+ * 
+ * <p>
+ * The benchmarks <code>parseContentPerAgent</code> and
+ * <code>parseContentForAgents</code> compare selecting the rules for multiple
+ * crawler identities ({@link RobotsBenchmarkData#AGENT_GROUPS}) by parsing the
+ * robots.txt once per identity resp. once for all identities.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RobotsParserBenchmark {
+
+    @Param({ "corpus", "rules-10k", "deep-wildcards", "huge", "multi-agent" })
+    public String dataSet;
+
+    @Param({ "0" })
+    public int maxInternedRules;
+
+    private List<byte[]> contents;
+
+    private SimpleRobotRulesParser parser;
+
+    @Setup
+    public void setup() throws IOException {
+        if ("corpus".equals(dataSet)) {
+            contents = RobotsBenchmarkData.corpus();
+        } else {
+            contents = List.of(RobotsBenchmarkData.load(dataSet));
+        }
+        parser = new SimpleRobotRulesParser();
+        parser.setMaxInternedRules(maxInternedRules);
+    }
+
+    @Benchmark
+    public void parseContent(Blackhole bh) {
+        for (byte[] content : contents) {
+            bh.consume(parser.parseContent(RobotsBenchmarkData.ROBOTS_URL, content, "text/plain", RobotsBenchmarkData.AGENT_NAMES));
+        }
+    }
+
+    @Benchmark
+    public void parseContentPerAgent(Blackhole bh) {
+        for (byte[] content : contents) {
+            for (Collection<String> agentNames : RobotsBenchmarkData.AGENT_GROUPS) {
+                bh.consume(parser.parseContent(RobotsBenchmarkData.ROBOTS_URL, content, "text/plain", agentNames));
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseContentForAgents(Blackhole bh) {
+        for (byte[] content : contents) {
+            bh.consume(parser.parseContentForAgents(RobotsBenchmarkData.ROBOTS_URL, content, "text/plain", RobotsBenchmarkData.AGENT_GROUPS));
+        }
+    }
+
+    @Benchmark
+    public void extractSitemaps(Blackhole bh) {
+        for (byte[] content : contents) {
+            bh.consume(parser.extractSitemaps(RobotsBenchmarkData.ROBOTS_URL, content, "text/plain"));
+        }
+    }
+}
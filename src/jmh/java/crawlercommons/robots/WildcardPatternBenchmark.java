@@ -0,0 +1,112 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of matching adversarial robots.txt patterns against long paths, which
+ * cause backtracking or naive substring search to take quadratic or worse
+ * time. The time per check should grow linearly with the path length
+ * (parameter <code>pathLength</code>):
+ * <ul>
+ * <li><code>many-wildcards</code>: <code>/*a*a*...*a*b</code> (100
+ * wildcards) on the path <code>/aaa...a</code></li>
+ * <li><code>long-piece</code>: <code>/*aaa...ab</code> (piece of 1000
+ * characters) on the path <code>/aaa...a</code></li>
+ * <li><code>periodic-anchored</code>: <code>/*abab...ab*ab$</code> on the path
+ * <code>/abab...aba</code></li>
+ * </ul>
+ * The benchmark <code>isAllowed</code> checks a URL with the same path against
+ * rules holding the pattern, including URL parsing and normalization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WildcardPatternBenchmark {
+
+    @Param({ "many-wildcards", "long-piece", "periodic-anchored" })
+    public String patternType;
+
+    @Param({ "1000", "10000", "100000" })
+    public int pathLength;
+
+    private String pattern;
+
+    private WildcardPattern compiled;
+
+    private String path;
+
+    private String url;
+
+    private SimpleRobotRules rules;
+
+    @Setup
+    public void setup() {
+        switch (patternType) {
+            case "many-wildcards":
+                pattern = "/" + "*a".repeat(100) + "*b";
+                path = "/" + "a".repeat(pathLength);
+                break;
+            case "long-piece":
+                pattern = "/*" + "a".repeat(1000) + "b";
+                path = "/" + "a".repeat(pathLength);
+                break;
+            case "periodic-anchored":
+                pattern = "/*" + "ab".repeat(500) + "*ab$";
+                path = "/" + "ab".repeat(pathLength / 2) + "a";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown pattern type: " + patternType);
+        }
+        compiled = new WildcardPattern(pattern);
+        url = "https://www.example.com" + path;
+        rules = new SimpleRobotRules();
+        rules.addRule(pattern, false);
+        rules.sortRules();
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.matches(path);
+    }
+
+    @Benchmark
+    public boolean uncompiled() {
+        return WildcardPattern.matches(path, pattern, 0, pattern.length());
+    }
+
+    @Benchmark
+    public boolean isAllowed() {
+        return rules.isAllowed(url);
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compact, read-only form of a {@link SuffixTrie}. The nodes are stored in
+ * level order in a few flat arrays instead of one object per node: the
+ * children of a node are adjacent, their edge characters are sorted and the
+ * node index of the first child is kept in an offset array. A lookup touches
+ * only contiguous primitive arrays, which is more cache-friendly than chasing
+ * pointers through a tree of small objects, and the memory required per node
+ * is reduced to 10 bytes, including the value reference. This makes the
+ * compact trie
+ * suitable for both the public suffix list and large lists of host names.
+ *
+ * <p>
+ * Typical usage is to build a {@link SuffixTrie}, and convert it into a
+ * compact trie once all suffixes are added. Any modification throws an
+ * {@link UnsupportedOperationException}. A compact trie can be shared by
+ * multiple threads without synchronization.
+ * </p>
+ */
+public class CompactSuffixTrie<V> extends SuffixTrie<V> {
+
+    /** Index of the root node. */
+    static final int ROOT = 0;
+
+    /** Character of the edge leading to a node. */
+    private final char[] chars;
+
+    /**
+     * Index of the first child of a node. The children of node <i>n</i> are
+     * the nodes <code>firstChild[n]</code> until (exclusive)
+     * <code>firstChild[n + 1]</code>.
+     */
+    private final int[] firstChild;
+
+    /** Value associated with a node, null if none. */
+    private final Object[] values;
+
+    private final int size;
+
+    /**
+     * Create a compact copy of a suffix trie.
+     * 
+     * @param trie
+     *            suffix trie to copy, it is not modified
+     */
+    public CompactSuffixTrie(SuffixTrie<V> trie) {
+        List<Node<V>> nodes = new ArrayList<>();
+        nodes.add(trie.root);
+        for (int i = 0; i < nodes.size(); i++) {
+            for (Node<V> child : nodes.get(i).children) {
+                nodes.add(child);
+            }
+        }
+        int numNodes = nodes.size();
+        chars = new char[numNodes];
+        firstChild = new int[numNodes + 1];
+        values = new Object[numNodes];
+        int next = 1;
+        int numValues = 0;
+        for (int i = 0; i < numNodes; i++) {
+            Node<V> node = nodes.get(i);
+            if (node.value != null) {
+                values[i] = node.value;
+                numValues++;
+            }
+            firstChild[i] = next;
+            System.arraycopy(node.chars, 0, chars, next, node.chars.length);
+            next += node.chars.length;
+            // release the node early, the copied trie may be large
+            nodes.set(i, null);
+        }
+        firstChild[numNodes] = next;
+        size = numValues;
+    }
+
+    private CompactSuffixTrie(char[] chars, int[] firstChild, Object[] values, int size) {
+        this.chars = chars;
+        this.firstChild = firstChild;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Write the trie in binary form: the node arrays followed by the indexes
+     * of nodes holding a value and the value IDs.
+     * 
+     * @param out
+     *            data output
+     * @param valueIds
+     *            function mapping values to non-negative IDs
+     * @throws IOException
+     *             if writing fails
+     */
+    void write(DataOutput out, ToIntFunction<V> valueIds) throws IOException {
+        out.writeInt(chars.length);
+        for (char c : chars) {
+            out.writeChar(c);
+        }
+        for (int offset : firstChild) {
+            out.writeInt(offset);
+        }
+        out.writeInt(size);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                out.writeInt(i);
+                out.writeInt(valueIds.applyAsInt(getValue(i)));
+            }
+        }
+    }
+
+    /**
+     * Read a trie written by {@link #write(DataOutput, ToIntFunction)}. The
+     * node arrays are read from the buffer in bulk.
+     * 
+     * @param in
+     *            buffer holding the trie at its position, the position is
+     *            moved to the end of the trie
+     * @param values
+     *            function mapping IDs to values
+     * @return compact suffix trie
+     * @throws IllegalArgumentException
+     *             if the trie structure is invalid
+     */
+    static <V> CompactSuffixTrie<V> read(ByteBuffer in, IntFunction<V> values) {
+        int numNodes = in.getInt();
+        if (numNodes < 1 || numNodes > (in.remaining() / 6)) {
+            throw new IllegalArgumentException("Invalid number of trie nodes: " + numNodes);
+        }
+        char[] chars = new char[numNodes];
+        int[] firstChild = new int[numNodes + 1];
+        in.asCharBuffer().get(chars);
+        in.position(in.position() + 2 * numNodes);
+        in.asIntBuffer().get(firstChild);
+        in.position(in.position() + 4 * (numNodes + 1));
+        for (int i = 0; i < numNodes; i++) {
+            if (firstChild[i] > firstChild[i + 1] || firstChild[i] <= i) {
+                throw new IllegalArgumentException("Invalid trie node offsets");
+            }
+        }
+        if (firstChild[numNodes] != numNodes) {
+            throw new IllegalArgumentException("Invalid trie node offsets");
+        }
+        Object[] nodeValues = new Object[numNodes];
+        int size = in.getInt();
+        for (int i = 0; i < size; i++) {
+            int node = in.getInt();
+            if (node < 0 || node >= numNodes || nodeValues[node] != null) {
+                throw new IllegalArgumentException("Invalid trie node with value: " + node);
+            }
+            nodeValues[node] = values.apply(in.getInt());
+        }
+        return new CompactSuffixTrie<>(chars, firstChild, nodeValues, size);
+    }
+
+    /**
+     * Get child of a node.
+     * 
+     * @param node
+     *            node index
+     * @param c
+     *            character of the edge leading to the child
+     * @return index of the child node or -1 if the node has no child for the
+     *         character
+     */
+    int getChild(int node, char c) {
+        int pos = Arrays.binarySearch(chars, firstChild[node], firstChild[node + 1], c);
+        if (pos >= 0) {
+            return pos;
+        }
+        return -1;
+    }
+
+    /**
+     * @param node
+     *            node index
+     * @return value associated with the node, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    V getValue(int node) {
+        return (V) values[node];
+    }
+
+    /**
+     * @return number of suffix strings with a value in the trie
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Call an action for every suffix string with a value in the trie.
+     * 
+     * @param action
+     *            action called with suffix string and associated value
+     */
+    public void forEach(BiConsumer<String, ? super V> action) {
+        forEach(ROOT, new char[16], 0, action);
+    }
+
+    private char[] forEach(int node, char[] path, int depth, BiConsumer<String, ? super V> action) {
+        V value = getValue(node);
+        if (value != null) {
+            // the path from the root holds the suffix string in reverse order
+            char[] suffix = new char[depth];
+            for (int i = 0; i < depth; i++) {
+                suffix[i] = path[depth - 1 - i];
+            }
+            action.accept(new String(suffix), value);
+        }
+        for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, 2 * depth);
+            }
+            path[depth] = chars[child];
+            path = forEach(child, path, depth + 1, action);
+        }
+        return path;
+    }
+
+    /**
+     * Not supported, the compact trie is read-only.
+     * 
+     * @throws UnsupportedOperationException
+     *             always
+     */
+    @Override
+    public V put(String suffix, V value) {
+        throw new UnsupportedOperationException("Compact suffix trie cannot be modified");
+    }
+
+    @Override
+    public V get(String suffix) {
+        int node = ROOT;
+        for (int i = suffix.length() - 1; i >= 0; i--) {
+            node = getChild(node, suffix.charAt(i));
+            if (node == -1) {
+                return null;
+            }
+        }
+        return getValue(node);
+    }
+
+    @Override
+    protected LookupResult<V> getLongestSuffix(String string) {
+        int node = ROOT;
+        int offset = string.length();
+        V resValue = getValue(node);
+        for (int i = string.length() - 1; i >= 0; i--) {
+            node = getChild(node, string.charAt(i));
+            if (node == -1) {
+                break;
+            }
+            V value = getValue(node);
+            if (value != null) {
+                offset = i;
+                resValue = value;
+            }
+        }
+        if (resValue != null) {
+            return new LookupResult<>(offset, resValue);
+        }
+        return null;
+    }
+
+    @Override
+    protected List<LookupResult<V>> getSuffixes(String string) {
+        List<LookupResult<V>> res = new ArrayList<>();
+        int node = ROOT;
+        if (getValue(node) != null) {
+            res.add(new LookupResult<V>(string.length(), getValue(node)));
+        }
+        for (int i = string.length() - 1; i >= 0; i--) {
+            node = getChild(node, string.charAt(i));
+            if (node == -1) {
+                break;
+            }
+            V value = getValue(node);
+            if (value != null) {
+                res.add(new LookupResult<V>(i, value));
+            }
+        }
+        return res;
+    }
+}
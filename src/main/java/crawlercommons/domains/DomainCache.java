@@ -0,0 +1,245 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of results of {@link EffectiveTldFinder} lookups, keyed by
+ * host name and lookup flags, see
+ * {@link EffectiveTldFinder#setCacheSize(int)}.
+ * 
+ * <p>
+ * Lookups are lock-free and only mark the entry as recently used. Entries are
+ * evicted following the CLOCK algorithm: if the cache is full, a clock hand
+ * sweeps over the entries, clears the mark of recently used entries and
+ * replaces the first entry which has not been used since the last sweep. For
+ * the skewed distribution of host names in crawl traffic this keeps the
+ * frequent hosts in the cache at a fraction of the cost of LRU bookkeeping.
+ * </p>
+ * 
+ * <p>
+ * Every entry is bound to the public suffix list it has been computed from,
+ * results computed from a list which has been replaced in the meantime are
+ * never returned.
+ * </p>
+ */
+public final class DomainCache {
+
+    /** Number of result slots per host, see {@link #slot(int, boolean, boolean)}. */
+    private static final int NUM_SLOTS = 6;
+
+    /** Placeholder for cached null results, returned by {@link #get(String, int, Object)}. */
+    static final Object NULL = new Object();
+
+    /** Lookup of the assigned domain, see {@link #slot(int, boolean, boolean)}. */
+    static final int ASSIGNED_DOMAIN = 0;
+
+    /** Lookup of the effective TLD, see {@link #slot(int, boolean, boolean)}. */
+    static final int EFFECTIVE_TLD = 1;
+
+    private static final class Entry {
+        final String hostname;
+        final Object suffixList;
+        final AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(NUM_SLOTS);
+        volatile boolean referenced = true;
+
+        Entry(String hostname, Object suffixList) {
+            this.hostname = hostname;
+            this.suffixList = suffixList;
+        }
+    }
+
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Entry> entries;
+    /** Entries in insertion order, swept by the clock hand */
+    private final Entry[] clock;
+    private int clockSize = 0;
+    private int hand = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize
+     *            maximum number of cached host names
+     */
+    DomainCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        entries = new ConcurrentHashMap<>(Math.min(maxSize, 1 << 16));
+        clock = new Entry[maxSize];
+    }
+
+    /**
+     * @param lookup
+     *            {@link #ASSIGNED_DOMAIN} or {@link #EFFECTIVE_TLD}
+     * @param strict
+     *            strict lookup of the assigned domain
+     * @param excludePrivate
+     *            exclude suffixes from the PRIVATE section
+     * @return slot of the lookup result in a cache entry
+     */
+    static int slot(int lookup, boolean strict, boolean excludePrivate) {
+        if (lookup == EFFECTIVE_TLD) {
+            return 4 + (excludePrivate ? 1 : 0);
+        }
+        return (strict ? 1 : 0) + (excludePrivate ? 2 : 0);
+    }
+
+    /**
+     * Get a cached lookup result.
+     * 
+     * @param hostname
+     *            lower-case host name
+     * @param slot
+     *            slot of the lookup, see {@link #slot(int, boolean, boolean)}
+     * @param suffixList
+     *            the current public suffix list
+     * @return the cached result, {@link #NULL} if the cached result is null,
+     *         or null if the result is not cached
+     */
+    Object get(String hostname, int slot, Object suffixList) {
+        Entry entry = entries.get(hostname);
+        if (entry != null && entry.suffixList == suffixList) {
+            Object value = entry.results.get(slot);
+            if (value != null) {
+                if (!entry.referenced) {
+                    entry.referenced = true;
+                }
+                hits.increment();
+                return value;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Add a lookup result to the cache.
+     * 
+     * @param hostname
+     *            lower-case host name
+     * @param slot
+     *            slot of the lookup, see {@link #slot(int, boolean, boolean)}
+     * @param suffixList
+     *            the public suffix list the result has been computed from
+     * @param value
+     *            lookup result, may be null
+     */
+    void put(String hostname, int slot, Object suffixList, Object value) {
+        Entry entry = entries.get(hostname);
+        if (entry == null || entry.suffixList != suffixList) {
+            entry = insert(hostname, suffixList);
+        }
+        entry.results.set(slot, value == null ? NULL : value);
+    }
+
+    private synchronized Entry insert(String hostname, Object suffixList) {
+        Entry entry = entries.get(hostname);
+        if (entry != null && entry.suffixList == suffixList) {
+            // added concurrently
+            return entry;
+        }
+        entry = new Entry(hostname, suffixList);
+        if (clockSize < maxSize) {
+            clock[clockSize++] = entry;
+        } else {
+            // sweep until an entry not used since the last sweep is found
+            while (clock[hand].referenced) {
+                clock[hand].referenced = false;
+                hand = (hand + 1) % maxSize;
+            }
+            Entry evicted = clock[hand];
+            entries.remove(evicted.hostname, evicted);
+            evictions.increment();
+            clock[hand] = entry;
+            hand = (hand + 1) % maxSize;
+        }
+        entries.put(hostname, entry);
+        return entry;
+    }
+
+    /**
+     * Remove all entries. Statistics are kept.
+     */
+    synchronized void clear() {
+        entries.clear();
+        for (int i = 0; i < clockSize; i++) {
+            clock[i] = null;
+        }
+        clockSize = 0;
+        hand = 0;
+    }
+
+    /**
+     * @return maximum number of cached host names
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return number of cached host names
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups not found in the cache
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of host names removed from the cache to make room for
+     *         new ones
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return ratio of lookups answered from the cache, 0.0 if there were no
+     *         lookups yet
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return (total == 0 ? 0.0 : (double) h / total);
+    }
+
+    @Override
+    public String toString() {
+        return "DomainCache[size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions="
+                        + getEvictionCount() + "]";
+    }
+}
@@ -18,16 +18,27 @@ package crawlercommons.domains;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.net.IDN;
 import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -64,14 +75,19 @@ import org.slf4j.LoggerFactory;
  * </ul>
  *
  * EffectiveTldFinder loads the public suffix list as file
- * "effective_tld_names.dat" from the Java classpath. Make sure your classpath
- * does not contain any other file with the same name, eg. an outdated list
- * shipped with a third party library. To force EffectiveTldFinder to load an
- * updated or modified public suffix list, call
+ * "effective_tld_names.dat" from the Java classpath. For fast startup, the
+ * list is compiled at build time into the binary file
+ * "effective_tld_names.bin" which is loaded instead if it is found next to the
+ * list and was compiled from it, see {@link PublicSuffixListCompiler}. Make
+ * sure your classpath does not contain any other file with the same name, eg.
+ * an outdated list shipped with a third party library. To force
+ * EffectiveTldFinder to load an updated or modified public suffix list, call
  * {@link EffectiveTldFinder#getInstance()
  * EffectiveTldFinder.getInstance()}{@link EffectiveTldFinder#initialize(InputStream)
- * .initialize(InputStream)}. Updates to the public suffix list can be found
- * here:
+ * .initialize(InputStream)}. A long-running application can also replace the
+ * list while lookups are running, via {@link #reload(Path)}, or let the list
+ * be reloaded automatically whenever a local file changes, via
+ * {@link #watch(Path)}. Updates to the public suffix list can be found here:
  * <ul>
  * <li><a href= "https://publicsuffix.org/list/public_suffix_list.dat"
  * >https://publicsuffix.org/list/public_suffix_list.dat</a></li>
@@ -101,6 +117,11 @@ public class EffectiveTldFinder {
     private static final Logger LOGGER = LoggerFactory.getLogger(EffectiveTldFinder.class);
 
     public static final String ETLD_DATA = "/effective_tld_names.dat";
+    /**
+     * Compiled binary form of {@link #ETLD_DATA}, created at build time by
+     * {@link PublicSuffixListCompiler}
+     */
+    public static final String ETLD_COMPILED = "/effective_tld_names.bin";
     public static final String COMMENT = "//";
     public static final String DOT_REGEX = "\\.";
     public static final String EXCEPTION = "!";
@@ -123,16 +144,53 @@ public class EffectiveTldFinder {
      */
     public static final int MAX_DOMAIN_LENGTH_PART = 63;
 
-    private static EffectiveTldFinder instance = null;
-    private Map<String, EffectiveTLD> domains = null;
-    private SuffixTrie<EffectiveTLD> domainTrie = new SuffixTrie<>();
-    private boolean configured = false;
+    /**
+     * Immutable state of a loaded public suffix list. It is held in a single
+     * volatile reference, so that (re)loading a list never exposes a partially
+     * updated state to lookups in other threads.
+     */
+    private static final class SuffixList {
+        final CompactSuffixTrie<EffectiveTLD> trie;
+        /** size in bytes of the public suffix list */
+        final long length;
+        /** version and digests of the public suffix list */
+        final Map<String, String> info;
+
+        SuffixList(CompactSuffixTrie<EffectiveTLD> trie, long length, Map<String, String> info) {
+            this.trie = trie;
+            this.length = length;
+            this.info = info;
+        }
+    }
+
+    private static final SuffixList EMPTY_LIST = new SuffixList(new CompactSuffixTrie<>(new SuffixTrie<>()), -1, Collections.emptyMap());
+
+    private static class InstanceHolder {
+        private static final EffectiveTldFinder INSTANCE = new EffectiveTldFinder();
+    }
+
+    private volatile SuffixList suffixList = EMPTY_LIST;
+    private volatile boolean configured = false;
+    private volatile DomainCache cache = null;
 
     /**
      * A singleton loading the public suffix list from the Java class path.
+     * The compiled public suffix list is preferred if it is found next to the
+     * public suffix list and was compiled from it.
      */
     private EffectiveTldFinder() {
         URL publicSuffixList = this.getClass().getResource(ETLD_DATA);
+        URL compiledList = this.getClass().getResource(ETLD_COMPILED);
+        if (compiledList != null && isCompiledFrom(compiledList, publicSuffixList)) {
+            LOGGER.info("Loading compiled public suffix list from class path: {}", compiledList);
+            try (InputStream is = compiledList.openStream()) {
+                if (initializeCompiled(is)) {
+                    return;
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Failed to load compiled public suffix list {} from class path: {}", compiledList, e);
+            }
+        }
         LOGGER.info("Loading public suffix list from class path: {}", publicSuffixList);
         try (InputStream is = publicSuffixList.openStream()) {
             initialize(is);
@@ -141,16 +199,84 @@ public class EffectiveTldFinder {
         }
     }
 
+    /**
+     * Create an EffectiveTldFinder which is not the singleton instance.
+     *
+     * @param effectiveTldDataStream
+     *            content of public suffix list as input stream
+     */
+    EffectiveTldFinder(InputStream effectiveTldDataStream) {
+        initialize(effectiveTldDataStream);
+    }
+
+    /**
+     * Whether the compiled public suffix list is located in the same
+     * directory or jar file as the public suffix list, and has been compiled
+     * from a list of the same size. This avoids that an updated list placed
+     * first on the class path is shadowed by an outdated compiled list.
+     */
+    private static boolean isCompiledFrom(URL compiledList, URL publicSuffixList) {
+        if (publicSuffixList == null) {
+            return true;
+        }
+        String compiledLocation = compiledList.toString();
+        String listLocation = publicSuffixList.toString();
+        if (!compiledLocation.substring(0, compiledLocation.length() - ETLD_COMPILED.length() + 1)
+                        .equals(listLocation.substring(0, listLocation.length() - ETLD_DATA.length() + 1))) {
+            return false;
+        }
+        try (InputStream is = compiledList.openStream()) {
+            byte[] header = is.readNBytes(COMPILED_HEADER_SIZE);
+            long length = publicSuffixList.openConnection().getContentLengthLong();
+            return header.length == COMPILED_HEADER_SIZE && length == ByteBuffer.wrap(header).getLong(8);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     /**
      * Get singleton instance of EffectiveTldFinder with default configuration.
      *
      * @return singleton instance of EffectiveTldFinder
      */
     public static EffectiveTldFinder getInstance() {
-        if (null == instance) {
-            instance = new EffectiveTldFinder();
+        return InstanceHolder.INSTANCE;
+    }
+
+    private void setSuffixList(SuffixList list) {
+        suffixList = list;
+        DomainCache c = cache;
+        if (c != null) {
+            // cached results are bound to the replaced list and are never
+            // returned again, release them
+            c.clear();
+        }
+    }
+
+    /**
+     * Cache the results of {@link #getAssignedDomain(String, boolean, boolean)}
+     * and {@link #getEffectiveTLD(String, boolean)}, keyed by host name and
+     * lookup flags. The cache is bounded, host names not used recently are
+     * evicted first, see {@link DomainCache}. Cached results are dropped when
+     * the public suffix list is re-initialized or reloaded. The cache is
+     * disabled by default.
+     *
+     * @param maxSize
+     *            maximum number of cached host names, 0 disables the cache
+     */
+    public void setCacheSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
         }
-        return instance;
+        cache = (maxSize > 0) ? new DomainCache(maxSize) : null;
+    }
+
+    /**
+     * @return the cache of lookup results including its hit rate statistics,
+     *         null if caching is disabled, see {@link #setCacheSize(int)}
+     */
+    public DomainCache getCache() {
+        return cache;
     }
 
     /**
@@ -161,73 +287,260 @@ public class EffectiveTldFinder {
      * @return true if (re)initialization was successful
      */
     public boolean initialize(InputStream effectiveTldDataStream) {
-        domains = new HashMap<>();
-        domainTrie = new SuffixTrie<>();
-        boolean inPrivateDomainSection = false;
         try {
-            int linesRead = 0, rulesRead = 0;
-            BoundedInputStream isCounting = BoundedInputStream.builder().setInputStream(effectiveTldDataStream).get();
-            InputStream is = isCounting;
-            List<MessageDigest> digests = new ArrayList<>();
-            try {
-                MessageDigest md5 = MessageDigest.getInstance("MD5");
-                is = new DigestInputStream(is, md5);
-                digests.add(md5);
-                MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
-                is = new DigestInputStream(is, sha512);
-                digests.add(sha512);
-            } catch (NoSuchAlgorithmException e) {
-                LOGGER.warn("Failed to initialize digesting input streams", e);
+            setSuffixList(parse(effectiveTldDataStream));
+            configured = true;
+        } catch (IOException e) {
+            LOGGER.error("EffectiveTldFinder configuration failed: ", e);
+            configured = false;
+        }
+        return configured;
+    }
+
+    /**
+     * Reload the public suffix list, either in text or in compiled form. The
+     * new list is loaded completely before it replaces the current one in a
+     * single atomic step. Lookups running concurrently in other threads are
+     * not blocked and use either the current or the new list. If loading
+     * fails, the current list is kept.
+     *
+     * @param publicSuffixList
+     *            content of the public suffix list or of a compiled list
+     *            created by {@link PublicSuffixListCompiler}
+     * @throws IOException
+     *             if reading fails or the list is invalid
+     */
+    public void reload(InputStream publicSuffixList) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(publicSuffixList);
+        in.mark(4);
+        byte[] magic = in.readNBytes(4);
+        in.reset();
+        SuffixList list;
+        try {
+            if (magic.length == 4 && ByteBuffer.wrap(magic).getInt() == COMPILED_MAGIC) {
+                list = readCompiled(in);
+            } else {
+                list = parse(in);
             }
-            BufferedReader input = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
-            String line = null;
-            while (null != (line = input.readLine())) {
-                linesRead++;
-                if (line.trim().isEmpty()) {
-                    continue;
-                } else if (line.startsWith(COMMENT)) {
-                    if (line.contains("===BEGIN PRIVATE DOMAINS===")) {
-                        inPrivateDomainSection = true;
-                    } else if (line.contains("===END PRIVATE DOMAINS===")) {
-                        inPrivateDomainSection = false;
-                    } else {
-                        Matcher m = VERSION_PATTERN.matcher(line);
-                        if (m.matches()) {
-                            LOGGER.info("Public suffix list {}: {}", m.group(1), m.group(2));
-                        }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Invalid public suffix list", e);
+        }
+        setSuffixList(list);
+        configured = true;
+    }
+
+    /**
+     * Reload the public suffix list from a file, see
+     * {@link #reload(InputStream)}.
+     *
+     * @param publicSuffixList
+     *            path of the public suffix list or of a compiled list
+     * @throws IOException
+     *             if reading fails or the list is invalid
+     */
+    public void reload(Path publicSuffixList) throws IOException {
+        LOGGER.info("Reloading public suffix list {}", publicSuffixList);
+        try (InputStream in = Files.newInputStream(publicSuffixList)) {
+            reload(in);
+        }
+    }
+
+    /**
+     * Watch a local file and reload the public suffix list whenever the file
+     * is created or modified. The file should be replaced atomically (written
+     * to a temporary file and moved into place). Otherwise a partially
+     * written list could be loaded. Failures to reload are logged and the
+     * current list is kept.
+     *
+     * @param publicSuffixList
+     *            path of the public suffix list or of a compiled list
+     * @return handle to stop watching the file
+     * @throws IOException
+     *             if the file system does not support watching the file
+     */
+    public Closeable watch(Path publicSuffixList) throws IOException {
+        return new PublicSuffixListWatcher(this, publicSuffixList);
+    }
+
+    /**
+     * Parse a public suffix list in text form.
+     */
+    private static SuffixList parse(InputStream effectiveTldDataStream) throws IOException {
+        SuffixTrie<EffectiveTLD> trie = new SuffixTrie<>();
+        Map<String, String> info = new LinkedHashMap<>();
+        boolean inPrivateDomainSection = false;
+        int linesRead = 0, rulesRead = 0;
+        BoundedInputStream isCounting = BoundedInputStream.builder().setInputStream(effectiveTldDataStream).get();
+        InputStream is = isCounting;
+        List<MessageDigest> digests = new ArrayList<>();
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            is = new DigestInputStream(is, md5);
+            digests.add(md5);
+            MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
+            is = new DigestInputStream(is, sha512);
+            digests.add(sha512);
+        } catch (NoSuchAlgorithmException e) {
+            LOGGER.warn("Failed to initialize digesting input streams", e);
+        }
+        BufferedReader input = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        String line = null;
+        while (null != (line = input.readLine())) {
+            linesRead++;
+            if (line.trim().isEmpty()) {
+                continue;
+            } else if (line.startsWith(COMMENT)) {
+                if (line.contains("===BEGIN PRIVATE DOMAINS===")) {
+                    inPrivateDomainSection = true;
+                } else if (line.contains("===END PRIVATE DOMAINS===")) {
+                    inPrivateDomainSection = false;
+                } else {
+                    Matcher m = VERSION_PATTERN.matcher(line);
+                    if (m.matches()) {
+                        LOGGER.info("Public suffix list {}: {}", m.group(1), m.group(2));
+                        info.put(m.group(1), m.group(2));
                     }
-                    continue;
-                }
-                rulesRead++;
-                EffectiveTLD entry = new EffectiveTLD(line, inPrivateDomainSection);
-                for (String var : entry.getNameVariants()) {
-                    domains.put(var, entry);
-                    domainTrie.put(var, entry);
                 }
+                continue;
             }
-            configured = true;
-
-            is.close();
-            long bytesRead = isCounting.getCount();
-            LOGGER.info("Successfully read public suffix list: {} bytes, {} lines, {} rules", bytesRead, linesRead, rulesRead);
-            for (MessageDigest digest : digests) {
-                byte[] d = digest.digest();
-                BigInteger bi = new BigInteger(1, d);
-                String hexDigest = String.format(Locale.ROOT, "%0" + (d.length << 1) + "X", bi);
-                LOGGER.info("Digest of public suffix list: {} = {}", digest.getAlgorithm(), hexDigest);
+            rulesRead++;
+            EffectiveTLD entry = new EffectiveTLD(line, inPrivateDomainSection);
+            for (String var : entry.getNameVariants()) {
+                trie.put(var, entry);
             }
-        } catch (IOException e) {
-            LOGGER.error("EffectiveTldFinder configuration failed: ", e);
+        }
+
+        is.close();
+        long bytesRead = isCounting.getCount();
+        LOGGER.info("Successfully read public suffix list: {} bytes, {} lines, {} rules", bytesRead, linesRead, rulesRead);
+        for (MessageDigest digest : digests) {
+            byte[] d = digest.digest();
+            BigInteger bi = new BigInteger(1, d);
+            String hexDigest = String.format(Locale.ROOT, "%0" + (d.length << 1) + "X", bi);
+            LOGGER.info("Digest of public suffix list: {} = {}", digest.getAlgorithm(), hexDigest);
+            info.put(digest.getAlgorithm(), hexDigest);
+        }
+        return new SuffixList(new CompactSuffixTrie<>(trie), bytesRead, info);
+    }
+
+    /** magic bytes "CCPS" starting a compiled public suffix list */
+    private static final int COMPILED_MAGIC = 0x43435053;
+    private static final int COMPILED_VERSION = 1;
+    /** magic, version and size of the source list */
+    private static final int COMPILED_HEADER_SIZE = 16;
+
+    private static final int FLAG_EXCEPTION = 1;
+    private static final int FLAG_WILDCARD = 2;
+    private static final int FLAG_PRIVATE = 4;
+
+    /**
+     * (Re)initialize EffectiveTldFinder with a compiled public suffix list,
+     * created by {@link PublicSuffixListCompiler}. The compiled list holds the
+     * parsed public suffixes and the suffix trie, which are read in a single
+     * pass without any parsing or IDN conversions.
+     *
+     * @param compiledList
+     *            content of compiled public suffix list as input stream
+     * @return true if (re)initialization was successful
+     */
+    public boolean initializeCompiled(InputStream compiledList) {
+        try {
+            setSuffixList(readCompiled(compiledList));
+            configured = true;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            LOGGER.error("EffectiveTldFinder configuration from compiled list failed: ", e);
             configured = false;
         }
         return configured;
     }
 
-    @SuppressWarnings("unchecked")
+    private static SuffixList readCompiled(InputStream compiledList) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(compiledList.readAllBytes());
+        if (in.remaining() < COMPILED_HEADER_SIZE || in.getInt() != COMPILED_MAGIC) {
+            throw new IOException("Not a compiled public suffix list");
+        }
+        int version = in.getInt();
+        if (version != COMPILED_VERSION) {
+            throw new IOException("Unsupported version of compiled public suffix list: " + version);
+        }
+        long length = in.getLong();
+        Map<String, String> info = new LinkedHashMap<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            info.put(getString(in), getString(in));
+        }
+        int numRules = in.getInt();
+        EffectiveTLD[] rules = new EffectiveTLD[numRules];
+        for (int i = 0; i < numRules; i++) {
+            int flags = in.get();
+            String domain = getString(in);
+            String idn = getString(in);
+            rules[i] = new EffectiveTLD(domain, idn.isEmpty() ? null : idn, flags);
+        }
+        CompactSuffixTrie<EffectiveTLD> trie = CompactSuffixTrie.read(in, id -> rules[id]);
+        LOGGER.info("Successfully read compiled public suffix list: {} rules, compiled from {} bytes", numRules, length);
+        for (Map.Entry<String, String> e : info.entrySet()) {
+            LOGGER.info("Public suffix list {}: {}", e.getKey(), e.getValue());
+        }
+        return new SuffixList(trie, length, info);
+    }
+
+    /**
+     * Write the loaded public suffix list in compiled form, to be read by
+     * {@link #initializeCompiled(InputStream)}.
+     *
+     * @param out
+     *            output stream
+     * @throws IOException
+     *             if writing fails
+     */
+    void writeCompiled(OutputStream out) throws IOException {
+        SuffixList list = suffixList;
+        Map<EffectiveTLD, Integer> ids = new IdentityHashMap<>();
+        List<EffectiveTLD> rules = new ArrayList<>();
+        list.trie.forEach((name, rule) -> {
+            if (!ids.containsKey(rule)) {
+                ids.put(rule, rules.size());
+                rules.add(rule);
+            }
+        });
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(COMPILED_MAGIC);
+        data.writeInt(COMPILED_VERSION);
+        data.writeLong(list.length);
+        data.writeInt(list.info.size());
+        for (Map.Entry<String, String> e : list.info.entrySet()) {
+            putString(data, e.getKey());
+            putString(data, e.getValue());
+        }
+        data.writeInt(rules.size());
+        for (EffectiveTLD rule : rules) {
+            data.writeByte((rule.exception ? FLAG_EXCEPTION : 0) | (rule.wildcard ? FLAG_WILDCARD : 0) | (rule.isPrivate ? FLAG_PRIVATE : 0));
+            putString(data, rule.domain);
+            putString(data, rule.idn == null ? "" : rule.idn);
+        }
+        list.trie.write(data, ids::get);
+        data.flush();
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort() & 0xffff;
+        String s = new String(in.array(), in.arrayOffset() + in.position(), length, UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+
+    private static void putString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
     public static Map<String, EffectiveTLD> getEffectiveTLDs() {
-        // The keys and values are immutables but we don't want the caller
-        // changing the repertoire of our internal Map entries, so we clone
-        return (Map<String, EffectiveTLD>) ((HashMap<String, EffectiveTLD>) getInstance().domains).clone();
+        // The keys and values are immutables, the map is created from the
+        // suffix trie, so that callers cannot change the repertoire
+        Map<String, EffectiveTLD> domains = new HashMap<>();
+        getInstance().suffixList.trie.forEach(domains::put);
+        return domains;
     }
 
     /**
@@ -254,6 +567,24 @@ public class EffectiveTldFinder {
      * @return the {@link EffectiveTLD}
      */
     public static EffectiveTLD getEffectiveTLD(String hostname, boolean excludePrivate) {
+        EffectiveTldFinder finder = getInstance();
+        DomainCache c = finder.cache;
+        if (c == null) {
+            return getEffectiveTLDNotCached(hostname, excludePrivate);
+        }
+        hostname = hostname.toLowerCase(Locale.ROOT);
+        SuffixList list = finder.suffixList;
+        int slot = DomainCache.slot(DomainCache.EFFECTIVE_TLD, false, excludePrivate);
+        Object cached = c.get(hostname, slot, list);
+        if (cached != null) {
+            return (cached == DomainCache.NULL ? null : (EffectiveTLD) cached);
+        }
+        EffectiveTLD etld = getEffectiveTLDNotCached(hostname, excludePrivate);
+        c.put(hostname, slot, list, etld);
+        return etld;
+    }
+
+    private static EffectiveTLD getEffectiveTLDNotCached(String hostname, boolean excludePrivate) {
         SuffixTrie.LookupResult<EffectiveTLD> res = findEffectiveTLD(hostname, excludePrivate);
         if (res == null) {
             return null;
@@ -273,52 +604,144 @@ public class EffectiveTldFinder {
      * @return the {@link EffectiveTLD} or null if none is found
      */
     private static SuffixTrie.LookupResult<EffectiveTLD> findEffectiveTLD(String hostname, boolean excludePrivate) {
-        List<SuffixTrie.LookupResult<EffectiveTLD>> suffixes = getInstance().domainTrie.getSuffixes(hostname);
-        for (int i = suffixes.size() - 1; i >= 0; i--) {
-            SuffixTrie.LookupResult<EffectiveTLD> res = suffixes.get(i);
-            int offset = res.offset;
-            if (offset == 0 || DOT == hostname.charAt(offset - 1)) {
-                EffectiveTLD foundTld = res.value;
-                if (excludePrivate && foundTld.isPrivate) {
-                    continue;
-                }
-                if (offset == 0 && foundTld.isWildcard()) {
-                    /*
-                     * a wildcard suffix cannot match at the beginning of the
-                     * string because the `*` must match one host name segment
-                     */
-                    continue;
-                }
-                if (offset == 0 || foundTld.isException() || !foundTld.isWildcard()) {
-                    if (foundTld.idn != null) {
-                        foundTld = new EffectiveTLD(hostname.substring(offset), foundTld);
-                        return new SuffixTrie.LookupResult<EffectiveTLD>(offset, foundTld);
-                    }
-                    return res;
-                }
+        CompactSuffixTrie<EffectiveTLD> trie = getInstance().suffixList.trie;
+        hostname = hostname.toLowerCase(Locale.ROOT);
+        long res = lookup(trie, hostname, 0, hostname.length(), excludePrivate);
+        if (res == NOT_FOUND) {
+            return null;
+        }
+        int offset = (int) res;
+        if ((res & WILDCARD_MATCH) != 0) {
+            // wildcard suffixes create an open ETLD namespace
+            EffectiveTLD wildcardTld = trie.get(hostname.substring(hostname.indexOf(DOT, offset) + 1));
+            return new SuffixTrie.LookupResult<EffectiveTLD>(offset, new EffectiveTLD(hostname.substring(offset), wildcardTld));
+        }
+        EffectiveTLD foundTld = trie.get(hostname.substring(offset));
+        if (foundTld.idn != null) {
+            foundTld = new EffectiveTLD(hostname.substring(offset), foundTld);
+        }
+        return new SuffixTrie.LookupResult<EffectiveTLD>(offset, foundTld);
+    }
 
-                // wildcard suffixes create an open ETLD namespace
-                int wildcardOffset = hostname.lastIndexOf(DOT, offset - 2);
-                String retryTld;
-                if (wildcardOffset == -1) {
-                    // no further dot-separated element found, take full host
-                    // name
-                    retryTld = hostname;
-                } else {
-                    retryTld = hostname.substring(wildcardOffset + 1);
-                }
+    /** Returned by {@link #lookup(CompactSuffixTrie, CharSequence, int, int, boolean)} if no eTLD is found. */
+    private static final long NOT_FOUND = -1L;
 
-                try {
-                    foundTld = new EffectiveTLD(retryTld, foundTld);
-                } catch (IllegalArgumentException e) {
-                    // retryTld contains forbidden characters
-                    return null;
-                }
+    /** Flag set if the eTLD is matched by a wildcard rule. */
+    private static final long WILDCARD_MATCH = 1L << 32;
+
+    /** Flag set if the eTLD is matched by an exception rule. */
+    private static final long EXCEPTION_MATCH = 1L << 33;
 
-                return new SuffixTrie.LookupResult<EffectiveTLD>(wildcardOffset + 1, foundTld);
+    /**
+     * Find the offset of the effective TLD in a host name. The suffix trie is
+     * walked once from the end of the host name, and the longest matching
+     * suffix eligible as eTLD is tracked in local variables, so that no
+     * objects are created. Characters are matched case-insensitively.
+     *
+     * @param trie
+     *            suffix trie holding the public suffix list
+     * @param hostname
+     *            the hostname for which to find the eTLD
+     * @param start
+     *            start offset of the hostname
+     * @param end
+     *            end offset of the hostname
+     * @param excludePrivate
+     *            skip eTLDs from the PRIVATE section
+     * @return offset of the eTLD in the lower 32 bits, combined with the flags
+     *         {@link #WILDCARD_MATCH} and {@link #EXCEPTION_MATCH}, or
+     *         {@link #NOT_FOUND}
+     */
+    private static long lookup(CompactSuffixTrie<EffectiveTLD> trie, CharSequence hostname, int start, int end, boolean excludePrivate) {
+        int node = CompactSuffixTrie.ROOT;
+        EffectiveTLD found = null;
+        int offset = -1;
+        int i = end;
+        while (true) {
+            EffectiveTLD etld = trie.getValue(node);
+            if (etld != null && (i == start || DOT == hostname.charAt(i - 1)) && !(excludePrivate && etld.isPrivate)) {
+                /*
+                 * a wildcard suffix cannot match at the beginning of the
+                 * string because the `*` must match one host name segment
+                 */
+                if (i > start || !etld.wildcard) {
+                    found = etld;
+                    offset = i;
+                }
+            }
+            if (i == start) {
+                break;
+            }
+            char c = hostname.charAt(--i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            } else if (c > 127) {
+                c = Character.toLowerCase(c);
+            }
+            node = trie.getChild(node, c);
+            if (node == -1) {
+                break;
             }
         }
-        return null;
+        if (found == null) {
+            return NOT_FOUND;
+        }
+        if (found.exception) {
+            return EXCEPTION_MATCH | offset;
+        }
+        if (found.wildcard) {
+            // extend the eTLD by one dot-separated element, or take the full
+            // host name if there is no further element
+            int wildcardOffset = offset - 2;
+            while (wildcardOffset >= start && hostname.charAt(wildcardOffset) != DOT) {
+                wildcardOffset--;
+            }
+            return WILDCARD_MATCH | (wildcardOffset + 1);
+        }
+        return offset;
+    }
+
+    /**
+     * Find the offset of the effective TLD (public suffix) in a host name
+     * using the singleton instance of EffectiveTldFinder. In difference to
+     * {@link #getEffectiveTLD(String, boolean)} no objects are created.
+     *
+     * @param hostname
+     *            the hostname for which to find the eTLD
+     * @param excludePrivate
+     *            do not match an effective TLD from the PRIVATE section,
+     *            instead match the shorter eTLD not in the PRIVATE section
+     * @return offset of the eTLD in the hostname, -1 if none is found. The
+     *         eTLD is the same as {@link EffectiveTLD#getDomain()} of the
+     *         {@link EffectiveTLD} returned by
+     *         {@link #getEffectiveTLD(String, boolean)}.
+     */
+    public static int getEffectiveTLDOffset(CharSequence hostname, boolean excludePrivate) {
+        return getEffectiveTLDOffset(hostname, 0, hostname.length(), excludePrivate);
+    }
+
+    /**
+     * Find the offset of the effective TLD (public suffix) in a host name
+     * which is part of a longer character sequence, e.g. a URL. The host name
+     * is matched case-insensitively and is not copied.
+     *
+     * @param hostname
+     *            character sequence containing the hostname
+     * @param start
+     *            start offset of the hostname
+     * @param end
+     *            end offset of the hostname
+     * @param excludePrivate
+     *            do not match an effective TLD from the PRIVATE section,
+     *            instead match the shorter eTLD not in the PRIVATE section
+     * @return offset of the eTLD, -1 if none is found
+     */
+    public static int getEffectiveTLDOffset(CharSequence hostname, int start, int end, boolean excludePrivate) {
+        long res = lookup(getInstance().suffixList.trie, hostname, start, end, excludePrivate);
+        if (res == NOT_FOUND) {
+            return -1;
+        }
+        return (int) res;
     }
 
     /**
@@ -368,55 +791,167 @@ public class EffectiveTldFinder {
      */
     public static String getAssignedDomain(String hostname, boolean strict, boolean excludePrivate) {
         hostname = hostname.toLowerCase(Locale.ROOT);
-        SuffixTrie.LookupResult<EffectiveTLD> res = findEffectiveTLD(hostname, excludePrivate);
-        if (res == null) {
-            return (strict ? null : hostname);
+        EffectiveTldFinder finder = getInstance();
+        DomainCache c = finder.cache;
+        if (c == null) {
+            return getAssignedDomainNotCached(hostname, strict, excludePrivate);
         }
-        EffectiveTLD etld = res.value;
-        if (etld.isException()) {
-            return etld.domain;
+        SuffixList list = finder.suffixList;
+        int slot = DomainCache.slot(DomainCache.ASSIGNED_DOMAIN, strict, excludePrivate);
+        Object cached = c.get(hostname, slot, list);
+        if (cached != null) {
+            return (cached == DomainCache.NULL ? null : (String) cached);
         }
-        if (res.offset == 0) {
+        String domain = getAssignedDomainNotCached(hostname, strict, excludePrivate);
+        c.put(hostname, slot, list, domain);
+        return domain;
+    }
+
+    private static String getAssignedDomainNotCached(String hostname, boolean strict, boolean excludePrivate) {
+        int start = getAssignedDomainOffset(hostname, strict, excludePrivate);
+        if (start == -1) {
+            return null;
+        }
+        return hostname.substring(start);
+    }
+
+    /**
+     * Find the offset of the NIC-assigned domain name in a host name, see
+     * {@link #getAssignedDomain(String, boolean, boolean)}. No objects are
+     * created, except for host names containing non-ASCII characters, which
+     * require a validation of the IDN segment.
+     *
+     * @param hostname
+     *            a host name for which to obtain a NIC-assigned domain name
+     * @param strict
+     *            return -1 instead of 0 (the entire hostname) as fall-back if
+     *            a FQDN with valid TLD cannot be determined
+     * @param excludePrivate
+     *            do not return a domain which is below an eTLD from the PRIVATE
+     *            section, return the shorter domain which is below the
+     *            &quot;ICANN&quot; registry suffix
+     * @return offset of the NIC-assigned domain name in the hostname, -1 if
+     *         strict and no FQDN with valid TLD is found
+     */
+    public static int getAssignedDomainOffset(CharSequence hostname, boolean strict, boolean excludePrivate) {
+        return getAssignedDomainOffset(hostname, 0, hostname.length(), strict, excludePrivate);
+    }
+
+    /**
+     * Find the offset of the NIC-assigned domain name in a host name which is
+     * part of a longer character sequence, e.g. a URL. The host name is
+     * matched case-insensitively and is not copied.
+     *
+     * @param hostname
+     *            character sequence containing the host name
+     * @param start
+     *            start offset of the host name
+     * @param end
+     *            end offset of the host name
+     * @param strict
+     *            return -1 instead of the start offset (the entire hostname)
+     *            as fall-back if a FQDN with valid TLD cannot be determined
+     * @param excludePrivate
+     *            do not return a domain which is below an eTLD from the PRIVATE
+     *            section, return the shorter domain which is below the
+     *            &quot;ICANN&quot; registry suffix
+     * @return offset of the NIC-assigned domain name, -1 if strict and no FQDN
+     *         with valid TLD is found
+     */
+    public static int getAssignedDomainOffset(CharSequence hostname, int start, int end, boolean strict, boolean excludePrivate) {
+        long res = findAssignedDomain(hostname, start, end, strict, excludePrivate);
+        if (res == NOT_FOUND) {
+            return (strict ? -1 : start);
+        }
+        return (int) (res >>> 32);
+    }
+
+    /**
+     * Find the NIC-assigned domain name and the public suffix below which it is
+     * registered, in a single walk of the suffix trie.
+     *
+     * @param hostname
+     *            character sequence containing the host name
+     * @param start
+     *            start offset of the host name
+     * @param end
+     *            end offset of the host name
+     * @param strict
+     *            also reject domain names with a segment longer than
+     *            {@link #MAX_DOMAIN_LENGTH_PART} characters
+     * @param excludePrivate
+     *            do not match suffixes from the PRIVATE section
+     * @return offset of the NIC-assigned domain name (upper 32 bits) and of
+     *         its public suffix (lower 32 bits), or -1 if no FQDN with valid
+     *         TLD is found
+     */
+    static long findAssignedDomain(CharSequence hostname, int start, int end, boolean strict, boolean excludePrivate) {
+        long res = lookup(getInstance().suffixList.trie, hostname, start, end, excludePrivate);
+        if (res == NOT_FOUND) {
+            return NOT_FOUND;
+        }
+        int offset = (int) res;
+        if ((res & EXCEPTION_MATCH) != 0) {
+            // the exception rule matches the domain, the public suffix is
+            // one dot-separated element shorter
+            int suffixStart = offset;
+            while (suffixStart < end && hostname.charAt(suffixStart) != DOT) {
+                suffixStart++;
+            }
+            return ((long) offset << 32) | Math.min(suffixStart + 1, end);
+        }
+        if (offset == start) {
             // found eTLD covering entire hostname:
-            // if strict: hostname cannot be an eTLD (except if it's an
-            // exception which is already checked)
-            return (strict ? null : hostname);
+            // hostname cannot be an eTLD (except if it's an exception which
+            // is already checked)
+            return NOT_FOUND;
         }
         // clip hostname one dot-separated element before eTLD
-        int etldStartPos = res.offset - 1;
+        int etldStartPos = offset - 1;
         if (hostname.charAt(etldStartPos) != DOT) {
             // should not happen: no dot before TLD
-            LOGGER.debug("No dot before eTLD {} in {}", hostname.substring(res.offset), hostname);
-            return (strict ? null : hostname);
-        }
-        int start = 0;
-        int pos;
-        while ((pos = hostname.indexOf(DOT, start)) != -1) {
-            if (pos == start) {
-                // there must be at least one character between two dots
-                LOGGER.debug("Two immediately consecutive dots in hostname: {}", hostname);
-                return (strict ? null : hostname);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("No dot before eTLD {} in {}", hostname.subSequence(offset, end), hostname.subSequence(start, end));
             }
-            if (pos >= etldStartPos)
-                break;
-            start = pos + 1;
+            return NOT_FOUND;
         }
-        String domainSegment = hostname.substring(start, etldStartPos);
-        if (!EffectiveTLD.isAscii(domainSegment)) {
+        int domainStart = start;
+        boolean isAscii = true;
+        for (int pos = start; pos < etldStartPos; pos++) {
+            char c = hostname.charAt(pos);
+            if (c == DOT) {
+                if (pos == domainStart) {
+                    // there must be at least one character between two dots
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Two immediately consecutive dots in hostname: {}", hostname.subSequence(start, end));
+                    }
+                    return NOT_FOUND;
+                }
+                domainStart = pos + 1;
+                isAscii = true;
+            } else if (c > 127) {
+                isAscii = false;
+            }
+        }
+        if (domainStart == etldStartPos) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Two immediately consecutive dots in hostname: {}", hostname.subSequence(start, end));
+            }
+            return NOT_FOUND;
+        }
+        if (!isAscii) {
             try {
-                IDN.toASCII(domainSegment);
+                IDN.toASCII(hostname.subSequence(domainStart, etldStartPos).toString());
             } catch (IllegalArgumentException e) {
                 // not a valid IDN segment,
                 // includes check for max. length (63 chars)
-                return (strict ? null : hostname);
+                return NOT_FOUND;
             }
-        } else if (strict) {
+        } else if (strict && (etldStartPos - domainStart) > MAX_DOMAIN_LENGTH_PART) {
             // (strict mode) check for max. length of segment (63 chars)
-            if (domainSegment.length() > MAX_DOMAIN_LENGTH_PART) {
-                return null;
-            }
+            return NOT_FOUND;
         }
-        return hostname.substring(start);
+        return ((long) domainStart << 32) | offset;
     }
 
     public boolean isConfigured() {
@@ -559,6 +1094,19 @@ public class EffectiveTldFinder {
             isPrivate = isPrivateDomain;
         }
 
+        /**
+         * Constructor for a public suffix read from a compiled public suffix
+         * list.
+         */
+        private EffectiveTLD(String domain, String idn, int flags) {
+            this.domain = domain;
+            this.idn = idn;
+            suffix = domain;
+            exception = (flags & FLAG_EXCEPTION) != 0;
+            wildcard = (flags & FLAG_WILDCARD) != 0;
+            isPrivate = (flags & FLAG_PRIVATE) != 0;
+        }
+
         /**
          * Constructor for a matched public suffix.
          *
@@ -17,7 +17,10 @@
 package crawlercommons.domains;
 
 import java.net.URL;
-import java.util.regex.Pattern;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +33,11 @@ import org.slf4j.LoggerFactory;
 public class PaidLevelDomain {
     private static final Logger LOGGER = LoggerFactory.getLogger(PaidLevelDomain.class);
 
-    private static final Pattern IPV4_ADDRESS_PATTERN = Pattern.compile("\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}");
+    /**
+     * Batches of host names larger than this are split into parallel tasks by
+     * {@link #getPLDs(String[], ForkJoinPool)}.
+     */
+    static final int PARALLEL_BATCH_SIZE = 4096;
 
     /**
      * Extract the PLD (paid-level domain) from the hostname. If the format
@@ -41,13 +48,9 @@ public class PaidLevelDomain {
      * @return PLD, e.g. <code>example.co.uk</code>
      */
     public static String getPLD(String hostname) {
-        // First, check for weird [HHHH:HH::H] IPv6 format.
-        if (hostname.startsWith("[") && hostname.endsWith("]")) {
-            return hostname;
-        }
-
-        // Check for ddd.ddd.ddd.ddd IPv4 format
-        if (IPV4_ADDRESS_PATTERN.matcher(hostname).matches()) {
+        // Check for weird [HHHH:HH::H] IPv6 format and ddd.ddd.ddd.ddd IPv4
+        // format
+        if (isIPv6Literal(hostname) || isIPv4Address(hostname)) {
             return hostname;
         }
 
@@ -71,4 +74,383 @@ public class PaidLevelDomain {
     public static String getPLD(URL url) {
         return getPLD(url.getHost());
     }
+
+    /**
+     * Extract the PLDs (paid-level domains) from a batch of host names, see
+     * {@link #getPLD(String)}. Large batches are split and processed in
+     * parallel using the common fork-join pool.
+     * 
+     * @param hostnames
+     *            host names
+     * @return PLDs, in the same order as the host names
+     */
+    public static String[] getPLDs(String[] hostnames) {
+        return getPLDs(hostnames, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Extract the PLDs (paid-level domains) from a batch of host names, see
+     * {@link #getPLD(String)}. Batches larger than 4096 host names are split
+     * and processed in parallel using the given fork-join pool. Runs of
+     * identical host names, as found in sorted input, are looked up only once.
+     * 
+     * @param hostnames
+     *            host names
+     * @param pool
+     *            fork-join pool used to process large batches
+     * @return PLDs, in the same order as the host names
+     */
+    public static String[] getPLDs(String[] hostnames, ForkJoinPool pool) {
+        String[] plds = new String[hostnames.length];
+        if (hostnames.length <= PARALLEL_BATCH_SIZE) {
+            getPLDs(hostnames, plds, 0, hostnames.length);
+        } else {
+            pool.invoke(new BatchTask(hostnames, plds, 0, hostnames.length));
+        }
+        return plds;
+    }
+
+    /**
+     * Extract the PLDs (paid-level domains) from a stream of host names, see
+     * {@link #getPLD(String)}. The returned stream is parallel if the input
+     * stream is.
+     * 
+     * @param hostnames
+     *            stream of host names
+     * @return stream of PLDs, in the same order as the host names
+     */
+    public static Stream<String> getPLDs(Stream<String> hostnames) {
+        return hostnames.map(PaidLevelDomain::getPLD);
+    }
+
+    private static void getPLDs(String[] hostnames, String[] plds, int start, int end) {
+        String previousHostname = null;
+        String previousPld = null;
+        for (int i = start; i < end; i++) {
+            String hostname = hostnames[i];
+            if (!hostname.equals(previousHostname)) {
+                previousHostname = hostname;
+                previousPld = getPLD(hostname);
+            }
+            plds[i] = previousPld;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class BatchTask extends RecursiveAction {
+        private final String[] hostnames;
+        private final String[] plds;
+        private final int start;
+        private final int end;
+
+        BatchTask(String[] hostnames, String[] plds, int start, int end) {
+            this.hostnames = hostnames;
+            this.plds = plds;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if ((end - start) <= PARALLEL_BATCH_SIZE) {
+                getPLDs(hostnames, plds, start, end);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new BatchTask(hostnames, plds, start, mid), new BatchTask(hostnames, plds, mid, end));
+        }
+    }
+
+    /**
+     * Locate the host name in a URL without parsing it into a {@link URL}
+     * object. The URL must contain an authority, i.e. start with a scheme
+     * followed by <code>://</code>, or be a protocol-relative URL starting with
+     * <code>//</code>. User info and port are skipped, IPv6 addresses are
+     * returned including the square brackets.
+     * 
+     * @param url
+     *            character sequence containing the URL
+     * @param start
+     *            start offset of the URL
+     * @param end
+     *            end offset of the URL
+     * @return start (upper 32 bits) and end (lower 32 bits) offset of the host
+     *         name, -1 if the URL has no authority or the host name is empty
+     */
+    public static long findHost(CharSequence url, int start, int end) {
+        int i = start;
+        if (i < end && isAsciiLetter(url.charAt(i))) {
+            // skip scheme
+            while (++i < end && isSchemeCharacter(url.charAt(i))) {
+            }
+            if (i == end || url.charAt(i) != ':') {
+                return -1;
+            }
+            i++;
+        }
+        if ((i + 2) > end || url.charAt(i) != '/' || url.charAt(i + 1) != '/') {
+            return -1;
+        }
+        int hostStart = i + 2;
+        int authorityEnd = hostStart;
+        for (; authorityEnd < end; authorityEnd++) {
+            char c = url.charAt(authorityEnd);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            } else if (c == '@') {
+                hostStart = authorityEnd + 1;
+            }
+        }
+        int hostEnd = hostStart;
+        if (hostStart < authorityEnd && url.charAt(hostStart) == '[') {
+            while (hostEnd < authorityEnd && url.charAt(hostEnd) != ']') {
+                hostEnd++;
+            }
+            if (hostEnd == authorityEnd) {
+                // unterminated IPv6 address
+                return -1;
+            }
+            hostEnd++;
+        } else {
+            while (hostEnd < authorityEnd && url.charAt(hostEnd) != ':') {
+                hostEnd++;
+            }
+        }
+        if (hostEnd == hostStart) {
+            return -1;
+        }
+        return ((long) hostStart << 32) | hostEnd;
+    }
+
+    /**
+     * Locate the host name in a UTF-8 encoded URL, see
+     * {@link #findHost(CharSequence, int, int)}.
+     * 
+     * @param url
+     *            UTF-8 encoded URL
+     * @param start
+     *            start offset of the URL
+     * @param end
+     *            end offset of the URL
+     * @return start (upper 32 bits) and end (lower 32 bits) byte offset of the
+     *         host name, -1 if the URL has no authority or the host name is
+     *         empty
+     */
+    public static long findHost(byte[] url, int start, int end) {
+        // all delimiters are ASCII characters, which never occur inside of
+        // UTF-8 multi-byte sequences
+        return findHost(new ByteSequence(url), start, end);
+    }
+
+    /**
+     * Locate the PLD (paid-level domain) and its public suffix in a host name,
+     * e.g. a span returned by {@link #findHost(CharSequence, int, int)}. The
+     * host name is matched case-insensitively and is not copied, so that the
+     * PLDs of many URLs can be compared or grouped without creating
+     * intermediate strings. The PLD is the same as returned by
+     * {@link #getPLD(String)}, except that it is not lower-cased.
+     * 
+     * <p>
+     * If the host name is an IP address or no PLD is found, the entire host
+     * name is the PLD, and the public suffix is empty.
+     * </p>
+     * 
+     * @param hostname
+     *            character sequence containing the host name
+     * @param start
+     *            start offset of the host name
+     * @param end
+     *            end offset of the host name
+     * @return start offset of the PLD (upper 32 bits) and of the public suffix
+     *         (lower 32 bits). The public suffix ends at the end of the host
+     *         name.
+     */
+    public static long findPLD(CharSequence hostname, int start, int end) {
+        if (isIPv6Literal(hostname, start, end) || isIPv4Address(hostname, start, end)) {
+            return ((long) start << 32) | end;
+        }
+        long res = EffectiveTldFinder.findAssignedDomain(hostname, start, end, true, true);
+        if (res == -1) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Hostname {} isn't a valid FQDN", hostname.subSequence(start, end));
+            }
+            return ((long) start << 32) | end;
+        }
+        return res;
+    }
+
+    /**
+     * Locate the PLD (paid-level domain) and its public suffix in a UTF-8
+     * encoded host name, see {@link #findPLD(CharSequence, int, int)}.
+     * 
+     * @param hostname
+     *            UTF-8 encoded host name
+     * @param start
+     *            start offset of the host name
+     * @param end
+     *            end offset of the host name
+     * @return byte offset of the PLD (upper 32 bits) and of the public suffix
+     *         (lower 32 bits)
+     */
+    public static long findPLD(byte[] hostname, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (hostname[i] < 0) {
+                // non-ASCII (internationalized) host name: decode and map the
+                // character offsets back to byte offsets
+                String decoded = new String(hostname, start, end - start, StandardCharsets.UTF_8);
+                long res = findPLD(decoded, 0, decoded.length());
+                int pldStart = start + utf8Length(decoded, (int) (res >>> 32));
+                int suffixStart = start + utf8Length(decoded, (int) res);
+                return ((long) pldStart << 32) | suffixStart;
+            }
+        }
+        return findPLD(new ByteSequence(hostname), start, end);
+    }
+
+    /**
+     * Locate the PLD (paid-level domain) in a URL, combining
+     * {@link #findHost(CharSequence, int, int)} and
+     * {@link #findPLD(CharSequence, int, int)}.
+     * 
+     * @param url
+     *            character sequence containing the URL
+     * @param start
+     *            start offset of the URL
+     * @param end
+     *            end offset of the URL
+     * @return start offset of the PLD (upper 32 bits) and of the public suffix
+     *         (lower 32 bits), -1 if the URL has no host name. The public
+     *         suffix ends at the end of the host name.
+     */
+    public static long findPLDInURL(CharSequence url, int start, int end) {
+        long host = findHost(url, start, end);
+        if (host == -1) {
+            return -1;
+        }
+        return findPLD(url, (int) (host >>> 32), (int) host);
+    }
+
+    /**
+     * Locate the PLD (paid-level domain) in a UTF-8 encoded URL, see
+     * {@link #findPLDInURL(CharSequence, int, int)}.
+     * 
+     * @param url
+     *            UTF-8 encoded URL
+     * @param start
+     *            start offset of the URL
+     * @param end
+     *            end offset of the URL
+     * @return byte offset of the PLD (upper 32 bits) and of the public suffix
+     *         (lower 32 bits), -1 if the URL has no host name
+     */
+    public static long findPLDInURL(byte[] url, int start, int end) {
+        long host = findHost(url, start, end);
+        if (host == -1) {
+            return -1;
+        }
+        return findPLD(url, (int) (host >>> 32), (int) host);
+    }
+
+    private static int utf8Length(String s, int end) {
+        int len = 0;
+        for (int i = 0; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                len++;
+            } else if (c < 0x800) {
+                len += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // 4 bytes for the surrogate pair
+                len += 4;
+                i++;
+            } else {
+                len += 3;
+            }
+        }
+        return len;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSchemeCharacter(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.';
+    }
+
+    /**
+     * Read-only view of a byte array as character sequence, mapping each byte
+     * to one character. Offsets in the view are byte offsets, and ASCII
+     * characters are represented as in UTF-8.
+     */
+    private static class ByteSequence implements CharSequence {
+        private final byte[] bytes;
+
+        ByteSequence(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, bytes.length).toString();
+        }
+    }
+
+    /**
+     * @return true if the host name is an IPv6 address in square brackets, as
+     *         returned by {@link URL#getHost()}
+     */
+    static boolean isIPv6Literal(String hostname) {
+        return isIPv6Literal(hostname, 0, hostname.length());
+    }
+
+    static boolean isIPv6Literal(CharSequence hostname, int start, int end) {
+        return (end - start) >= 2 && hostname.charAt(start) == '[' && hostname.charAt(end - 1) == ']';
+    }
+
+    /**
+     * @return true if the host name consists of four dot-separated groups of
+     *         one to three digits
+     */
+    static boolean isIPv4Address(String hostname) {
+        return isIPv4Address(hostname, 0, hostname.length());
+    }
+
+    static boolean isIPv4Address(CharSequence hostname, int start, int end) {
+        int len = end - start;
+        if (len < 7 || len > 15) {
+            return false;
+        }
+        int groups = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = hostname.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 3) {
+                    return false;
+                }
+            } else if (c == '.' && digits > 0 && groups < 3) {
+                groups++;
+                digits = 0;
+            } else {
+                return false;
+            }
+        }
+        return groups == 3 && digits > 0;
+    }
 }
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compile the public suffix list into a binary form which is loaded by
+ * {@link EffectiveTldFinder} without parsing the list. The compiled list is
+ * created at build time and shipped as {@link EffectiveTldFinder#ETLD_COMPILED}
+ * next to the public suffix list. A custom public suffix list can be compiled
+ * and loaded using {@link EffectiveTldFinder#initializeCompiled(InputStream)}.
+ */
+public class PublicSuffixListCompiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PublicSuffixListCompiler.class);
+
+    /**
+     * Compile a public suffix list.
+     *
+     * @param publicSuffixList
+     *            path of the public suffix list
+     * @param compiledList
+     *            path of the compiled public suffix list, replaced if it exists
+     * @throws IOException
+     *             if reading the public suffix list or writing the compiled
+     *             list fails
+     */
+    public static void compile(Path publicSuffixList, Path compiledList) throws IOException {
+        EffectiveTldFinder finder;
+        try (InputStream in = Files.newInputStream(publicSuffixList)) {
+            finder = new EffectiveTldFinder(in);
+        }
+        if (!finder.isConfigured()) {
+            throw new IOException("Failed to read public suffix list " + publicSuffixList);
+        }
+        Path tmp = compiledList.resolveSibling(compiledList.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            finder.writeCompiled(out);
+        }
+        Files.move(tmp, compiledList, StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.info("Compiled public suffix list {} into {} ({} bytes)", publicSuffixList, compiledList, Files.size(compiledList));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            // do not exit, the compiler is also run inside of the Maven JVM
+            throw new IllegalArgumentException("Usage: PublicSuffixListCompiler <public_suffix_list.dat> <compiled_list.bin>");
+        }
+        compile(Paths.get(args[0]), Paths.get(args[1]));
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watch a public suffix list file and reload the {@link EffectiveTldFinder}
+ * when the file changes. The watching is done by a daemon thread, which is
+ * stopped by {@link #close()}.
+ */
+class PublicSuffixListWatcher implements Closeable, Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PublicSuffixListWatcher.class);
+
+    /**
+     * Time in milliseconds to wait after a change event for further events,
+     * so that a file written in multiple steps is loaded only once.
+     */
+    static final long SETTLE_TIME = 500;
+
+    private final EffectiveTldFinder finder;
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread thread;
+    /** modification time and size of the last loaded file */
+    private FileTime lastModified;
+    private long lastSize = -1;
+
+    PublicSuffixListWatcher(EffectiveTldFinder finder, Path file) throws IOException {
+        this.finder = finder;
+        this.file = file.toAbsolutePath();
+        Path dir = this.file.getParent();
+        watchService = dir.getFileSystem().newWatchService();
+        try {
+            dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        if (Files.exists(this.file)) {
+            lastModified = Files.getLastModifiedTime(this.file);
+            lastSize = Files.size(this.file);
+        }
+        thread = new Thread(this, "PublicSuffixListWatcher-" + this.file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (file.getFileName().equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+                    // wait for the file to be completely written
+                    key = (changed ? watchService.poll(SETTLE_TIME, TimeUnit.MILLISECONDS) : null);
+                } while (key != null);
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void reload() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            long size = Files.size(file);
+            if (modified.equals(lastModified) && size == lastSize) {
+                return;
+            }
+            finder.reload(file);
+            lastModified = modified;
+            lastSize = size;
+        } catch (IOException e) {
+            LOGGER.error("Failed to reload public suffix list {}, keeping the current list: ", file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
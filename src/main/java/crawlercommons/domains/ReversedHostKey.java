@@ -0,0 +1,259 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import java.net.IDN;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Host name with its labels in reversed order, e.g.
+ * <code>uk.co.example.www</code> for <code>www.example.co.uk</code>, as used
+ * as key for sorted URL storage and for sharding of crawl frontiers. Keys of
+ * hosts below the same paid-level domain (PLD) share a common prefix, the
+ * reversed PLD <code>uk.co.example</code>, which in turn starts with the
+ * reversed public suffix <code>uk.co</code>.
+ * 
+ * <p>
+ * The PLD is determined as by {@link PaidLevelDomain#getPLD(String)}, using a
+ * single backward walk of the suffix trie, and the key is built in a single
+ * backward pass over the host name. No intermediate strings are created for
+ * ASCII host names, internationalized host names are lower-cased first. IP
+ * addresses are not reversed, their PLD is the address itself. The key is
+ * lower-cased, the trailing dot of a fully-qualified host name (e.g.
+ * <code>www.example.com.</code>) and empty labels are not part of the key.
+ * </p>
+ * 
+ * <p>
+ * The {@link #getPLDHash() PLD hash} is a 64-bit FNV-1a hash of the
+ * lower-cased PLD in ASCII form, i.e. internationalized domain names are
+ * converted to Punycode, so that the Unicode and the ASCII form of a PLD have
+ * the same hash. It does not depend on the JVM or the version of this
+ * library, and can be used to assign hosts to partitions so that all hosts of
+ * one PLD go into the same partition.
+ * </p>
+ */
+public final class ReversedHostKey {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String key;
+    private final int suffixLength;
+    private final int pldLength;
+    private final long pldHash;
+
+    private ReversedHostKey(String key, int suffixLength, int pldLength, long pldHash) {
+        this.key = key;
+        this.suffixLength = suffixLength;
+        this.pldLength = pldLength;
+        this.pldHash = pldHash;
+    }
+
+    /**
+     * Create the reversed host key of a host name.
+     * 
+     * @param hostname
+     *            host name, e.g. <code>www.example.co.uk</code>
+     * @return reversed host key
+     */
+    public static ReversedHostKey of(String hostname) {
+        return of(hostname, 0, hostname.length());
+    }
+
+    /**
+     * Create the reversed host key of a host name which is part of a longer
+     * character sequence, e.g. a URL, see
+     * {@link PaidLevelDomain#findHost(CharSequence, int, int)}.
+     * 
+     * @param hostname
+     *            character sequence containing the host name
+     * @param start
+     *            start offset of the host name
+     * @param end
+     *            end offset of the host name
+     * @return reversed host key
+     */
+    public static ReversedHostKey of(CharSequence hostname, int start, int end) {
+        // strip the trailing dot of fully-qualified host names
+        while (end > start && hostname.charAt(end - 1) == '.') {
+            end--;
+        }
+        for (int i = start; i < end; i++) {
+            if (hostname.charAt(i) > 127) {
+                // lower-case the same way as PaidLevelDomain#getPLD(String),
+                // the length of the host name may change
+                String lowerCased = hostname.subSequence(start, end).toString().toLowerCase(Locale.ROOT);
+                return build(lowerCased, 0, lowerCased.length());
+            }
+        }
+        return build(hostname, start, end);
+    }
+
+    /**
+     * Build the key of a host name, which is either ASCII or lower-cased
+     * already.
+     */
+    private static ReversedHostKey build(CharSequence hostname, int start, int end) {
+        long offsets = PaidLevelDomain.findPLD(hostname, start, end);
+        int pldStart = (int) (offsets >>> 32);
+        int suffixStart = (int) offsets;
+        long pldHash = hashLowerCase(hostname, pldStart, end);
+        char[] key = new char[end - start];
+        if (PaidLevelDomain.isIPv6Literal(hostname, start, end) || PaidLevelDomain.isIPv4Address(hostname, start, end)) {
+            for (int i = start; i < end; i++) {
+                key[i - start] = toLowerCase(hostname.charAt(i));
+            }
+            return new ReversedHostKey(new String(key), 0, key.length, pldHash);
+        }
+        int suffixLength = 0;
+        int pldLength = 0;
+        int pos = 0;
+        int labelEnd = end;
+        for (int i = end - 1; i >= start - 1; i--) {
+            if (i >= start && hostname.charAt(i) != '.') {
+                continue;
+            }
+            // copy the label between i and labelEnd, skip empty labels
+            if ((i + 1) < labelEnd) {
+                if (pos > 0) {
+                    key[pos++] = '.';
+                }
+                for (int j = i + 1; j < labelEnd; j++) {
+                    key[pos++] = toLowerCase(hostname.charAt(j));
+                }
+            }
+            if ((i + 1) == suffixStart && suffixStart < end) {
+                suffixLength = pos;
+            }
+            if ((i + 1) == pldStart) {
+                pldLength = pos;
+            }
+            labelEnd = i;
+        }
+        return new ReversedHostKey(new String(key, 0, pos), suffixLength, pldLength, pldHash);
+    }
+
+    /**
+     * Calculate the stable 64-bit hash of a PLD, see {@link #getPLDHash()}.
+     * 
+     * @param pld
+     *            paid-level domain, e.g. <code>example.co.uk</code>
+     * @return FNV-1a hash of the lower-cased PLD in ASCII form
+     */
+    public static long hash(CharSequence pld) {
+        String lowerCased = pld.toString().toLowerCase(Locale.ROOT);
+        return hashLowerCase(lowerCased, 0, lowerCased.length());
+    }
+
+    /**
+     * Hash a lower-cased PLD. Internationalized domain names are converted to
+     * ASCII, if the conversion fails the UTF-8 encoded PLD is hashed.
+     */
+    private static long hashLowerCase(CharSequence s, int start, int end) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c > 127) {
+                String pld = s.subSequence(start, end).toString();
+                byte[] bytes;
+                try {
+                    bytes = IDN.toASCII(pld).toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+                } catch (IllegalArgumentException e) {
+                    bytes = pld.getBytes(StandardCharsets.UTF_8);
+                }
+                hash = FNV_OFFSET_BASIS;
+                for (byte b : bytes) {
+                    hash = fnv(hash, b & 0xff);
+                }
+                return hash;
+            }
+            hash = fnv(hash, toLowerCase(c));
+        }
+        return hash;
+    }
+
+    private static long fnv(long hash, int b) {
+        return (hash ^ b) * FNV_PRIME;
+    }
+
+    private static char toLowerCase(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        return c;
+    }
+
+    /**
+     * @return the reversed host name, e.g. <code>uk.co.example.www</code>
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return length of the reversed public suffix at the start of the key,
+     *         e.g. 5 for <code>uk.co</code>, 0 if the host name is an IP
+     *         address or no public suffix is found
+     */
+    public int getSuffixLength() {
+        return suffixLength;
+    }
+
+    /**
+     * @return length of the reversed PLD at the start of the key, e.g. 13 for
+     *         <code>uk.co.example</code>. If the host name is an IP address or
+     *         no PLD is found, the entire key.
+     */
+    public int getPLDLength() {
+        return pldLength;
+    }
+
+    /**
+     * @return the reversed PLD, e.g. <code>uk.co.example</code>
+     */
+    public String getReversedPLD() {
+        return key.substring(0, pldLength);
+    }
+
+    /**
+     * @return stable 64-bit hash of the PLD: the FNV-1a hash of the
+     *         lower-cased ASCII (Punycode) form of the PLD in its normal (not
+     *         reversed) order, e.g. of <code>example.co.uk</code>. The UTF-8
+     *         encoded PLD is hashed only if the IDN conversion fails, see
+     *         {@link #hash(CharSequence)}
+     */
+    public long getPLDHash() {
+        return pldHash;
+    }
+
+    /**
+     * Assign the host to one of a number of partitions by its PLD.
+     * 
+     * @param numPartitions
+     *            number of partitions
+     * @return partition number, from 0 to <code>numPartitions - 1</code>
+     */
+    public int getPartition(int numPartitions) {
+        return (int) Long.remainderUnsigned(pldHash, numPartitions);
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
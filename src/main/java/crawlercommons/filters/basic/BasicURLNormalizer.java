@@ -66,11 +66,6 @@ public class BasicURLNormalizer extends URLFilter {
      */
     private final static Pattern hasNormalizablePathPattern = Pattern.compile("/[./]|[.]/");
 
-    /**
-     * find URL encoded parts of the URL
-     */
-    private final static Pattern unescapeRulePattern = Pattern.compile("%([0-9A-Fa-f]{2})");
-
     /**
      * Match URLs starting with a valid scheme, see
      * https://tools.ietf.org/html/rfc2396#section-3.1
@@ -507,41 +502,54 @@ public class BasicURLNormalizer extends URLFilter {
      * href="https://tools.ietf.org/html/rfc3986#section-2.2">RFC3986</a>.
      */
     public static String unescapePath(String path) {
-        StringBuilder sb = new StringBuilder();
-
-        Matcher matcher = unescapeRulePattern.matcher(path);
-
-        int end = -1;
-        int letter;
-
-        // Traverse over all encoded groups
-        while (matcher.find()) {
-            // Append everything up to this group
-            sb.append(path, end + 1, matcher.start());
-
-            // Get the integer representation of this hexadecimal encoded
-            // character
-            letter = Integer.valueOf(matcher.group().substring(1), 16);
+        StringBuilder sb = new StringBuilder(path.length());
+        unescapePath(path, 0, path.length(), sb);
+        return sb.toString();
+    }
 
-            if (letter < 128 && unescapedCharacters[letter]) {
-                // character should be unescaped in URLs
-                sb.append(Character.valueOf((char) letter));
-            } else {
-                // Append the encoded character as uppercase
-                sb.append(matcher.group().toUpperCase(Locale.ROOT));
+    /**
+     * Remove % encoding from path segment in URL for characters which should be
+     * unescaped, see {@link #unescapePath(String)}. This variant reads the
+     * path from a range of a character sequence and appends the result to a
+     * (reusable) string builder.
+     * 
+     * @param path
+     *            character sequence containing the path
+     * @param start
+     *            start offset of the path (inclusive)
+     * @param end
+     *            end offset of the path (exclusive)
+     * @param sb
+     *            string builder the unescaped path is appended to
+     */
+    public static void unescapePath(CharSequence path, int start, int end, StringBuilder sb) {
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c == '%' && (i + 2) < end) {
+                char e1 = path.charAt(i + 1);
+                char e2 = path.charAt(i + 2);
+                if (isHexCharacter(e1) && isHexCharacter(e2)) {
+                    int letter = (Character.digit(e1, 16) << 4) | Character.digit(e2, 16);
+                    if (letter < 128 && unescapedCharacters[letter]) {
+                        // character should be unescaped in URLs
+                        sb.append((char) letter);
+                    } else {
+                        // Append the encoded character as uppercase
+                        sb.append('%').append(toUpperCaseHex(e1)).append(toUpperCaseHex(e2));
+                    }
+                    i += 2;
+                    continue;
+                }
             }
-
-            end = matcher.start() + 2;
+            sb.append(c);
         }
+    }
 
-        letter = path.length();
-
-        // Append the rest if there's anything
-        if (end <= letter - 1) {
-            sb.append(path, end + 1, letter);
+    private static char toUpperCaseHex(char c) {
+        if (c >= 'a') {
+            return (char) (c - ('a' - 'A'));
         }
-
-        return sb.toString();
+        return c;
     }
 
     /**
@@ -555,53 +563,78 @@ public class BasicURLNormalizer extends URLFilter {
 
     public static String escapePath(String path, boolean[] extraEscapedBytes) {
         StringBuilder sb = new StringBuilder(path.length());
+        escapePath(path, 0, path.length(), extraEscapedBytes, sb);
+        return sb.toString();
+    }
 
-        // Traverse over all bytes in this URL
-        byte[] bytes = path.getBytes(UTF_8);
-        for (int i = 0; i < bytes.length; i++) {
-            byte b = bytes[i];
-            // Is this a control character?
-            if (b < 0 || escapedCharacters[b] || (extraEscapedBytes != null && extraEscapedBytes[b])) {
-                // Start escape sequence
-                sb.append('%');
-
-                // Get this byte's hexadecimal representation
-                String hex = Integer.toHexString(b & 0xFF).toUpperCase(Locale.ROOT);
-
-                // Do we need to prepend a zero?
-                if (hex.length() % 2 != 0) {
-                    sb.append('0');
-                    sb.append(hex);
+    /**
+     * Convert path segment of URL from Unicode to UTF-8 and escape all
+     * characters which should be escaped, see
+     * {@link #escapePath(String, boolean[])}. This variant reads the path from
+     * a range of a character sequence and appends the result to a (reusable)
+     * string builder.
+     * 
+     * @param path
+     *            character sequence containing the path
+     * @param start
+     *            start offset of the path (inclusive)
+     * @param end
+     *            end offset of the path (exclusive)
+     * @param extraEscapedBytes
+     *            boolean array to request bytes (ASCII characters) to be
+     *            percent-encoded in addition, may be null
+     * @param sb
+     *            string builder the escaped path is appended to
+     */
+    public static void escapePath(CharSequence path, int start, int end, boolean[] extraEscapedBytes, StringBuilder sb) {
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c >= 0x80) {
+                // Unicode character: percent-encode the UTF-8 bytes
+                int codePoint = c;
+                if (Character.isHighSurrogate(c) && (i + 1) < end && Character.isLowSurrogate(path.charAt(i + 1))) {
+                    codePoint = Character.toCodePoint(c, path.charAt(++i));
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired surrogate, replaced the same way as done by
+                    // String.getBytes(UTF_8)
+                    sb.append('?');
+                    continue;
+                }
+                if (codePoint < 0x800) {
+                    appendEscapedByte(sb, 0xC0 | (codePoint >> 6));
+                } else if (codePoint < 0x10000) {
+                    appendEscapedByte(sb, 0xE0 | (codePoint >> 12));
+                    appendEscapedByte(sb, 0x80 | ((codePoint >> 6) & 0x3F));
                 } else {
-                    // No, append this hexadecimal representation
-                    sb.append(hex);
+                    appendEscapedByte(sb, 0xF0 | (codePoint >> 18));
+                    appendEscapedByte(sb, 0x80 | ((codePoint >> 12) & 0x3F));
+                    appendEscapedByte(sb, 0x80 | ((codePoint >> 6) & 0x3F));
                 }
-            } else if (b == 0x25) {
+                appendEscapedByte(sb, 0x80 | (codePoint & 0x3F));
+            } else if (escapedCharacters[c] || (extraEscapedBytes != null && extraEscapedBytes[c])) {
+                // control character or character not allowed in URLs
+                appendEscapedByte(sb, c);
+            } else if (c == 0x25) {
                 // percent sign (%): read-ahead to check whether a valid escape
                 // sequence
-                if ((i + 2) >= bytes.length) {
-                    // need at least two more characters
-                    sb.append("%25");
+                if ((i + 2) < end && isHexCharacter(path.charAt(i + 1)) && isHexCharacter(path.charAt(i + 2))) {
+                    // valid percent encoding, output and fast-forward
+                    sb.append(c).append(path.charAt(i + 1)).append(path.charAt(i + 2));
+                    i += 2;
                 } else {
-                    byte e1 = bytes[i + 1];
-                    byte e2 = bytes[i + 2];
-                    if (isHexCharacter(e1) && isHexCharacter(e2)) {
-                        // valid percent encoding, output and fast-forward
-                        i += 2;
-                        sb.append((char) b);
-                        sb.append((char) e1);
-                        sb.append((char) e2);
-                    } else {
-                        sb.append("%25");
-                    }
+                    sb.append("%25");
                 }
             } else {
                 // No, just append this character as-is
-                sb.append((char) b);
+                sb.append(c);
             }
         }
+    }
 
-        return sb.toString();
+    private final static char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static void appendEscapedByte(StringBuilder sb, int b) {
+        sb.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
     }
 
     private String normalizeHostName(String host) throws IllegalArgumentException, IndexOutOfBoundsException, UnsupportedEncodingException {
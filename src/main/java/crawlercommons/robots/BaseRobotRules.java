@@ -19,8 +19,12 @@ package crawlercommons.robots;
 import java.io.Serializable;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Result from parsing a single robots.txt file – a set of allow/disallow rules
@@ -38,16 +42,73 @@ public abstract class BaseRobotRules implements Serializable {
 
     public abstract boolean isAllowed(URL url);
 
+    /**
+     * Check a batch of URLs whether they are allowed to be fetched. The
+     * rules mode (allow all / allow none) is checked only once for the entire
+     * batch.
+     * 
+     * @param urls
+     *            URLs to be checked
+     * @param allowed
+     *            output array, for every URL <code>urls[i]</code> the verdict
+     *            is stored in <code>allowed[i]</code>. The array must be at
+     *            least as long as the array of URLs.
+     * @throws IllegalArgumentException
+     *             if the output array is shorter than the array of URLs
+     */
+    public void isAllowed(String[] urls, boolean[] allowed) {
+        if (allowed.length < urls.length) {
+            throw new IllegalArgumentException("Output array shorter than array of URLs");
+        }
+        if (isAllowNone()) {
+            Arrays.fill(allowed, 0, urls.length, false);
+        } else if (isAllowAll()) {
+            Arrays.fill(allowed, 0, urls.length, true);
+        } else {
+            for (int i = 0; i < urls.length; i++) {
+                allowed[i] = isAllowed(urls[i]);
+            }
+        }
+    }
+
+    /**
+     * Check a batch of URLs whether they are allowed to be fetched, see
+     * {@link #isAllowed(String[], boolean[])}.
+     * 
+     * @param urls
+     *            URLs to be checked
+     * @return bit set with the bit at index <i>i</i> set if the URL at
+     *         position <i>i</i> in the list is allowed
+     */
+    public BitSet isAllowed(List<String> urls) {
+        int size = urls.size();
+        BitSet result = new BitSet(size);
+        if (isAllowAll()) {
+            result.set(0, size);
+        } else if (!isAllowNone()) {
+            boolean[] allowed = new boolean[size];
+            isAllowed(urls.toArray(new String[size]), allowed);
+            for (int i = 0; i < size; i++) {
+                if (allowed[i]) {
+                    result.set(i);
+                }
+            }
+        }
+        return result;
+    }
+
     public abstract boolean isAllowAll();
 
     public abstract boolean isAllowNone();
 
     private long _crawlDelay = UNSET_CRAWL_DELAY;
     private boolean _deferVisits = false;
+    /** sitemap URLs, allocated when the first sitemap is added */
     private LinkedHashSet<String> _sitemaps;
+    /** unmodifiable list of sitemap URLs, cached until a sitemap is added */
+    private transient List<String> _sitemapList;
 
     public BaseRobotRules() {
-        _sitemaps = new LinkedHashSet<>();
     }
 
     /**
@@ -85,12 +146,37 @@ public abstract class BaseRobotRules implements Serializable {
 
     /** Add sitemap URL to rules if not a duplicate */
     public void addSitemap(String sitemap) {
-        _sitemaps.add(sitemap);
+        if (_sitemaps == null) {
+            _sitemaps = new LinkedHashSet<>();
+        }
+        if (_sitemaps.add(sitemap)) {
+            _sitemapList = null;
+        }
     }
 
-    /** Get URLs of sitemap links found in robots.txt */
+    /**
+     * Get URLs of sitemap links found in robots.txt
+     * 
+     * @return unmodifiable list of sitemap URLs, in the order found in the
+     *         robots.txt file
+     */
     public List<String> getSitemaps() {
-        return new ArrayList<>(_sitemaps);
+        if (_sitemaps == null) {
+            return Collections.emptyList();
+        }
+        List<String> sitemapList = _sitemapList;
+        if (sitemapList == null) {
+            sitemapList = Collections.unmodifiableList(new ArrayList<>(_sitemaps));
+            _sitemapList = sitemapList;
+        }
+        return sitemapList;
+    }
+
+    private Set<String> sitemaps() {
+        if (_sitemaps == null) {
+            return Collections.emptySet();
+        }
+        return _sitemaps;
     }
 
     @Override
@@ -99,7 +185,7 @@ public abstract class BaseRobotRules implements Serializable {
         int result = 1;
         result = prime * result + (int) (_crawlDelay ^ (_crawlDelay >>> 32));
         result = prime * result + (_deferVisits ? 1231 : 1237);
-        result = prime * result + ((_sitemaps == null) ? 0 : _sitemaps.hashCode());
+        result = prime * result + sitemaps().hashCode();
         return result;
     }
 
@@ -116,12 +202,7 @@ public abstract class BaseRobotRules implements Serializable {
             return false;
         if (_deferVisits != other._deferVisits)
             return false;
-        if (_sitemaps == null) {
-            if (other._sitemaps != null)
-                return false;
-        } else if (!_sitemaps.equals(other._sitemaps))
-            return false;
-        return true;
+        return sitemaps().equals(other.sitemaps());
     }
 
     /**
@@ -0,0 +1,231 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable robots rules which can be safely shared between hosts and threads.
+ * All methods modifying the rules throw an
+ * {@link UnsupportedOperationException}, the lists returned by
+ * {@link #getRobotRules()} and {@link #getSitemaps()} are unmodifiable.
+ * 
+ * <p>
+ * The rules are copied, sorted and compiled for matching when the frozen rules
+ * are created. The state is held in final fields, so that frozen rules can be
+ * read from any number of threads without synchronization, even if the
+ * instance is not safely published. The hash code is precomputed, which makes
+ * frozen rules cheap keys in hash-based collections.
+ * </p>
+ * 
+ * <p>
+ * Frozen rules are returned by {@link SimpleRobotRulesParser} if configured
+ * via {@link SimpleRobotRulesParser#setFreezeRules(boolean)}, and for
+ * robots.txt files it has parsed already if interning is enabled, see
+ * {@link SimpleRobotRulesParser#setMaxInternedRules(int)}.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public final class FrozenRobotRules extends SimpleRobotRules {
+
+    /**
+     * Sorted and compiled copy of the rules. It is never modified or exposed,
+     * and only accessed through this final field, which guarantees that its
+     * state is visible to all threads.
+     */
+    private final SimpleRobotRules _frozen;
+
+    private final List<RobotRule> _ruleList;
+
+    private final List<String> _sitemapList;
+
+    private final int _hashCode;
+
+    /**
+     * Create an immutable copy of robots rules.
+     * 
+     * @param rules
+     *            rules to copy
+     */
+    public FrozenRobotRules(SimpleRobotRules rules) {
+        super(rules._mode);
+        SimpleRobotRules frozen = new SimpleRobotRules(rules._mode);
+        for (RobotRule rule : rules.rules()) {
+            frozen.addRule(rule._prefix, rule._allow);
+        }
+        frozen.setCrawlDelay(rules.getCrawlDelay());
+        frozen.setDeferVisits(rules.isDeferVisits());
+        for (String sitemap : rules.getSitemaps()) {
+            frozen.addSitemap(sitemap);
+        }
+        // sort and compile the matcher
+        frozen.sortRules();
+        _frozen = frozen;
+        _ruleList = Collections.unmodifiableList(frozen.getRobotRules());
+        _sitemapList = frozen.getSitemaps();
+        _hashCode = frozen.hashCode();
+    }
+
+    /**
+     * Get frozen rules, copying the rules only if they aren't frozen yet.
+     * 
+     * @param rules
+     *            rules
+     * @return frozen rules
+     */
+    public static FrozenRobotRules freeze(SimpleRobotRules rules) {
+        if (rules instanceof FrozenRobotRules) {
+            return (FrozenRobotRules) rules;
+        }
+        return new FrozenRobotRules(rules);
+    }
+
+    @Override
+    public boolean isAllowed(String url) {
+        return _frozen.isAllowed(url);
+    }
+
+    @Override
+    public void isAllowed(String[] urls, boolean[] allowed) {
+        _frozen.isAllowed(urls, allowed);
+    }
+
+    @Override
+    public boolean isAllowed(CharSequence url, int pathStart, int pathEnd) {
+        return _frozen.isAllowed(url, pathStart, pathEnd);
+    }
+
+    @Override
+    public boolean isAllowed(URL url) {
+        return _frozen.isAllowed(url);
+    }
+
+    @Override
+    public boolean isAllowAll() {
+        return _frozen.isAllowAll();
+    }
+
+    @Override
+    public boolean isAllowNone() {
+        return _frozen.isAllowNone();
+    }
+
+    @Override
+    public long getCrawlDelay() {
+        return _frozen.getCrawlDelay();
+    }
+
+    @Override
+    public boolean isDeferVisits() {
+        return _frozen.isDeferVisits();
+    }
+
+    /**
+     * @return unmodifiable list of sitemap URLs
+     */
+    @Override
+    public List<String> getSitemaps() {
+        return _sitemapList;
+    }
+
+    /**
+     * @return unmodifiable list of allow/disallow rules
+     */
+    @Override
+    public List<RobotRule> getRobotRules() {
+        return _ruleList;
+    }
+
+    @Override
+    int getRuleCount() {
+        return _ruleList.size();
+    }
+
+    @Override
+    List<RobotRule> rules() {
+        return _ruleList;
+    }
+
+    @Override
+    public boolean isCompact() {
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return _hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FrozenRobotRules)) {
+            return false;
+        }
+        FrozenRobotRules other = (FrozenRobotRules) obj;
+        return _hashCode == other._hashCode && _frozen.equals(other._frozen);
+    }
+
+    @Override
+    public void clearRules() {
+        throw new UnsupportedOperationException("Frozen robots rules cannot be modified");
+    }
+
+    @Override
+    public void addRule(String prefix, boolean allow) {
+        throw new UnsupportedOperationException("Frozen robots rules cannot be modified");
+    }
+
+    /**
+     * Does nothing, frozen rules are already sorted and compiled.
+     */
+    @Override
+    public void sortRules() {
+    }
+
+    /**
+     * Does nothing, frozen rules are shared and kept compiled for fast
+     * matching.
+     */
+    @Override
+    public void compact() {
+    }
+
+    @Override
+    public void optimize() {
+        throw new UnsupportedOperationException("Frozen robots rules cannot be modified");
+    }
+
+    @Override
+    public void setCrawlDelay(long crawlDelay) {
+        throw new UnsupportedOperationException("Frozen robots rules cannot be modified");
+    }
+
+    @Override
+    public void setDeferVisits(boolean deferVisits) {
+        throw new UnsupportedOperationException("Frozen robots rules cannot be modified");
+    }
+
+    @Override
+    public void addSitemap(String sitemap) {
+        throw new UnsupportedOperationException("Frozen robots rules cannot be modified");
+    }
+}
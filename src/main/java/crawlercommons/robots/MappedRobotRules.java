@@ -0,0 +1,295 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.io.ObjectStreamException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRulesMode;
+
+/**
+ * Read-only view of robots rules stored in a memory-mapped
+ * {@link RobotRulesStore}. URLs are matched directly against the stored
+ * patterns, the rules are not deserialized into objects. Only the sitemaps are
+ * decoded, on every call of {@link #getSitemaps()}.
+ * 
+ * <p>
+ * Rules are matched the same way as {@link SimpleRobotRules#compact()
+ * compacted} rules: one by one, longest pattern first, until the first pattern
+ * matches. All methods modifying the rules throw an
+ * {@link UnsupportedOperationException}. If serialized, the view is replaced
+ * by a copy of the rules, see {@link #toSimpleRobotRules()}.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public final class MappedRobotRules extends BaseRobotRules {
+
+    /**
+     * Patterns stored in a byte buffer (one byte per character) as a character
+     * sequence, so that they can be matched by {@link WildcardPattern}.
+     */
+    private static class AsciiSequence implements CharSequence {
+        private final ByteBuffer _buffer;
+        private final int _start;
+        private final int _length;
+
+        AsciiSequence(ByteBuffer buffer, int start, int length) {
+            _buffer = buffer;
+            _start = start;
+            _length = length;
+        }
+
+        @Override
+        public int length() {
+            return _length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (_buffer.get(_start + index) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(_buffer, _start + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[_length];
+            for (int i = 0; i < _length; i++) {
+                bytes[i] = _buffer.get(_start + i);
+            }
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final transient ByteBuffer _buffer;
+    private final transient RobotRulesMode _mode;
+    private final transient boolean _deferVisits;
+    private final transient long _crawlDelay;
+    private final transient int _numRules;
+    /** position of the pattern offsets */
+    private final transient int _offsets;
+    /** position of the allow bitmap */
+    private final transient int _allow;
+    /** position of the derived-rule bitmap */
+    private final transient int _derived;
+    private final transient AsciiSequence _patterns;
+    /** position of the sitemaps */
+    private final transient int _sitemaps;
+    /** first and last position of the record, excluding length and key */
+    private final transient int _dataStart;
+    private final transient int _dataEnd;
+
+    /**
+     * @param buffer
+     *            buffer holding the record, see {@link RobotRulesStore}
+     * @param record
+     *            position of the record in the buffer
+     */
+    MappedRobotRules(ByteBuffer buffer, int record) {
+        _buffer = buffer;
+        int pos = record + RobotRulesStore.RECORD_HEADER_SIZE + (buffer.getShort(record + 4) & 0xffff);
+        _dataStart = pos;
+        _dataEnd = record + buffer.getInt(record);
+        _mode = RobotRulesMode.values()[buffer.get(pos)];
+        _deferVisits = (buffer.get(pos + 1) & RobotRulesStore.FLAG_DEFER_VISITS) != 0;
+        _crawlDelay = buffer.getLong(pos + 2);
+        _numRules = buffer.getInt(pos + 10);
+        _offsets = pos + 14;
+        int bitmapSize = (_numRules + 7) >>> 3;
+        _allow = _offsets + 4 * (_numRules + 1);
+        _derived = _allow + bitmapSize;
+        int patterns = _derived + bitmapSize;
+        int patternsLength = (_numRules == 0) ? 0 : buffer.getInt(_offsets + 4 * _numRules);
+        _patterns = new AsciiSequence(buffer, patterns, patternsLength);
+        _sitemaps = patterns + patternsLength;
+    }
+
+    @Override
+    public boolean isAllowed(String url) {
+        if (_mode == RobotRulesMode.ALLOW_NONE) {
+            return false;
+        } else if (_mode == RobotRulesMode.ALLOW_ALL) {
+            return true;
+        }
+        long pathSpan = PathNormalizer.findPathAndQuery(url);
+        if (pathSpan == -1) {
+            return isAllowedPath(SimpleRobotRules.getPath(url, true));
+        }
+        return isAllowedPath(PathNormalizer.normalize(url, (int) (pathSpan >>> 32), (int) pathSpan));
+    }
+
+    @Override
+    public boolean isAllowed(URL url) {
+        if (_mode == RobotRulesMode.ALLOW_NONE) {
+            return false;
+        } else if (_mode == RobotRulesMode.ALLOW_ALL) {
+            return true;
+        }
+        return isAllowedPath(SimpleRobotRules.getPath(url, true));
+    }
+
+    private boolean isAllowedPath(CharSequence pathWithQuery) {
+        // Always allow robots.txt
+        if ("/robots.txt".contentEquals(pathWithQuery)) {
+            return true;
+        }
+        int start = 0;
+        for (int i = 0; i < _numRules; i++) {
+            int end = _buffer.getInt(_offsets + 4 * (i + 1));
+            if (WildcardPattern.matches(pathWithQuery, _patterns, start, end)) {
+                return isSet(_allow, i);
+            }
+            start = end;
+        }
+        return true;
+    }
+
+    private boolean isSet(int bitmap, int i) {
+        return (_buffer.get(bitmap + (i >>> 3)) & (1 << (i & 7))) != 0;
+    }
+
+    @Override
+    public boolean isAllowAll() {
+        return _mode == RobotRulesMode.ALLOW_ALL;
+    }
+
+    @Override
+    public boolean isAllowNone() {
+        return _mode == RobotRulesMode.ALLOW_NONE;
+    }
+
+    @Override
+    public long getCrawlDelay() {
+        return _crawlDelay;
+    }
+
+    @Override
+    public boolean isDeferVisits() {
+        return _deferVisits;
+    }
+
+    @Override
+    public List<String> getSitemaps() {
+        int numSitemaps = _buffer.getInt(_sitemaps);
+        if (numSitemaps == 0) {
+            return Collections.emptyList();
+        }
+        List<String> sitemaps = new ArrayList<>(numSitemaps);
+        int pos = _sitemaps + 4;
+        for (int i = 0; i < numSitemaps; i++) {
+            int length = _buffer.getInt(pos);
+            sitemaps.add(RobotRulesStore.decode(_buffer, pos + 4, length));
+            pos += 4 + length;
+        }
+        return Collections.unmodifiableList(sitemaps);
+    }
+
+    /**
+     * @return the number of rules, including rules derived from
+     *         <code>index.htm(l)</code> rules
+     */
+    int getRuleCount() {
+        return _numRules;
+    }
+
+    /**
+     * Copy the stored rules into a new {@link SimpleRobotRules} object.
+     * 
+     * @return the copy of the rules
+     */
+    public SimpleRobotRules toSimpleRobotRules() {
+        SimpleRobotRules rules = new SimpleRobotRules(_mode);
+        int start = 0;
+        for (int i = 0; i < _numRules; i++) {
+            int end = _buffer.getInt(_offsets + 4 * (i + 1));
+            if (!isSet(_derived, i)) {
+                rules.addRule(_patterns.subSequence(start, end).toString(), isSet(_allow, i));
+            }
+            start = end;
+        }
+        rules.setCrawlDelay(_crawlDelay);
+        rules.setDeferVisits(_deferVisits);
+        for (String sitemap : getSitemaps()) {
+            rules.addSitemap(sitemap);
+        }
+        rules.sortRules();
+        return rules;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return toSimpleRobotRules();
+    }
+
+    @Override
+    public void setCrawlDelay(long crawlDelay) {
+        throw new UnsupportedOperationException("Mapped robots rules cannot be modified");
+    }
+
+    @Override
+    public void setDeferVisits(boolean deferVisits) {
+        throw new UnsupportedOperationException("Mapped robots rules cannot be modified");
+    }
+
+    @Override
+    public void addSitemap(String sitemap) {
+        throw new UnsupportedOperationException("Mapped robots rules cannot be modified");
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = _dataStart; i < _dataEnd; i++) {
+            result = 31 * result + _buffer.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Mapped rules are equal if the stored rules are equal, independent from
+     * the key they are stored with.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        MappedRobotRules other = (MappedRobotRules) obj;
+        if ((_dataEnd - _dataStart) != (other._dataEnd - other._dataStart))
+            return false;
+        for (int i = _dataStart, j = other._dataStart; i < _dataEnd; i++, j++) {
+            if (_buffer.get(i) != other._buffer.get(j))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(super.toString());
+        sb.append(" - mode: ").append(_mode).append(", number of rules: ").append(_numRules).append('\n');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRule;
+
+/**
+ * Compact, immutable representation of a set of allow/disallow rules.
+ * 
+ * <p>
+ * All patterns are concatenated into a single string, the start offset of
+ * every pattern is held in an array and the allow flags in a bitmap. Because
+ * patterns are percent-encoded, they consist of ASCII characters only and the
+ * string is stored using one byte per character. A rule set is held in a
+ * constant number of objects, independent from the number of rules. This is
+ * meant for caches holding the rules of many hosts, at the cost of slower
+ * matching compared to {@link RobotRulesMatcher}.
+ * </p>
+ * 
+ * <p>
+ * Rules are kept in the order defined by {@link RobotRule#compareTo(RobotRule)}
+ * (longest patterns first, allow before disallow), so that the first matching
+ * rule decides whether a path is allowed. Rules derived from
+ * <code>index.htm(l)</code> rules (see
+ * {@link RobotRulesMatcher#deriveIndexRule(RobotRule)}) are included but
+ * marked, so that the original rules can be restored.
+ * </p>
+ */
+@SuppressWarnings("serial")
+final class PackedRobotRules implements Serializable {
+
+    /** concatenated patterns */
+    private final String _patterns;
+
+    /**
+     * start offsets of the patterns in {@link #_patterns}, the last element
+     * holds the total length
+     */
+    private final int[] _offsets;
+
+    /** bitmap of allow rules */
+    private final long[] _allow;
+
+    /** bitmap of derived rules */
+    private final long[] _derived;
+
+    /**
+     * @param rules
+     *            deduplicated rules
+     */
+    PackedRobotRules(Collection<RobotRule> rules) {
+        Set<RobotRule> ruleSet = new HashSet<>(rules);
+        Set<RobotRule> derivedRules = new HashSet<>();
+        for (RobotRule rule : rules) {
+            RobotRule indexRule = RobotRulesMatcher.deriveIndexRule(rule);
+            if (indexRule != null && !ruleSet.contains(indexRule)) {
+                derivedRules.add(indexRule);
+            }
+        }
+        List<RobotRule> allRules = rules.stream().sorted().collect(Collectors.toCollection(ArrayList::new));
+        if (!derivedRules.isEmpty()) {
+            allRules.addAll(derivedRules);
+            allRules.sort(null);
+        }
+
+        int numRules = allRules.size();
+        _offsets = new int[numRules + 1];
+        _allow = new long[(numRules + 63) >>> 6];
+        _derived = new long[_allow.length];
+        StringBuilder patterns = new StringBuilder();
+        for (int i = 0; i < numRules; i++) {
+            RobotRule rule = allRules.get(i);
+            _offsets[i] = patterns.length();
+            patterns.append(rule._prefix);
+            if (rule._allow) {
+                _allow[i >>> 6] |= 1L << i;
+            }
+            // derived rules are never equal to original ones, see above
+            if (derivedRules.contains(rule)) {
+                _derived[i >>> 6] |= 1L << i;
+            }
+        }
+        _offsets[numRules] = patterns.length();
+        _patterns = patterns.toString();
+    }
+
+    /** @return number of rules, including derived rules */
+    int size() {
+        return _offsets.length - 1;
+    }
+
+    private static boolean isSet(long[] bitmap, int i) {
+        return (bitmap[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /** @return pattern of the i-th rule, including derived rules */
+    String getPattern(int i) {
+        return _patterns.substring(_offsets[i], _offsets[i + 1]);
+    }
+
+    /** @return whether the i-th rule is an allow rule */
+    boolean isAllow(int i) {
+        return isSet(_allow, i);
+    }
+
+    /**
+     * @return whether the i-th rule is derived from an <code>index.htm(l)</code>
+     *         rule
+     */
+    boolean isDerived(int i) {
+        return isSet(_derived, i);
+    }
+
+    /**
+     * @return the rules in sorted order, excluding derived rules
+     */
+    List<RobotRule> getRules() {
+        int numRules = size();
+        List<RobotRule> rules = new ArrayList<>(numRules);
+        for (int i = 0; i < numRules; i++) {
+            if (!isSet(_derived, i)) {
+                rules.add(new RobotRule(_patterns.substring(_offsets[i], _offsets[i + 1]), isSet(_allow, i)));
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Check whether a path is allowed.
+     * 
+     * @param pathWithQuery
+     *            percent-encoded path and query of the URL, with the special
+     *            characters <code>*</code> and <code>$</code> escaped
+     * @return true if the path is allowed
+     */
+    boolean isAllowed(CharSequence pathWithQuery) {
+        int numRules = size();
+        for (int i = 0; i < numRules; i++) {
+            if (WildcardPattern.matches(pathWithQuery, _patterns, _offsets[i], _offsets[i + 1])) {
+                return isSet(_allow, i);
+            }
+        }
+        return true;
+    }
+}
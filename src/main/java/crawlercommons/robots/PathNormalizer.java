@@ -0,0 +1,201 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import crawlercommons.filters.basic.BasicURLNormalizer;
+
+/**
+ * Extraction and percent-normalization of URL paths for robots.txt rule
+ * matching, without creating intermediate URL objects or strings.
+ *
+ * <p>
+ * The URL is scanned once to locate the path and query. The normalized path is
+ * written into a thread-local buffer which is reused by the next call in the
+ * same thread, so the returned buffer must be consumed before this class is
+ * called again.
+ * </p>
+ */
+final class PathNormalizer {
+
+    /** Buffers larger than this are released after use. */
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 8192;
+
+    private static class Buffers {
+        final StringBuilder unescaped = new StringBuilder(256);
+        final StringBuilder normalized = new StringBuilder(256);
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    /**
+     * Characters allowed literally in path, query and fragment of a
+     * {@link java.net.URI} (RFC 2396): unreserved and reserved characters,
+     * except for the square brackets which are only allowed in the query. The
+     * percent sign is handled separately.
+     */
+    private static final boolean[] URI_CHARACTERS = new boolean[128];
+    static {
+        for (int c = '0'; c <= '9'; c++) {
+            URI_CHARACTERS[c] = true;
+        }
+        for (int c = 'a'; c <= 'z'; c++) {
+            URI_CHARACTERS[c] = true;
+            URI_CHARACTERS[Character.toUpperCase(c)] = true;
+        }
+        for (char c : "-_.!~*'();/?:@&=+$,".toCharArray()) {
+            URI_CHARACTERS[c] = true;
+        }
+    }
+
+    private PathNormalizer() {
+    }
+
+    /**
+     * Locate path and query in a HTTP or HTTPS URL.
+     *
+     * <p>
+     * Only URLs with a simple authority (host name and optional port) made of
+     * characters allowed in {@link java.net.URI} are handled. For any other
+     * URL, -1 is returned and the caller needs to fall back to parsing the URL
+     * via {@link java.net.URI}.
+     * </p>
+     *
+     * @param url
+     *            URL to scan
+     * @return start (upper 32 bits) and end (lower 32 bits) offset of path
+     *         and query, excluding the fragment; -1 if the URL isn't handled
+     */
+    static long findPathAndQuery(CharSequence url) {
+        int len = url.length();
+        int i;
+        if (regionMatchesIgnoreCase(url, "http://")) {
+            i = 7;
+        } else if (regionMatchesIgnoreCase(url, "https://")) {
+            i = 8;
+        } else {
+            return -1;
+        }
+
+        int hostStart = i;
+        while (i < len && isHostCharacter(url.charAt(i))) {
+            i++;
+        }
+        if (i == hostStart) {
+            return -1;
+        }
+        if (i < len && url.charAt(i) == ':') {
+            int portStart = ++i;
+            while (i < len && url.charAt(i) >= '0' && url.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == portStart || (i - portStart) > 5) {
+                return -1;
+            }
+        }
+
+        int pathStart = i;
+        int pathEnd = -1;
+        if (i < len && url.charAt(i) != '/' && url.charAt(i) != '?' && url.charAt(i) != '#') {
+            // user info or any other unexpected character in authority
+            return -1;
+        }
+        for (; i < len; i++) {
+            char c = url.charAt(i);
+            if (c == '#') {
+                if (pathEnd != -1) {
+                    // second fragment separator is not allowed
+                    return -1;
+                }
+                pathEnd = i;
+            } else if (c == '%') {
+                if ((i + 2) >= len || !isHexCharacter(url.charAt(i + 1)) || !isHexCharacter(url.charAt(i + 2))) {
+                    return -1;
+                }
+                i += 2;
+            } else if (c >= 128 || !URI_CHARACTERS[c]) {
+                return -1;
+            }
+        }
+        if (pathEnd == -1) {
+            pathEnd = len;
+        }
+        return ((long) pathStart << 32) | pathEnd;
+    }
+
+    /**
+     * Normalize path and query of a URL for rule matching: decode
+     * percent-encoded characters without special semantics, percent-encode all
+     * characters where necessary, including the characters <code>*</code> and
+     * <code>$</code> which have special semantics in robots.txt patterns. The
+     * result is the same as
+     * {@link SimpleRobotRules#escapePath(String, boolean[])} called with
+     * {@link SimpleRobotRules#specialCharactersPathMatching}.
+     *
+     * @param url
+     *            URL or any character sequence containing the path
+     * @param pathStart
+     *            start offset of the path
+     * @param pathEnd
+     *            end offset of the path, resp. query (if present)
+     * @return thread-local buffer holding the normalized path and query
+     */
+    static StringBuilder normalize(CharSequence url, int pathStart, int pathEnd) {
+        Buffers buffers = BUFFERS.get();
+        StringBuilder unescaped = reset(buffers.unescaped);
+        StringBuilder normalized = reset(buffers.normalized);
+        if (pathStart == pathEnd || url.charAt(pathStart) == '?') {
+            // empty path
+            unescaped.append('/');
+        }
+        BasicURLNormalizer.unescapePath(url, pathStart, pathEnd, unescaped);
+        BasicURLNormalizer.escapePath(unescaped, 0, unescaped.length(), SimpleRobotRules.specialCharactersPathMatching, normalized);
+        return normalized;
+    }
+
+    private static StringBuilder reset(StringBuilder sb) {
+        sb.setLength(0);
+        if (sb.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+            sb.trimToSize();
+        }
+        return sb;
+    }
+
+    private static boolean regionMatchesIgnoreCase(CharSequence url, String prefix) {
+        int len = prefix.length();
+        if (url.length() < len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            char c = url.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHostCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-';
+    }
+
+    private static boolean isHexCharacter(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
@@ -0,0 +1,540 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Thread-safe cache of robots.txt rules, keyed by host.
+ * 
+ * <p>
+ * The cache is meant to hold the rules of all hosts a crawler is visiting. The
+ * key is chosen by the caller, usually the protocol, host and port of the
+ * robots.txt URL (RFC 9309 requires that a robots.txt file applies only to the
+ * protocol, host and port it has been fetched from).
+ * </p>
+ * 
+ * <p>
+ * Entries expire:
+ * </p>
+ * <ul>
+ * <li>after 24 hours by default (see {@link #DEFAULT_TTL}), following <a href=
+ * "https://www.rfc-editor.org/rfc/rfc9309.html#name-caching">RFC 9309, section
+ * 2.4</a>: "Crawlers SHOULD NOT use the cached version for more than 24
+ * hours, unless the robots.txt file is unreachable."</li>
+ * <li>after a shorter time (see {@link #DEFAULT_DEFER_VISITS_TTL}) if the rules
+ * indicate that visits to the host should be deferred (see
+ * {@link BaseRobotRules#isDeferVisits()}), e.g. if the rules are created by
+ * {@link SimpleRobotRulesParser#failedFetch(int)} because the server was
+ * unreachable or responded with a server error. The robots.txt is then fetched
+ * again soon.</li>
+ * </ul>
+ * 
+ * <p>
+ * The cache is bounded by a maximum total weight. By default, the weight of an
+ * entry is one plus the number of allow/disallow rules; pass a weigher
+ * returning 1 to bound the number of entries. If the maximum is exceeded, the
+ * least recently used entries are evicted. To reduce lock contention, the cache
+ * is split into segments, each of them holding a share of the maximum weight
+ * and guarded by its own lock.
+ * </p>
+ * 
+ * <p>
+ * Rules are loaded via {@link #get(String, Loader)}. Concurrent requests for
+ * the same key which isn't cached trigger only a single call of the loader,
+ * all other threads wait for the result.
+ * </p>
+ * 
+ * <p>
+ * To reduce the memory footprint of the cached rules, the loader may call
+ * {@link SimpleRobotRules#compact()} before returning the rules.
+ * </p>
+ */
+public class RobotRulesCache {
+
+    /** Default time-to-live of cached rules: 24 hours */
+    public static final long DEFAULT_TTL = TimeUnit.HOURS.toMillis(24);
+
+    /**
+     * Default time-to-live of rules which indicate that visits to the host are
+     * deferred: 10 minutes
+     */
+    public static final long DEFAULT_DEFER_VISITS_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    private static final int NUM_SEGMENTS = 16;
+
+    /**
+     * Loads the robots rules for a key, e.g. by fetching and parsing the
+     * robots.txt file.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * @param key
+         *            cache key
+         * @return robots rules, must not be null
+         * @throws IOException
+         *             if the rules cannot be loaded. Nothing is cached in this
+         *             case. Note that a failed fetch of the robots.txt should
+         *             be rather handled by returning the result of
+         *             {@link SimpleRobotRulesParser#failedFetch(int)}.
+         */
+        BaseRobotRules load(String key) throws IOException;
+    }
+
+    private static class Entry {
+        final BaseRobotRules rules;
+        final int weight;
+        /** expiration time, see {@link RobotRulesCache#clock} */
+        final long expires;
+
+        Entry(BaseRobotRules rules, int weight, long expires) {
+            this.rules = rules;
+            this.weight = weight;
+            this.expires = expires;
+        }
+    }
+
+    private class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        /** entries in access order, least recently used first */
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        /** pending loads */
+        final Map<String, CompletableFuture<BaseRobotRules>> loading = new HashMap<>();
+        long weight = 0;
+
+        /** Get a valid entry, remove it if expired. Requires lock. */
+        Entry getEntry(String key, long now) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expires - now <= 0) {
+                remove(key);
+                return null;
+            }
+            return entry;
+        }
+
+        /** Add entry and evict entries if necessary. Requires lock. */
+        void put(String key, Entry entry) {
+            remove(key);
+            entries.put(key, entry);
+            weight += entry.weight;
+            Iterator<Entry> it = entries.values().iterator();
+            while (weight > _maxSegmentWeight && it.hasNext()) {
+                Entry eldest = it.next();
+                if (eldest == entry) {
+                    // keep the new entry even if it exceeds the maximum
+                    continue;
+                }
+                it.remove();
+                weight -= eldest.weight;
+                _evictionCount.increment();
+            }
+        }
+
+        /** Requires lock. */
+        void remove(String key) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                weight -= entry.weight;
+            }
+        }
+    }
+
+    private final Segment[] _segments;
+    private final long _maxSegmentWeight;
+    private final long _ttl;
+    private final long _deferVisitsTtl;
+    private final ToIntFunction<BaseRobotRules> _weigher;
+    /** time source in nanoseconds */
+    private final LongSupplier _clock;
+
+    private final LongAdder _hitCount = new LongAdder();
+    private final LongAdder _missCount = new LongAdder();
+    private final LongAdder _loadCount = new LongAdder();
+    private final LongAdder _loadFailureCount = new LongAdder();
+    private final LongAdder _totalLoadTime = new LongAdder();
+    private final LongAdder _evictionCount = new LongAdder();
+
+    /**
+     * Create a cache with default time-to-live values and weight.
+     * 
+     * @param maxWeight
+     *            maximum total weight of all cached entries
+     */
+    public RobotRulesCache(long maxWeight) {
+        this(maxWeight, DEFAULT_TTL, DEFAULT_DEFER_VISITS_TTL);
+    }
+
+    /**
+     * Create a cache with the default weight, one plus the number of
+     * allow/disallow rules.
+     * 
+     * @param maxWeight
+     *            maximum total weight of all cached entries
+     * @param ttl
+     *            time-to-live of cached rules in milliseconds
+     * @param deferVisitsTtl
+     *            time-to-live in milliseconds of cached rules which indicate
+     *            that visits to the host are deferred
+     */
+    public RobotRulesCache(long maxWeight, long ttl, long deferVisitsTtl) {
+        this(maxWeight, ttl, deferVisitsTtl, RobotRulesCache::defaultWeight);
+    }
+
+    /**
+     * @param maxWeight
+     *            maximum total weight of all cached entries
+     * @param ttl
+     *            time-to-live of cached rules in milliseconds
+     * @param deferVisitsTtl
+     *            time-to-live in milliseconds of cached rules which indicate
+     *            that visits to the host are deferred
+     * @param weigher
+     *            function to determine the weight of cached rules, must return
+     *            a positive number
+     */
+    public RobotRulesCache(long maxWeight, long ttl, long deferVisitsTtl, ToIntFunction<BaseRobotRules> weigher) {
+        this(maxWeight, ttl, deferVisitsTtl, weigher, System::nanoTime);
+    }
+
+    RobotRulesCache(long maxWeight, long ttl, long deferVisitsTtl, ToIntFunction<BaseRobotRules> weigher, LongSupplier clock) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+        if (ttl <= 0 || deferVisitsTtl <= 0) {
+            throw new IllegalArgumentException("Time-to-live must be positive");
+        }
+        int numSegments = (int) Math.min(NUM_SEGMENTS, maxWeight);
+        _segments = new RobotRulesCache.Segment[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            _segments[i] = new Segment();
+        }
+        _maxSegmentWeight = maxWeight / numSegments;
+        _ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+        _deferVisitsTtl = TimeUnit.MILLISECONDS.toNanos(deferVisitsTtl);
+        _weigher = weigher;
+        _clock = clock;
+    }
+
+    private static int defaultWeight(BaseRobotRules rules) {
+        if (rules instanceof SimpleRobotRules) {
+            return 1 + ((SimpleRobotRules) rules).getRuleCount();
+        }
+        return 1;
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        // spread higher bits, the segments are selected by the lower bits
+        h ^= (h >>> 16);
+        return _segments[Math.floorMod(h, _segments.length)];
+    }
+
+    private Entry createEntry(BaseRobotRules rules) {
+        long ttl = rules.isDeferVisits() ? _deferVisitsTtl : _ttl;
+        int weight = _weigher.applyAsInt(rules);
+        if (weight <= 0) {
+            throw new IllegalStateException("Weight of cached rules must be positive: " + weight);
+        }
+        return new Entry(rules, weight, _clock.getAsLong() + ttl);
+    }
+
+    /**
+     * Get the cached rules for a key, or load and cache them if not cached or
+     * expired. If the rules for the key are loaded concurrently by another
+     * thread, wait for the result instead of loading them again.
+     * 
+     * @param key
+     *            cache key
+     * @param loader
+     *            loader called if the key isn't cached
+     * @return robots rules
+     * @throws IOException
+     *             if the loader failed to load the rules. If the rules were
+     *             loaded by another thread, the exception is wrapped.
+     */
+    public BaseRobotRules get(String key, Loader loader) throws IOException {
+        Segment segment = segmentFor(key);
+        CompletableFuture<BaseRobotRules> future;
+        boolean loadInThisThread = false;
+        segment.lock.lock();
+        try {
+            Entry entry = segment.getEntry(key, _clock.getAsLong());
+            if (entry != null) {
+                _hitCount.increment();
+                return entry.rules;
+            }
+            _missCount.increment();
+            future = segment.loading.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                segment.loading.put(key, future);
+                loadInThisThread = true;
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (loadInThisThread) {
+            return load(segment, key, loader, future);
+        }
+        return await(future);
+    }
+
+    private BaseRobotRules load(Segment segment, String key, Loader loader, CompletableFuture<BaseRobotRules> future) throws IOException {
+        long start = System.nanoTime();
+        BaseRobotRules rules = null;
+        Entry entry = null;
+        Throwable failure = null;
+        try {
+            rules = loader.load(key);
+            if (rules == null) {
+                throw new IllegalStateException("Loader returned null for key " + key);
+            }
+            // weigh the rules outside of the lock, a failing weigher is
+            // handled as load failure
+            entry = createEntry(rules);
+            return rules;
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            _totalLoadTime.add(System.nanoTime() - start);
+            try {
+                segment.lock.lock();
+                try {
+                    // the load is detached if the key was put or invalidated
+                    // meanwhile, its result must not replace the newer state
+                    boolean current = segment.loading.remove(key, future);
+                    if (failure == null) {
+                        _loadCount.increment();
+                        if (current) {
+                            segment.put(key, entry);
+                        }
+                    } else {
+                        _loadFailureCount.increment();
+                    }
+                } finally {
+                    segment.lock.unlock();
+                }
+            } finally {
+                // always release threads waiting for the result
+                if (failure == null) {
+                    future.complete(rules);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private static BaseRobotRules await(CompletableFuture<BaseRobotRules> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for robots rules to be loaded");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * @param key
+     *            cache key
+     * @return the cached rules or null if the key isn't cached or expired
+     */
+    public BaseRobotRules getIfPresent(String key) {
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry entry = segment.getEntry(key, _clock.getAsLong());
+            if (entry == null) {
+                _missCount.increment();
+                return null;
+            }
+            _hitCount.increment();
+            return entry.rules;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Add rules to the cache, replacing rules already cached for the key. The
+     * result of a load of the key in progress is not cached.
+     * 
+     * @param key
+     *            cache key
+     * @param rules
+     *            robots rules
+     */
+    public void put(String key, BaseRobotRules rules) {
+        Entry entry = createEntry(rules);
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.loading.remove(key);
+            segment.put(key, entry);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the rules cached for a key. The result of a load of the key in
+     * progress is not cached.
+     * 
+     * @param key
+     *            cache key
+     */
+    public void invalidate(String key) {
+        Segment segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.loading.remove(key);
+            segment.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove all cached rules. The results of loads in progress are not
+     * cached.
+     */
+    public void clear() {
+        for (Segment segment : _segments) {
+            segment.lock.lock();
+            try {
+                segment.loading.clear();
+                segment.entries.clear();
+                segment.weight = 0;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return number of cached entries, including expired entries not yet
+     *         removed
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : _segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return total weight of cached entries
+     */
+    public long getWeight() {
+        long weight = 0;
+        for (Segment segment : _segments) {
+            segment.lock.lock();
+            try {
+                weight += segment.weight;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return weight;
+    }
+
+    /** @return number of lookups which returned cached rules */
+    public long getHitCount() {
+        return _hitCount.sum();
+    }
+
+    /**
+     * @return number of lookups which did not find cached rules, including
+     *         those waiting for rules loaded by another thread
+     */
+    public long getMissCount() {
+        return _missCount.sum();
+    }
+
+    /** @return ratio of hits to all lookups, 1.0 if there were no lookups */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long lookups = hits + getMissCount();
+        return lookups == 0 ? 1.0 : (double) hits / lookups;
+    }
+
+    /** @return number of successful calls of a loader */
+    public long getLoadCount() {
+        return _loadCount.sum();
+    }
+
+    /** @return number of calls of a loader which threw an exception */
+    public long getLoadFailureCount() {
+        return _loadFailureCount.sum();
+    }
+
+    /** @return total time in nanoseconds spent in loaders */
+    public long getTotalLoadTime() {
+        return _totalLoadTime.sum();
+    }
+
+    /** @return number of entries evicted to keep the maximum weight */
+    public long getEvictionCount() {
+        return _evictionCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getSimpleName()).append(": ");
+        sb.append("size = ").append(size());
+        sb.append(", weight = ").append(getWeight());
+        sb.append(", hits = ").append(getHitCount());
+        sb.append(", misses = ").append(getMissCount());
+        sb.append(", loads = ").append(getLoadCount());
+        sb.append(", load failures = ").append(getLoadFailureCount());
+        sb.append(", evictions = ").append(getEvictionCount());
+        return sb.toString();
+    }
+}
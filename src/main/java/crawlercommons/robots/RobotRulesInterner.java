@@ -0,0 +1,142 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded table of robots rules parsed from robots.txt files, used to share
+ * one immutable instance between hosts serving byte-identical robots.txt
+ * files.
+ * 
+ * <p>
+ * Entries are looked up by a hash of the content and the parameters which
+ * affect the parsing result. Because the hash isn't collision-free, the
+ * content and the user-agent names are stored in the entry and compared on
+ * lookup. Entries are held by soft references, so that they can be reclaimed
+ * by the garbage collector if memory is low. The number of entries is bounded,
+ * the least recently used entries are removed first.
+ * </p>
+ */
+class RobotRulesInterner {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    static class Entry {
+        private final byte[] content;
+        private final Set<String> robotNames;
+        private final boolean[] flags;
+        final FrozenRobotRules rules;
+        final int numWarnings;
+
+        private Entry(byte[] content, Collection<String> robotNames, boolean[] flags, FrozenRobotRules rules, int numWarnings) {
+            this.content = content;
+            this.robotNames = new HashSet<>(robotNames);
+            this.flags = flags;
+            this.rules = rules;
+            this.numWarnings = numWarnings;
+        }
+
+        boolean matches(byte[] content, Collection<String> robotNames, boolean[] flags) {
+            return Arrays.equals(this.content, content) && Arrays.equals(this.flags, flags) && this.robotNames.size() == robotNames.size()
+                            && this.robotNames.containsAll(robotNames);
+        }
+    }
+
+    private final Map<Long, SoftReference<Entry>> _entries;
+
+    /**
+     * @param maxSize
+     *            maximum number of entries
+     */
+    RobotRulesInterner(int maxSize) {
+        _entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SoftReference<RobotRulesInterner.Entry>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Calculate the key of a robots.txt file.
+     * 
+     * @param content
+     *            content of the robots.txt file
+     * @param robotNames
+     *            user-agent names
+     * @param flags
+     *            parser options which affect the result
+     * @return 64-bit hash
+     */
+    static long key(byte[] content, Collection<String> robotNames, boolean[] flags) {
+        // FNV-1a over the content
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : content) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        // the result does not depend on the order of the robot names
+        int namesHash = 0;
+        for (String name : robotNames) {
+            namesHash += name.hashCode();
+        }
+        hash = hash * 31 + namesHash;
+        return hash * 31 + Arrays.hashCode(flags);
+    }
+
+    /**
+     * @return the interned entry or null if not found
+     */
+    synchronized Entry get(long key, byte[] content, Collection<String> robotNames, boolean[] flags) {
+        SoftReference<Entry> ref = _entries.get(key);
+        if (ref == null) {
+            return null;
+        }
+        Entry entry = ref.get();
+        if (entry == null) {
+            // reclaimed by the garbage collector
+            _entries.remove(key);
+            return null;
+        }
+        if (!entry.matches(content, robotNames, flags)) {
+            return null;
+        }
+        return entry;
+    }
+
+    synchronized void put(long key, byte[] content, Collection<String> robotNames, boolean[] flags, FrozenRobotRules rules, int numWarnings) {
+        _entries.put(key, new SoftReference<>(new Entry(content.clone(), robotNames, flags, rules, numWarnings)));
+    }
+
+    synchronized int size() {
+        return _entries.size();
+    }
+
+    synchronized void clear() {
+        _entries.clear();
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRule;
+
+/**
+ * Immutable matcher compiled from a set of allow/disallow rules.
+ *
+ * <p>
+ * Rules are indexed in a trie by their literal lead, that is the part of the
+ * pattern before the first wildcard <code>*</code> or the end-of-path anchor
+ * <code>$</code>. Rules without special characters are fully represented by a
+ * trie node. Rules with special characters are compiled into a
+ * {@link WildcardPattern}, attached to the node of their literal lead, and the
+ * remainder of the pattern is only matched if the path reached that node. The
+ * cost of a check is proportional to the length of the path and the number of
+ * patterns sharing a literal lead with the path, but independent from the
+ * total number of rules. Every pattern is matched in linear time.
+ * </p>
+ *
+ * <p>
+ * The matching result is the same as if all rules are matched one by one: the
+ * most specific (longest) matching rule is used, and if an allow and a disallow
+ * rule of the same length match, the allow rule wins.
+ * </p>
+ */
+final class RobotRulesMatcher {
+
+    private static final PatternRule[] NO_PATTERNS = new PatternRule[0];
+
+    private static class PatternRule {
+        final WildcardPattern pattern;
+        final boolean allow;
+
+        PatternRule(WildcardPattern pattern, boolean allow) {
+            this.pattern = pattern;
+            this.allow = allow;
+        }
+    }
+
+    private static class Node {
+        /** sorted list of characters leading to children */
+        char[] chars = {};
+        Node[] children = new Node[0];
+        /** whether an allow resp. disallow rule ends at this node */
+        boolean allow = false;
+        boolean disallow = false;
+        /** rules with wildcards whose literal lead ends at this node */
+        PatternRule[] patterns = NO_PATTERNS;
+
+        Node getChild(char c) {
+            int pos = Arrays.binarySearch(chars, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            return null;
+        }
+
+        Node addChild(char c) {
+            int pos = Arrays.binarySearch(chars, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            pos = -pos - 1;
+            Node child = new Node();
+            char[] newChars = new char[chars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            newChars[pos] = c;
+            newChildren[pos] = child;
+            System.arraycopy(chars, pos, newChars, pos + 1, chars.length - pos);
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            chars = newChars;
+            children = newChildren;
+            return child;
+        }
+
+        void addPattern(PatternRule rule) {
+            patterns = Arrays.copyOf(patterns, patterns.length + 1);
+            patterns[patterns.length - 1] = rule;
+        }
+    }
+
+    private final Node root;
+
+    RobotRulesMatcher(Collection<RobotRule> rules) {
+        root = new Node();
+        for (RobotRule rule : rules) {
+            addRule(rule);
+            RobotRule indexRule = deriveIndexRule(rule);
+            if (indexRule != null) {
+                addRule(indexRule);
+            }
+        }
+    }
+
+    private void addRule(RobotRule rule) {
+        String pattern = rule._prefix;
+        WildcardPattern compiled = new WildcardPattern(pattern);
+        int leadLength = compiled.getLeadLength();
+        Node node = root;
+        for (int i = 0; i < leadLength; i++) {
+            node = node.addChild(pattern.charAt(i));
+        }
+        if (leadLength < pattern.length()) {
+            node.addPattern(new PatternRule(compiled, rule._allow));
+        } else if (rule._allow) {
+            node.allow = true;
+        } else {
+            node.disallow = true;
+        }
+    }
+
+    /**
+     * Rules ending in <code>index.htm</code> or <code>index.html</code> also
+     * match the directory path, e.g. <code>Allow: /dir/index.html</code>
+     * implies <code>Allow: /dir/$</code>.
+     *
+     * <p>
+     * Some webmasters expect behavior close to Google's, see the
+     * precedence-of-rules test case for an example. This is equivalent to:
+     * https://github.com/google/robotstxt/blob/
+     * 02bc6cdfa32db50d42563180c42aeb47042b4f0c/robots.cc#L605-L618
+     * </p>
+     *
+     * <p>
+     * There are example robots.txt in the wild that benefit from this. As of
+     * 2/7/2022, https://venmo.com/robots.txt for instance.
+     * </p>
+     *
+     * <p>
+     * RFC 9309
+     * (https://www.rfc-editor.org/rfc/rfc9309.html#name-the-allow-and-disallow-line)
+     * requires that "The most specific match found MUST be used. The most
+     * specific match is the match that has the most octets." The derived rule
+     * is shorter than the original one, so it is only the most specific match
+     * if the original rule does not match. The derived rule can therefore be
+     * added to the rule set unconditionally.
+     * </p>
+     *
+     * @return the derived rule or null if the rule does not end in
+     *         <code>index.htm</code> or <code>index.html</code>
+     */
+    static RobotRule deriveIndexRule(RobotRule rule) {
+        String pattern = rule._prefix;
+        if (pattern.endsWith("index.htm") || pattern.endsWith("index.html")) {
+            return new RobotRule(pattern.substring(0, pattern.indexOf("index.htm")) + "$", rule._allow);
+        }
+        return null;
+    }
+
+    /**
+     * Check whether a path is allowed.
+     *
+     * @param pathWithQuery
+     *            percent-encoded path and query of the URL, with the special
+     *            characters <code>*</code> and <code>$</code> escaped
+     * @return true if the path is allowed
+     */
+    boolean isAllowed(CharSequence pathWithQuery) {
+        boolean isAllowed = true;
+        int longestRuleMatch = Integer.MIN_VALUE;
+
+        int pathLength = pathWithQuery.length();
+        int depth = 0;
+        Node node = root;
+        while (true) {
+            if (node.allow || node.disallow) {
+                // literal rules of the same length: allow wins
+                if (longestRuleMatch < depth) {
+                    longestRuleMatch = depth;
+                    isAllowed = node.allow;
+                } else if (longestRuleMatch == depth) {
+                    isAllowed |= node.allow;
+                }
+            }
+            for (PatternRule rule : node.patterns) {
+                if (!rule.pattern.matchesAfterLead(pathWithQuery)) {
+                    continue;
+                }
+                int matchLength = rule.pattern.getPattern().length();
+                if (longestRuleMatch < matchLength) {
+                    longestRuleMatch = matchLength;
+                    isAllowed = rule.allow;
+                } else if (longestRuleMatch == matchLength) {
+                    isAllowed |= rule.allow;
+                }
+            }
+            if (depth == pathLength) {
+                break;
+            }
+            node = node.getChild(pathWithQuery.charAt(depth++));
+            if (node == null) {
+                break;
+            }
+        }
+
+        return isAllowed;
+    }
+}
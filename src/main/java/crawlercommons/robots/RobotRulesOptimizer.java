@@ -0,0 +1,245 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRule;
+
+/**
+ * Removal of rules which never affect the result of rule matching, see
+ * {@link SimpleRobotRules#optimize()}.
+ *
+ * <p>
+ * The result of matching a path is decided by the longest matching rule, an
+ * allow rule wins over a disallow rule of the same length. Two kinds of rules
+ * are removed:
+ * </p>
+ * <ul>
+ * <li>disallow rules which never win: if there is an allow rule with the same
+ * pattern, or a <i>universal</i> allow rule at least as long as the disallow
+ * rule. A universal rule matches every path, e.g. <code>/</code>,
+ * <code>*</code> or <code>/*</code>. Paths always start with a slash.</li>
+ * <li>rules shadowed by a broader rule with the same verdict: if a literal rule
+ * <i>B</i> (without wildcards or anchor) is a prefix of the literal lead of a
+ * rule <i>R</i>, every path matched by <i>R</i> is also matched by <i>B</i>.
+ * <i>R</i> can be removed unless a rule with the opposite verdict and a length
+ * between the length of <i>B</i> and <i>R</i> may match a path matched by
+ * <i>R</i>. This is the case if the literal leads of both rules are a prefix
+ * of each other.</li>
+ * </ul>
+ *
+ * <p>
+ * Rules ending in <code>index.htm</code> or <code>index.html</code> imply an
+ * additional rule matching the directory path (see
+ * {@link RobotRulesMatcher#deriveIndexRule(RobotRule)}). These rules are kept,
+ * and the derived rules are considered as rules with the opposite verdict.
+ * </p>
+ */
+final class RobotRulesOptimizer {
+
+    /** Literal lead and length of a rule, sortable by the lead. */
+    private static class LeadEntry {
+        final String lead;
+        final int length;
+
+        LeadEntry(String lead, int length) {
+            this.lead = lead;
+            this.length = length;
+        }
+    }
+
+    private static final Comparator<LeadEntry> BY_LEAD = Comparator.comparing(e -> e.lead);
+
+    /**
+     * Literal rules and literal leads of all rules with the same verdict. The
+     * distinct lengths are kept to look up only prefixes of matching length,
+     * which avoids a quadratic number of prefix lookups for long patterns.
+     */
+    private static class RuleIndex {
+        final Set<String> literals = new HashSet<>();
+        final List<LeadEntry> leads = new ArrayList<>();
+        int[] literalLengths;
+        int[] leadLengths;
+
+        void add(String pattern, String lead) {
+            if (lead.length() == pattern.length()) {
+                literals.add(lead);
+            }
+            leads.add(new LeadEntry(lead, pattern.length()));
+        }
+
+        void build() {
+            leads.sort(BY_LEAD);
+            literalLengths = literals.stream().mapToInt(String::length).distinct().sorted().toArray();
+            leadLengths = leads.stream().mapToInt(e -> e.lead.length()).distinct().sorted().toArray();
+        }
+    }
+
+    private RobotRulesOptimizer() {
+    }
+
+    /**
+     * @param rules
+     *            rules, sorted and deduplicated
+     * @return the rules without those never affecting the result of rule
+     *         matching, in the same order
+     */
+    static List<RobotRule> optimize(List<RobotRule> rules) {
+        int n = rules.size();
+        WildcardPattern[] patterns = new WildcardPattern[n];
+        boolean[] keep = new boolean[n];
+
+        // 1. disallow rules which never win
+        int universalAllowLength = -1;
+        Set<String> allowPatterns = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            RobotRule rule = rules.get(i);
+            patterns[i] = new WildcardPattern(rule._prefix);
+            keep[i] = true;
+            if (rule._allow) {
+                allowPatterns.add(rule._prefix);
+                if (isUniversal(rule._prefix)) {
+                    universalAllowLength = Math.max(universalAllowLength, rule._prefix.length());
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            RobotRule rule = rules.get(i);
+            if (!rule._allow && (rule._prefix.length() <= universalAllowLength || allowPatterns.contains(rule._prefix))) {
+                keep[i] = false;
+            }
+        }
+
+        // 2. rules shadowed by a broader rule with the same verdict
+        RuleIndex allowIndex = new RuleIndex();
+        RuleIndex disallowIndex = new RuleIndex();
+        for (int i = 0; i < n; i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            RobotRule rule = rules.get(i);
+            RuleIndex index = rule._allow ? allowIndex : disallowIndex;
+            index.add(rule._prefix, rule._prefix.substring(0, patterns[i].getLeadLength()));
+            RobotRule indexRule = RobotRulesMatcher.deriveIndexRule(rule);
+            if (indexRule != null) {
+                // the derived rule is never literal, it ends with the anchor
+                index.add(indexRule._prefix, indexRule._prefix.substring(0, new WildcardPattern(indexRule._prefix).getLeadLength()));
+            }
+        }
+        allowIndex.build();
+        disallowIndex.build();
+
+        List<RobotRule> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            RobotRule rule = rules.get(i);
+            RuleIndex sameVerdict = rule._allow ? allowIndex : disallowIndex;
+            RuleIndex oppositeVerdict = rule._allow ? disallowIndex : allowIndex;
+            if (RobotRulesMatcher.deriveIndexRule(rule) == null && isShadowed(rule, patterns[i], sameVerdict, oppositeVerdict)) {
+                continue;
+            }
+            result.add(rule);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the pattern matches every path starting with a slash
+     */
+    private static boolean isUniversal(String pattern) {
+        int start = pattern.startsWith("/") ? 1 : 0;
+        for (int i = start; i < pattern.length(); i++) {
+            if (pattern.charAt(i) != '*') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isShadowed(RobotRule rule, WildcardPattern pattern, RuleIndex sameVerdict, RuleIndex oppositeVerdict) {
+        String lead = rule._prefix.substring(0, pattern.getLeadLength());
+        // longest broader literal rule: a proper prefix of a literal rule, or
+        // the lead of a rule with wildcards or anchor
+        int maxBroaderLength = (lead.length() == rule._prefix.length()) ? lead.length() - 1 : lead.length();
+        int broaderLength = -1;
+        for (int i = sameVerdict.literalLengths.length - 1; i >= 0; i--) {
+            int length = sameVerdict.literalLengths[i];
+            if (length <= maxBroaderLength && sameVerdict.literals.contains(lead.substring(0, length))) {
+                broaderLength = length;
+                break;
+            }
+        }
+        if (broaderLength < 0) {
+            return false;
+        }
+        return !hasOverlappingRule(oppositeVerdict, lead, broaderLength, rule._prefix.length());
+    }
+
+    /**
+     * @return true if there is a rule with a length between minLength and
+     *         maxLength (inclusive) whose literal lead is a prefix of the given
+     *         lead or vice versa
+     */
+    private static boolean hasOverlappingRule(RuleIndex index, String lead, int minLength, int maxLength) {
+        List<LeadEntry> sortedLeads = index.leads;
+        // rules whose lead is a proper prefix of the lead
+        for (int leadLength : index.leadLengths) {
+            if (leadLength >= lead.length()) {
+                break;
+            }
+            String prefix = lead.substring(0, leadLength);
+            for (int j = lowerBound(sortedLeads, prefix); j < sortedLeads.size() && sortedLeads.get(j).lead.equals(prefix); j++) {
+                if (inRange(sortedLeads.get(j).length, minLength, maxLength)) {
+                    return true;
+                }
+            }
+        }
+        // rules whose lead starts with the lead
+        for (int j = lowerBound(sortedLeads, lead); j < sortedLeads.size() && sortedLeads.get(j).lead.startsWith(lead); j++) {
+            if (inRange(sortedLeads.get(j).length, minLength, maxLength)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean inRange(int length, int minLength, int maxLength) {
+        return length >= minLength && length <= maxLength;
+    }
+
+    /** @return index of the first entry with a lead not less than the key */
+    private static int lowerBound(List<LeadEntry> sortedLeads, String key) {
+        int low = 0;
+        int high = sortedLeads.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedLeads.get(mid).lead.compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
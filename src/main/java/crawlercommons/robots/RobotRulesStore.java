@@ -0,0 +1,678 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRulesMode;
+
+/**
+ * File-backed store of robots rules, meant to hold the rules of millions of
+ * hosts without keeping them on the heap, and to keep them across restarts
+ * of a crawler.
+ * 
+ * <p>
+ * The store consists of two files in a directory:
+ * </p>
+ * <ul>
+ * <li>an append-only segment file (<code>robots-rules.seg</code>) holding one
+ * record per {@link #put(String, SimpleRobotRules) stored} rule set: the key,
+ * mode, crawl-delay, defer-visits flag, the packed rules (see
+ * {@link SimpleRobotRules#compact()}) and the sitemaps. The file is mapped
+ * into memory in chunks, records never cross a chunk boundary.</li>
+ * <li>an index file (<code>robots-rules.idx</code>), a memory-mapped open
+ * addressing hash table from the 64-bit hash of the key to the position of the
+ * latest record of the key. The table is kept at most half full. Because it
+ * is mapped as a single buffer of at most 2 GiB, the store can hold up to
+ * 2<sup>25</sup> (about 33.5 million) keys.</li>
+ * </ul>
+ * 
+ * <p>
+ * Lookups return a {@link MappedRobotRules} view which matches URLs directly
+ * against the mapped record, without deserializing the rules. Opening a store
+ * maps the files, only records appended after the index was last written are
+ * read to update the index. If the index file is missing or invalid, it is
+ * rebuilt from the segment file. A record is committed by advancing the end
+ * position in the segment header after the record has been written, a record
+ * written only partially (e.g. if the process crashed) is ignored and
+ * overwritten.
+ * </p>
+ * 
+ * <p>
+ * Records of replaced rules are not removed from the segment file. Writes are
+ * serialized, lookups do not block and can be done from any number of threads
+ * concurrently with writes. A store opened {@link #openReadOnly(Path)
+ * read-only} sees the records committed at the time it was opened. Files are
+ * flushed to disk by {@link #flush()} and {@link #close()}. The mapped memory
+ * is released when the store and all views are garbage-collected.
+ * </p>
+ */
+public class RobotRulesStore implements Closeable {
+
+    /** Default size of the chunks the segment file is mapped in (1 GiB). */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+    static final String SEGMENT_FILE_NAME = "robots-rules.seg";
+    static final String INDEX_FILE_NAME = "robots-rules.idx";
+
+    private static final int SEGMENT_MAGIC = 0x43435253; // "CCRS"
+    private static final int INDEX_MAGIC = 0x43435249; // "CCRI"
+    private static final int VERSION = 1;
+
+    /** magic, version, chunk size, reserved, end (long) */
+    static final int SEGMENT_HEADER_SIZE = 24;
+    private static final int SEGMENT_END = 16;
+
+    /** record length (int) and key length (short) */
+    static final int RECORD_HEADER_SIZE = 6;
+    static final int FLAG_DEFER_VISITS = 1;
+
+    /** magic, version, capacity, size, covered segment end (long) */
+    private static final int INDEX_HEADER_SIZE = 24;
+    private static final int INDEX_CAPACITY = 8;
+    private static final int INDEX_SIZE = 12;
+    private static final int INDEX_END = 16;
+    /** hash (long) and record position (long) */
+    private static final int SLOT_SIZE = 16;
+    static final int MIN_INDEX_CAPACITY = 1024;
+    /**
+     * Max. number of slots, the largest power of two for which the index file
+     * can be mapped as a single buffer (less than 2 GiB)
+     */
+    static final int MAX_INDEX_CAPACITY = 1 << 26;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Hash table mapped from the index file (or held in memory). */
+    private static class Index {
+        final ByteBuffer buffer;
+        final int capacity;
+        int size;
+
+        Index(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.capacity = buffer.getInt(INDEX_CAPACITY);
+            this.size = buffer.getInt(INDEX_SIZE);
+        }
+
+        int slot(int i) {
+            return INDEX_HEADER_SIZE + i * SLOT_SIZE;
+        }
+    }
+
+    private final Path _dir;
+    private final boolean _readOnly;
+    private final int _chunkSize;
+    private final int _maxIndexCapacity;
+    private final FileChannel _segmentChannel;
+    private volatile ByteBuffer[] _chunks;
+    private volatile long _end;
+    private volatile Index _index;
+    private volatile boolean _closed = false;
+
+    /**
+     * Open a store for reading and writing, the directory and files are
+     * created if they do not exist.
+     * 
+     * @param dir
+     *            directory holding the store files
+     * @return the store
+     * @throws IOException
+     *             if the files cannot be opened or mapped, or are not valid
+     *             store files
+     */
+    public static RobotRulesStore open(Path dir) throws IOException {
+        return new RobotRulesStore(dir, false, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Open an existing store for reading only.
+     * 
+     * @param dir
+     *            directory holding the store files
+     * @return the store
+     * @throws IOException
+     *             if the files do not exist, cannot be opened or mapped, or are
+     *             not valid store files
+     */
+    public static RobotRulesStore openReadOnly(Path dir) throws IOException {
+        return new RobotRulesStore(dir, true, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize
+     *            chunk size used if a new segment file is created, otherwise
+     *            the chunk size of the segment file is used
+     */
+    RobotRulesStore(Path dir, boolean readOnly, int chunkSize) throws IOException {
+        this(dir, readOnly, chunkSize, MAX_INDEX_CAPACITY);
+    }
+
+    /**
+     * @param chunkSize
+     *            chunk size used if a new segment file is created, otherwise
+     *            the chunk size of the segment file is used
+     * @param maxIndexCapacity
+     *            max. number of slots of the index, a power of two
+     */
+    RobotRulesStore(Path dir, boolean readOnly, int chunkSize, int maxIndexCapacity) throws IOException {
+        _dir = dir;
+        _readOnly = readOnly;
+        _maxIndexCapacity = maxIndexCapacity;
+        Path segmentPath = dir.resolve(SEGMENT_FILE_NAME);
+        if (readOnly) {
+            _segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.READ);
+        } else {
+            Files.createDirectories(dir);
+            _segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        }
+        try {
+            if (_segmentChannel.size() == 0 && !readOnly) {
+                ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+                header.putInt(SEGMENT_MAGIC).putInt(VERSION).putInt(chunkSize).putInt(0).putLong(SEGMENT_HEADER_SIZE).flip();
+                _segmentChannel.write(header, 0);
+            }
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            _segmentChannel.read(header, 0);
+            if (header.getInt(0) != SEGMENT_MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a robots rules segment file: " + segmentPath);
+            }
+            _chunkSize = header.getInt(8);
+            _end = header.getLong(SEGMENT_END);
+            if (_chunkSize < SEGMENT_HEADER_SIZE || _end < SEGMENT_HEADER_SIZE || _end > _segmentChannel.size()) {
+                throw new IOException("Corrupt robots rules segment file: " + segmentPath);
+            }
+            int numChunks = (int) ((_end + _chunkSize - 1) / _chunkSize);
+            ByteBuffer[] chunks = new ByteBuffer[numChunks];
+            for (int i = 0; i < numChunks; i++) {
+                chunks[i] = mapChunk(i);
+            }
+            _chunks = chunks;
+            _index = openIndex();
+        } catch (IOException | RuntimeException e) {
+            _segmentChannel.close();
+            throw e;
+        }
+    }
+
+    private ByteBuffer mapChunk(int chunk) throws IOException {
+        long start = (long) chunk * _chunkSize;
+        if (_readOnly) {
+            return _segmentChannel.map(MapMode.READ_ONLY, start, Math.min(_chunkSize, _segmentChannel.size() - start));
+        }
+        return _segmentChannel.map(MapMode.READ_WRITE, start, _chunkSize);
+    }
+
+    /**
+     * Map the index file and add records missing in the index. If the index
+     * file does not exist or is not valid, it is rebuilt.
+     */
+    private Index openIndex() throws IOException {
+        Path indexPath = _dir.resolve(INDEX_FILE_NAME);
+        Index index = null;
+        if (Files.isRegularFile(indexPath) && Files.size(indexPath) >= INDEX_HEADER_SIZE) {
+            index = new Index(mapIndex(indexPath, Files.size(indexPath), _readOnly));
+            long indexEnd = index.buffer.getLong(INDEX_END);
+            if (index.buffer.getInt(0) != INDEX_MAGIC || index.buffer.getInt(4) != VERSION || Integer.bitCount(index.capacity) != 1
+                            || Files.size(indexPath) != indexFileSize(index.capacity) || indexEnd < SEGMENT_HEADER_SIZE || indexEnd > _end) {
+                index = null;
+            }
+        }
+        long replayFrom = SEGMENT_HEADER_SIZE;
+        if (index == null) {
+            index = createIndex(MIN_INDEX_CAPACITY);
+        } else {
+            replayFrom = index.buffer.getLong(INDEX_END);
+        }
+        _index = index;
+
+        // add records appended after the index was written
+        long pos = replayFrom;
+        while (pos < _end) {
+            ByteBuffer chunk = _chunks[(int) (pos / _chunkSize)];
+            int offset = (int) (pos % _chunkSize);
+            int length = (chunk.capacity() - offset < 4) ? 0 : chunk.getInt(offset);
+            if (length == 0) {
+                // rest of the chunk is empty, the next record starts in the
+                // next chunk
+                pos = (pos / _chunkSize + 1) * _chunkSize;
+                continue;
+            }
+            if (length < RECORD_HEADER_SIZE || length > chunk.capacity() - offset) {
+                throw new IOException("Corrupt record at position " + pos + " in " + _dir.resolve(SEGMENT_FILE_NAME));
+            }
+            int keyLength = chunk.getShort(offset + 4) & 0xffff;
+            byte[] key = new byte[keyLength];
+            for (int i = 0; i < keyLength; i++) {
+                key[i] = chunk.get(offset + RECORD_HEADER_SIZE + i);
+            }
+            insert(key, pos);
+            pos += length;
+        }
+        if (!_readOnly) {
+            _index.buffer.putLong(INDEX_END, _end);
+        }
+        return _index;
+    }
+
+    private static long indexFileSize(int capacity) {
+        return INDEX_HEADER_SIZE + (long) capacity * SLOT_SIZE;
+    }
+
+    private static ByteBuffer mapIndex(Path path, long size, boolean readOnly) throws IOException {
+        if (readOnly) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(MapMode.READ_ONLY, 0, size);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            return channel.map(MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Create an empty index. The index of a read-only store is held in
+     * (off-heap) memory, otherwise it is written to a temporary file which
+     * replaces the index file.
+     */
+    private Index createIndex(int capacity) throws IOException {
+        long size = indexFileSize(capacity);
+        ByteBuffer buffer;
+        if (_readOnly) {
+            buffer = ByteBuffer.allocateDirect((int) size);
+        } else {
+            Path tmpPath = _dir.resolve(INDEX_FILE_NAME + ".tmp");
+            Files.deleteIfExists(tmpPath);
+            buffer = mapIndex(tmpPath, size, false);
+            Files.move(tmpPath, _dir.resolve(INDEX_FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        buffer.putInt(0, INDEX_MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(INDEX_CAPACITY, capacity);
+        buffer.putInt(INDEX_SIZE, 0);
+        buffer.putLong(INDEX_END, SEGMENT_HEADER_SIZE);
+        return new Index(buffer);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the key, never zero because zero marks an empty
+     * slot
+     */
+    private static long hash(byte[] key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Find the slot of a key in the index.
+     * 
+     * @return offset of the slot holding the key, or of the empty slot where
+     *         the key is to be inserted
+     */
+    private int findSlot(Index index, long hash, byte[] key) {
+        int mask = index.capacity - 1;
+        for (int i = (int) hash & mask;; i = (i + 1) & mask) {
+            int slot = index.slot(i);
+            long slotHash = index.buffer.getLong(slot);
+            if (slotHash == 0 || (slotHash == hash && keyEquals(index.buffer.getLong(slot + 8), key))) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Grow the index if adding the key would make it more than half full.
+     * Called before a record is committed, so that every committed record can
+     * be added to the index.
+     */
+    private void ensureIndexCapacity(byte[] key) throws IOException {
+        Index index = _index;
+        if ((index.size + 1) * 2 <= index.capacity || index.buffer.getLong(findSlot(index, hash(key), key)) != 0) {
+            return;
+        }
+        grow(index);
+    }
+
+    /**
+     * Insert or replace the record position of a key in the index. The index is
+     * grown if it is half full.
+     */
+    private void insert(byte[] key, long pos) throws IOException {
+        long hash = hash(key);
+        Index index = _index;
+        int slot = findSlot(index, hash, key);
+        if (index.buffer.getLong(slot) != 0) {
+            index.buffer.putLong(slot + 8, pos);
+            return;
+        }
+        if ((index.size + 1) * 2 > index.capacity) {
+            index = grow(index);
+            slot = findSlot(index, hash, key);
+        }
+        // the position is written first, so that concurrent readers never see
+        // the hash without a position
+        index.buffer.putLong(slot + 8, pos);
+        index.buffer.putLong(slot, hash);
+        index.size++;
+        index.buffer.putInt(INDEX_SIZE, index.size);
+    }
+
+    private Index grow(Index index) throws IOException {
+        if (index.capacity >= _maxIndexCapacity) {
+            throw new IOException("Robots rules store is full: " + index.size + " keys");
+        }
+        Index grown = createIndex(index.capacity * 2);
+        int mask = grown.capacity - 1;
+        for (int i = 0; i < index.capacity; i++) {
+            long hash = index.buffer.getLong(index.slot(i));
+            if (hash == 0) {
+                continue;
+            }
+            int j = (int) hash & mask;
+            while (grown.buffer.getLong(grown.slot(j)) != 0) {
+                j = (j + 1) & mask;
+            }
+            grown.buffer.putLong(grown.slot(j) + 8, index.buffer.getLong(index.slot(i) + 8));
+            grown.buffer.putLong(grown.slot(j), hash);
+        }
+        grown.size = index.size;
+        grown.buffer.putInt(INDEX_SIZE, grown.size);
+        grown.buffer.putLong(INDEX_END, index.buffer.getLong(INDEX_END));
+        _index = grown;
+        return grown;
+    }
+
+    private boolean keyEquals(long pos, byte[] key) {
+        ByteBuffer[] chunks = _chunks;
+        int chunkIndex = (int) (pos / _chunkSize);
+        if (pos < SEGMENT_HEADER_SIZE || chunkIndex >= chunks.length) {
+            return false;
+        }
+        ByteBuffer chunk = chunks[chunkIndex];
+        int offset = (int) (pos % _chunkSize);
+        if ((chunk.getShort(offset + 4) & 0xffff) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(offset + RECORD_HEADER_SIZE + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Store the rules of a key, replacing the rules stored previously for the
+     * same key.
+     * 
+     * @param key
+     *            key chosen by the caller, e.g. protocol, host and port of the
+     *            robots.txt URL
+     * @param rules
+     *            rules to store
+     * @throws IOException
+     *             if the segment file cannot be extended, or the store is full
+     *             (the index cannot be grown to hold another key)
+     * @throws IllegalArgumentException
+     *             if the key is longer than 65535 bytes, a pattern contains
+     *             non-ASCII characters (patterns are percent-encoded by the
+     *             parser) or the record is larger than a chunk
+     * @throws IllegalStateException
+     *             if the store is read-only or closed
+     */
+    public synchronized void put(String key, SimpleRobotRules rules) throws IOException {
+        checkOpen();
+        if (_readOnly) {
+            throw new IllegalStateException("Robots rules store is read-only");
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xffff) {
+            throw new IllegalArgumentException("Key too long: " + keyBytes.length + " bytes");
+        }
+        byte[] record = encode(keyBytes, rules);
+        if (record.length > _chunkSize - SEGMENT_HEADER_SIZE) {
+            throw new IllegalArgumentException("Rules too large to be stored: " + record.length + " bytes");
+        }
+        // make room in the index before the record is committed, a committed
+        // record must never be missing in the index
+        ensureIndexCapacity(keyBytes);
+
+        long pos = _end;
+        if ((pos % _chunkSize) + record.length > _chunkSize) {
+            // mark the remainder of the chunk as empty, it may hold data of a
+            // record not committed before a crash
+            int offset = (int) (pos % _chunkSize);
+            if (_chunkSize - offset >= 4) {
+                _chunks[(int) (pos / _chunkSize)].putInt(offset, 0);
+            }
+            pos = (pos / _chunkSize + 1) * _chunkSize;
+        }
+        int chunkIndex = (int) (pos / _chunkSize);
+        ByteBuffer[] chunks = _chunks;
+        if (chunkIndex >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkIndex + 1);
+            for (int i = _chunks.length; i <= chunkIndex; i++) {
+                chunks[i] = mapChunk(i);
+            }
+            _chunks = chunks;
+        }
+        ByteBuffer chunk = chunks[chunkIndex].duplicate();
+        chunk.position((int) (pos % _chunkSize));
+        chunk.put(record);
+
+        // commit the record, then make it visible in the index
+        long end = pos + record.length;
+        chunks[0].putLong(SEGMENT_END, end);
+        _end = end;
+        insert(keyBytes, pos);
+        _index.buffer.putLong(INDEX_END, end);
+    }
+
+    /**
+     * Encode the rules as record, see {@link MappedRobotRules} for the
+     * layout.
+     */
+    private static byte[] encode(byte[] key, SimpleRobotRules rules) {
+        PackedRobotRules packed = null;
+        int numRules = 0;
+        int patternsLength = 0;
+        if (rules._mode == RobotRulesMode.ALLOW_SOME) {
+            packed = new PackedRobotRules(new LinkedHashSet<>(rules.rules()));
+            numRules = packed.size();
+            for (int i = 0; i < numRules; i++) {
+                patternsLength += packed.getPattern(i).length();
+            }
+        }
+        List<String> sitemaps = rules.getSitemaps();
+        byte[][] sitemapBytes = new byte[sitemaps.size()][];
+        int sitemapsLength = 4;
+        for (int i = 0; i < sitemapBytes.length; i++) {
+            sitemapBytes[i] = sitemaps.get(i).getBytes(StandardCharsets.UTF_8);
+            sitemapsLength += 4 + sitemapBytes[i].length;
+        }
+        int bitmapSize = (numRules + 7) >>> 3;
+        long length = RECORD_HEADER_SIZE + key.length + 14 + 4L * (numRules + 1) + 2L * bitmapSize + patternsLength + sitemapsLength;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Rules too large to be stored: " + length + " bytes");
+        }
+
+        ByteBuffer record = ByteBuffer.allocate((int) length);
+        record.putInt((int) length);
+        record.putShort((short) key.length);
+        record.put(key);
+        record.put((byte) rules._mode.ordinal());
+        record.put((byte) (rules.isDeferVisits() ? FLAG_DEFER_VISITS : 0));
+        record.putLong(rules.getCrawlDelay());
+        record.putInt(numRules);
+        byte[] allow = new byte[bitmapSize];
+        byte[] derived = new byte[bitmapSize];
+        int offset = 0;
+        for (int i = 0; i < numRules; i++) {
+            record.putInt(offset);
+            offset += packed.getPattern(i).length();
+            if (packed.isAllow(i)) {
+                allow[i >>> 3] |= 1 << (i & 7);
+            }
+            if (packed.isDerived(i)) {
+                derived[i >>> 3] |= 1 << (i & 7);
+            }
+        }
+        record.putInt(offset);
+        record.put(allow);
+        record.put(derived);
+        for (int i = 0; i < numRules; i++) {
+            String pattern = packed.getPattern(i);
+            for (int j = 0; j < pattern.length(); j++) {
+                char c = pattern.charAt(j);
+                if (c > 0x7f) {
+                    throw new IllegalArgumentException("Pattern contains non-ASCII characters: " + pattern);
+                }
+                record.put((byte) c);
+            }
+        }
+        record.putInt(sitemapBytes.length);
+        for (byte[] sitemap : sitemapBytes) {
+            record.putInt(sitemap.length);
+            record.put(sitemap);
+        }
+        return record.array();
+    }
+
+    static String decode(ByteBuffer buffer, int start, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Look up the rules of a key.
+     * 
+     * @param key
+     *            key the rules are stored with
+     * @return a view of the stored rules, or null if no rules are stored for
+     *         the key
+     * @throws IllegalStateException
+     *             if the store is closed
+     */
+    public MappedRobotRules get(String key) {
+        checkOpen();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+        Index index = _index;
+        int mask = index.capacity - 1;
+        for (int i = (int) hash & mask;; i = (i + 1) & mask) {
+            int slot = index.slot(i);
+            long slotHash = index.buffer.getLong(slot);
+            if (slotHash == 0) {
+                return null;
+            }
+            if (slotHash != hash) {
+                continue;
+            }
+            long pos = index.buffer.getLong(slot + 8);
+            // read the end after the position: a position written by a
+            // concurrent put is only used once the record is committed
+            if (pos >= _end || !keyEquals(pos, keyBytes)) {
+                continue;
+            }
+            return new MappedRobotRules(_chunks[(int) (pos / _chunkSize)], (int) (pos % _chunkSize));
+        }
+    }
+
+    /**
+     * @param key
+     *            key the rules are stored with
+     * @return true if rules are stored for the key
+     */
+    public boolean contains(String key) {
+        return get(key) != null;
+    }
+
+    /** @return number of keys with stored rules */
+    public int size() {
+        checkOpen();
+        return _index.size;
+    }
+
+    /** @return size of the segment file in use, in bytes */
+    public long getSegmentSize() {
+        return _end;
+    }
+
+    /**
+     * Write all changes to disk.
+     * 
+     * @throws IOException
+     *             if writing fails
+     */
+    public synchronized void flush() throws IOException {
+        checkOpen();
+        if (_readOnly) {
+            return;
+        }
+        for (ByteBuffer chunk : _chunks) {
+            ((MappedByteBuffer) chunk).force();
+        }
+        Index index = _index;
+        if (index.buffer instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) index.buffer).force();
+        }
+    }
+
+    /**
+     * Flush and close the store. Views returned by {@link #get(String)} stay
+     * usable until they are garbage-collected.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (_closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            _closed = true;
+            _segmentChannel.close();
+        }
+    }
+
+    private void checkOpen() {
+        if (_closed) {
+            throw new IllegalStateException("Robots rules store is closed");
+        }
+    }
+}
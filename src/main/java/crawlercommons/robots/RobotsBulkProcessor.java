@@ -0,0 +1,684 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRule;
+
+/**
+ * Parse a large number of stored robots.txt files in parallel, e.g. to
+ * re-validate the robots.txt files collected by a crawler. Because it runs the
+ * parser on real-world content with all cores busy, it is also an end-to-end
+ * load test of {@link SimpleRobotRulesParser}.
+ * 
+ * <p>
+ * Input records (URL, HTTP status code, content type and content) are read
+ * either from a directory, where each file holds one robots.txt, or from an
+ * archive file (optionally gzip-compressed) with records in the following
+ * format:
+ * </p>
+ * 
+ * <pre>
+ * &lt;url&gt; TAB &lt;status&gt; TAB &lt;content-type&gt; TAB &lt;length&gt; LF
+ * &lt;length bytes of content&gt; LF
+ * </pre>
+ * 
+ * <p>
+ * An empty or unknown content type is written as <code>-</code>. The LF after
+ * the content is optional. Records are read sequentially in batches, each batch
+ * is parsed on a {@link ForkJoinPool} while the next batch is read. For every
+ * record one line is written to the output, in the order of the input:
+ * </p>
+ * 
+ * <pre>
+ * &lt;url&gt; TAB &lt;status&gt; TAB &lt;mode&gt; TAB &lt;crawl-delay&gt; TAB &lt;warnings&gt; TAB &lt;rules&gt; TAB &lt;sitemaps&gt;
+ * </pre>
+ * 
+ * <p>
+ * The mode is one of <code>allow_all</code>, <code>allow_none</code> or
+ * <code>allow_some</code>, followed by <code>,defer</code> if visits should be
+ * deferred. The crawl-delay is given in milliseconds, or <code>-</code> if not
+ * set. Rules are separated by a space, each rule is the path pattern prefixed by
+ * <code>+</code> (allow) or <code>-</code> (disallow). Sitemaps are separated
+ * by a space.
+ * </p>
+ * 
+ * <p>
+ * If parsing a record fails with an exception, the run is not aborted. The
+ * failure is counted (see {@link Stats#getNumErrors()}) and the result line
+ * holds only the URL, the status, the mode <code>error</code> and the
+ * exception:
+ * </p>
+ * 
+ * <pre>
+ * &lt;url&gt; TAB &lt;status&gt; TAB error TAB &lt;exception&gt;
+ * </pre>
+ */
+public class RobotsBulkProcessor {
+
+    /** Default number of records parsed in one batch. */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /** Records per fork-join task, smaller ranges are not split further. */
+    private static final int MIN_TASK_SIZE = 16;
+
+    /** Upper bound of the length of a record header line. */
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    /**
+     * A stored robots.txt response.
+     */
+    public static class Record {
+        private final String _url;
+        private final int _status;
+        private final String _contentType;
+        private final byte[] _content;
+
+        /**
+         * @param url
+         *            URL of the robots.txt file
+         * @param status
+         *            HTTP status code
+         * @param contentType
+         *            content type, may be null
+         * @param content
+         *            content of the robots.txt file
+         */
+        public Record(String url, int status, String contentType, byte[] content) {
+            _url = url;
+            _status = status;
+            _contentType = contentType;
+            _content = content;
+        }
+
+        public String getUrl() {
+            return _url;
+        }
+
+        public int getStatus() {
+            return _status;
+        }
+
+        public String getContentType() {
+            return _contentType;
+        }
+
+        public byte[] getContent() {
+            return _content;
+        }
+    }
+
+    /**
+     * Source of records, e.g. an archive file.
+     */
+    @FunctionalInterface
+    public interface RecordReader extends Closeable {
+        /**
+         * @return the next record or null if there are no more records
+         */
+        Record next() throws IOException;
+
+        /**
+         * Release resources held by the reader. Readers which hold no
+         * resources need not implement this method.
+         */
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * Statistics about a bulk run.
+     */
+    public static class Stats {
+        private long _numRecords;
+        private long _numFailedFetches;
+        private long _numErrors;
+        private long _numTruncated;
+        private long _numWithWarnings;
+        private long _numWarnings;
+        private long _numRules;
+        private long _numSitemaps;
+        private long _contentBytes;
+        private long _elapsedNanos;
+
+        /** @return number of records processed */
+        public long getNumRecords() {
+            return _numRecords;
+        }
+
+        /** @return number of records with a non-2xx HTTP status code */
+        public long getNumFailedFetches() {
+            return _numFailedFetches;
+        }
+
+        /**
+         * @return number of records which failed to be parsed because of an
+         *         exception
+         */
+        public long getNumErrors() {
+            return _numErrors;
+        }
+
+        /**
+         * @return number of robots.txt files exceeding the max. content
+         *         length, see {@link SimpleRobotRulesParser#setMaxContentLength(int)}
+         */
+        public long getNumTruncated() {
+            return _numTruncated;
+        }
+
+        /** @return number of robots.txt files with at least one warning */
+        public long getNumWithWarnings() {
+            return _numWithWarnings;
+        }
+
+        /** @return total number of warnings */
+        public long getNumWarnings() {
+            return _numWarnings;
+        }
+
+        /** @return total number of rules */
+        public long getNumRules() {
+            return _numRules;
+        }
+
+        /** @return total number of sitemaps */
+        public long getNumSitemaps() {
+            return _numSitemaps;
+        }
+
+        /** @return total size of the content of all records in bytes */
+        public long getContentBytes() {
+            return _contentBytes;
+        }
+
+        /** @return wall-clock time of the bulk run in nanoseconds */
+        public long getElapsedNanos() {
+            return _elapsedNanos;
+        }
+
+        /** @return records processed per second */
+        public double getRecordsPerSecond() {
+            return _elapsedNanos == 0 ? 0.0 : (_numRecords * 1e9 / _elapsedNanos);
+        }
+
+        /** @return content bytes processed per second */
+        public double getBytesPerSecond() {
+            return _elapsedNanos == 0 ? 0.0 : (_contentBytes * 1e9 / _elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                            "records: %d, failed fetches: %d, errors: %d, truncated: %d, with warnings: %d, warnings: %d, rules: %d, sitemaps: %d, bytes: %d, elapsed: %.3f s, %.1f records/s, %.2f MiB/s",
+                            _numRecords, _numFailedFetches, _numErrors, _numTruncated, _numWithWarnings, _numWarnings, _numRules, _numSitemaps, _contentBytes, _elapsedNanos / 1e9,
+                            getRecordsPerSecond(), getBytesPerSecond() / (1024 * 1024));
+        }
+    }
+
+    /** Result of a single record, written and counted by the caller thread. */
+    private static class Result {
+        String line;
+        int contentLength;
+        boolean failedFetch;
+        boolean error;
+        boolean truncated;
+        int numWarnings;
+        int numRules;
+        int numSitemaps;
+    }
+
+    private class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Record> _records;
+        private final Result[] _results;
+        private final int _from;
+        private final int _to;
+
+        ParseTask(List<Record> records, Result[] results, int from, int to) {
+            _records = records;
+            _results = results;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((_to - _from) <= MIN_TASK_SIZE) {
+                for (int i = _from; i < _to; i++) {
+                    Record record = _records.get(i);
+                    try {
+                        _results[i] = process(record);
+                    } catch (RuntimeException e) {
+                        // a single broken record must not abort the run
+                        _results[i] = error(record, e);
+                    }
+                }
+                return;
+            }
+            int mid = (_from + _to) >>> 1;
+            invokeAll(new ParseTask(_records, _results, _from, mid), new ParseTask(_records, _results, mid, _to));
+        }
+    }
+
+    private final SimpleRobotRulesParser _parser;
+    private final Collection<String> _robotNames;
+    private final ForkJoinPool _pool;
+    private int _batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * @param parser
+     *            parser used for all records, must not be modified while
+     *            records are processed
+     * @param robotNames
+     *            user-agent names, see
+     *            {@link SimpleRobotRulesParser#parseContent(String, byte[], String, Collection)}
+     * @param pool
+     *            pool to run the parser on
+     */
+    public RobotsBulkProcessor(SimpleRobotRulesParser parser, Collection<String> robotNames, ForkJoinPool pool) {
+        _parser = parser;
+        _robotNames = robotNames;
+        _pool = pool;
+    }
+
+    /**
+     * @param batchSize
+     *            number of records parsed in one batch. Up to two batches are
+     *            held in memory.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        _batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return _batchSize;
+    }
+
+    /**
+     * Parse all records and write one result line per record.
+     * 
+     * @param reader
+     *            source of records
+     * @param out
+     *            output the result lines are written to
+     * @return statistics about the run
+     * @throws IOException
+     *             if reading or writing fails
+     */
+    public Stats process(RecordReader reader, Writer out) throws IOException {
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+        List<Record> batch = readBatch(reader);
+        while (!batch.isEmpty()) {
+            Result[] results = new Result[batch.size()];
+            ForkJoinTask<Void> task = _pool.submit(new ParseTask(batch, results, 0, batch.size()));
+            // read the next batch while the current one is parsed
+            List<Record> next = readBatch(reader);
+            task.join();
+            for (Result result : results) {
+                out.write(result.line);
+                out.write('\n');
+                stats._numRecords++;
+                stats._contentBytes += result.contentLength;
+                if (result.failedFetch) {
+                    stats._numFailedFetches++;
+                }
+                if (result.error) {
+                    stats._numErrors++;
+                }
+                if (result.truncated) {
+                    stats._numTruncated++;
+                }
+                if (result.numWarnings > 0) {
+                    stats._numWithWarnings++;
+                    stats._numWarnings += result.numWarnings;
+                }
+                stats._numRules += result.numRules;
+                stats._numSitemaps += result.numSitemaps;
+            }
+            batch = next;
+        }
+        out.flush();
+        stats._elapsedNanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    private List<Record> readBatch(RecordReader reader) throws IOException {
+        List<Record> batch = new ArrayList<>(_batchSize);
+        Record record;
+        while (batch.size() < _batchSize && (record = reader.next()) != null) {
+            batch.add(record);
+        }
+        return batch;
+    }
+
+    private Result process(Record record) {
+        Result result = new Result();
+        byte[] content = record.getContent();
+        SimpleRobotRules rules;
+        if (record.getStatus() >= 200 && record.getStatus() < 300) {
+            rules = _parser.parseContent(record.getUrl(), content, record.getContentType(), _robotNames);
+            // the warning count is held per thread
+            result.numWarnings = _parser.getNumWarnings();
+        } else {
+            rules = _parser.failedFetch(record.getStatus());
+            result.failedFetch = true;
+        }
+        result.contentLength = content.length;
+        int maxContentLength = _parser.getMaxContentLength();
+        result.truncated = maxContentLength > 0 && content.length > maxContentLength;
+        result.numRules = rules.getRuleCount();
+        result.numSitemaps = rules.getSitemaps().size();
+        result.line = format(record, rules, result.numWarnings);
+        return result;
+    }
+
+    private static Result error(Record record, RuntimeException e) {
+        Result result = new Result();
+        result.error = true;
+        byte[] content = record.getContent();
+        result.contentLength = (content == null) ? 0 : content.length;
+        // keep the line intact, exception messages may contain any character
+        String exception = e.toString().replaceAll("[\\t\\r\\n]+", " ");
+        result.line = record.getUrl() + '\t' + record.getStatus() + "\terror\t" + exception;
+        return result;
+    }
+
+    /**
+     * Format the result line of a record, see {@link RobotsBulkProcessor}.
+     */
+    static String format(Record record, SimpleRobotRules rules, int numWarnings) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(record.getUrl()).append('\t');
+        sb.append(record.getStatus()).append('\t');
+        if (rules.isAllowNone()) {
+            sb.append("allow_none");
+        } else if (rules.isAllowAll()) {
+            sb.append("allow_all");
+        } else {
+            sb.append("allow_some");
+        }
+        if (rules.isDeferVisits()) {
+            sb.append(",defer");
+        }
+        sb.append('\t');
+        if (rules.getCrawlDelay() == BaseRobotRules.UNSET_CRAWL_DELAY) {
+            sb.append('-');
+        } else {
+            sb.append(rules.getCrawlDelay());
+        }
+        sb.append('\t').append(numWarnings).append('\t');
+        boolean first = true;
+        for (RobotRule rule : rules.getRobotRules()) {
+            if (!first) {
+                sb.append(' ');
+            }
+            first = false;
+            sb.append(rule.isAllow() ? '+' : '-').append(rule.getPrefix());
+        }
+        sb.append('\t');
+        first = true;
+        for (String sitemap : rules.getSitemaps()) {
+            if (!first) {
+                sb.append(' ');
+            }
+            first = false;
+            sb.append(sitemap);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Read records from an archive, see {@link RobotsBulkProcessor} for the
+     * format. The input stream is not closed.
+     * 
+     * @param in
+     *            archive input stream
+     * @return reader of the records in the archive
+     */
+    public static RecordReader archiveReader(InputStream in) {
+        // header lines are read byte by byte
+        InputStream input = new BufferedInputStream(in);
+        return () -> readRecord(input);
+    }
+
+    private static Record readRecord(InputStream in) throws IOException {
+        String header = readLine(in);
+        while (header != null && header.isEmpty()) {
+            // skip the optional line feed after the content
+            header = readLine(in);
+        }
+        if (header == null) {
+            return null;
+        }
+        String[] fields = header.split("\t", -1);
+        if (fields.length != 4) {
+            throw new IOException("Invalid record header, expected 4 tab-separated fields: " + clip(header));
+        }
+        int status;
+        int length;
+        try {
+            status = Integer.parseInt(fields[1]);
+            length = Integer.parseInt(fields[3]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid record header: " + clip(header), e);
+        }
+        if (length < 0) {
+            throw new IOException("Invalid content length in record header: " + clip(header));
+        }
+        String contentType = (fields[2].isEmpty() || fields[2].equals("-")) ? null : fields[2];
+        byte[] content = in.readNBytes(length);
+        if (content.length < length) {
+            throw new EOFException("Truncated record content: " + fields[0]);
+        }
+        return new Record(fields[0], status, contentType, content);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (line.size() >= MAX_HEADER_LENGTH) {
+                throw new IOException("Record header exceeds " + MAX_HEADER_LENGTH + " bytes");
+            }
+            line.write(b);
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        String s = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        if (s.endsWith("\r")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        return s;
+    }
+
+    private static String clip(String s) {
+        return s.length() > 256 ? (s.substring(0, 256) + " ...") : s;
+    }
+
+    /**
+     * Read records from a directory tree, each regular file holds one
+     * robots.txt. The host name is taken from the file name: a suffix
+     * <code>-robots.txt</code> or <code>.txt</code> is removed, the URL is then
+     * <code>http://&lt;host&gt;/robots.txt</code>. The status is 200 and the
+     * content type <code>text/plain</code>.
+     * 
+     * <p>
+     * The directory tree is traversed lazily (see
+     * {@link Files#walk(Path, java.nio.file.FileVisitOption...)}), so that
+     * the list of files is never held in memory. The directory stream is
+     * closed when the last file has been read or if the reader is closed.
+     * </p>
+     * 
+     * @param dir
+     *            directory
+     * @return reader of the files in the directory, in the order of the
+     *         directory traversal
+     * @throws IOException
+     *             if the directory cannot be listed
+     */
+    public static RecordReader directoryReader(Path dir) throws IOException {
+        Stream<Path> stream = Files.walk(dir);
+        Iterator<Path> it = stream.filter(Files::isRegularFile).iterator();
+        return new RecordReader() {
+            private boolean closed = false;
+
+            @Override
+            public Record next() throws IOException {
+                if (closed) {
+                    return null;
+                }
+                if (!it.hasNext()) {
+                    close();
+                    return null;
+                }
+                Path file = it.next();
+                return new Record(urlFromFileName(file.getFileName().toString()), 200, "text/plain", Files.readAllBytes(file));
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+                stream.close();
+            }
+        };
+    }
+
+    static String urlFromFileName(String fileName) {
+        String host = fileName;
+        if (host.endsWith("-robots.txt")) {
+            host = host.substring(0, host.length() - "-robots.txt".length());
+        } else if (host.endsWith(".txt")) {
+            host = host.substring(0, host.length() - ".txt".length());
+        }
+        return "http://" + host + "/robots.txt";
+    }
+
+    private static void usage() {
+        System.err.println("RobotsBulkProcessor [-threads <n>] [-batch <n>] [-agent <agentname>] [-output <file>] <input>...");
+        System.err.println();
+        System.err.println("Parse stored robots.txt files in parallel");
+        System.err.println("  -threads <n>      \tnumber of parser threads (default: number of CPUs)");
+        System.err.println("  -batch <n>        \tnumber of records parsed in one batch (default: " + DEFAULT_BATCH_SIZE + ")");
+        System.err.println("  -agent <agentname>\tuser agent name to select rules for, may be repeated.");
+        System.err.println("                    \tIf not defined select rules for '*'");
+        System.err.println("  -output <file>    \twrite results to file (default: standard output)");
+        System.err.println("  <input>           \tdirectory with one robots.txt per file,");
+        System.err.println("                    \tor archive of records (gzip-compressed if *.gz):");
+        System.err.println("                    \t  <url> TAB <status> TAB <content-type> TAB <length> LF <content> LF");
+        System.err.println("Statistics and throughput are written to standard error.");
+        System.exit(1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batchSize = DEFAULT_BATCH_SIZE;
+        List<String> agentNames = new ArrayList<>();
+        String output = null;
+        List<Path> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-threads") && (i + 1) < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("-batch") && (i + 1) < args.length) {
+                    batchSize = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("-agent") && (i + 1) < args.length) {
+                    agentNames.add(args[++i].trim().toLowerCase(Locale.ROOT));
+                } else if (args[i].equals("-output") && (i + 1) < args.length) {
+                    output = args[++i];
+                } else if (args[i].startsWith("-")) {
+                    usage();
+                } else {
+                    inputs.add(Paths.get(args[i]));
+                }
+            }
+        } catch (NumberFormatException e) {
+            usage();
+        }
+        if (inputs.isEmpty() || threads < 1 || batchSize < 1) {
+            usage();
+        }
+
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        parser.setMaxContentLength(SimpleRobotRulesParser.DEFAULT_MAX_CONTENT_LENGTH);
+        Collection<String> robotNames = agentNames.isEmpty() ? Set.of() : agentNames;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        RobotsBulkProcessor processor = new RobotsBulkProcessor(parser, robotNames, pool);
+        processor.setBatchSize(batchSize);
+
+        OutputStream os = (output == null) ? System.out : Files.newOutputStream(Paths.get(output));
+        PrintStream err = System.err;
+        try (Writer out = new OutputStreamWriter(new BufferedOutputStream(os, 1 << 16), StandardCharsets.UTF_8)) {
+            for (Path input : inputs) {
+                Stats stats;
+                if (Files.isDirectory(input)) {
+                    try (RecordReader reader = directoryReader(input)) {
+                        stats = processor.process(reader, out);
+                    }
+                } else {
+                    try (InputStream in = openArchive(input)) {
+                        stats = processor.process(archiveReader(in), out);
+                    }
+                }
+                err.println(input + ": " + stats);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static InputStream openArchive(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            return new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16);
+        }
+        return in;
+    }
+}
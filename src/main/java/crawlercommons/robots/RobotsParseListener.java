@@ -0,0 +1,42 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+/**
+ * Listener notified by {@link SimpleRobotRulesParser} after every parsed
+ * robots.txt file, see
+ * {@link SimpleRobotRulesParser#setParseListener(RobotsParseListener)}. Meant
+ * to collect metrics and to find robots.txt files which are expensive to parse,
+ * without enabling debug logging.
+ * 
+ * <p>
+ * The listener is called synchronously in the thread which parses the
+ * robots.txt file, so it should return quickly. If a parser is shared between
+ * threads, the listener must be thread-safe.
+ * </p>
+ */
+@FunctionalInterface
+public interface RobotsParseListener {
+
+    /**
+     * Called after a robots.txt file has been parsed.
+     * 
+     * @param stats
+     *            statistics about the parsed robots.txt file
+     */
+    void onParse(RobotsParseStats stats);
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistics about parsing a single robots.txt file, passed to a
+ * {@link RobotsParseListener}.
+ */
+public final class RobotsParseStats {
+
+    private final String _url;
+    private final long _startNanos;
+    private long _elapsedNanos;
+
+    private int _contentLength;
+    private int _parsedLength;
+    private boolean _truncated;
+    private int _numLines;
+
+    private final String[] _directiveNames;
+    private final int[] _directiveCounts;
+
+    private int _numAgentGroups;
+    private int _numRules;
+    private int _numWarnings;
+    private boolean _htmlDetected;
+    private boolean _htmlIgnored;
+    private boolean _crawlDelayExceeded;
+    private boolean _interned;
+
+    RobotsParseStats(String url, byte[] content, String[] directiveNames) {
+        _startNanos = System.nanoTime();
+        _url = url;
+        _contentLength = (content == null) ? 0 : content.length;
+        _directiveNames = directiveNames;
+        _directiveCounts = new int[directiveNames.length];
+    }
+
+    void setParsedLength(int parsedLength, boolean truncated) {
+        _parsedLength = parsedLength;
+        _truncated = truncated;
+    }
+
+    void countLine(int directive) {
+        _numLines++;
+        _directiveCounts[directive]++;
+    }
+
+    void setHtmlDetected(boolean ignored) {
+        _htmlDetected = true;
+        _htmlIgnored = ignored;
+    }
+
+    void setCrawlDelayExceeded() {
+        _crawlDelayExceeded = true;
+    }
+
+    void setInterned() {
+        _interned = true;
+    }
+
+    void setNumWarnings(int numWarnings) {
+        _numWarnings = numWarnings;
+    }
+
+    void finish(Iterable<SimpleRobotRules> rules) {
+        _elapsedNanos = System.nanoTime() - _startNanos;
+        for (SimpleRobotRules r : rules) {
+            _numAgentGroups++;
+            _numRules += r.getRuleCount();
+        }
+    }
+
+    /** @return URL of the robots.txt file */
+    public String getUrl() {
+        return _url;
+    }
+
+    /** @return size of the robots.txt file in bytes */
+    public int getContentLength() {
+        return _contentLength;
+    }
+
+    /**
+     * @return number of bytes parsed, excluding a byte order mark and content
+     *         beyond the max. content length, see
+     *         {@link SimpleRobotRulesParser#setMaxContentLength(int)}. Zero if
+     *         the rules have been interned.
+     */
+    public int getParsedLength() {
+        return _parsedLength;
+    }
+
+    /**
+     * @return whether the robots.txt file exceeds the max. content length and
+     *         has been truncated
+     */
+    public boolean isTruncated() {
+        return _truncated;
+    }
+
+    /**
+     * @return number of lines with content, not counting empty lines and lines
+     *         holding only a comment
+     */
+    public int getNumLines() {
+        return _numLines;
+    }
+
+    /**
+     * @return number of lines per directive. Directive names are lower-case
+     *         and hyphenated (e.g. <code>user-agent</code> or
+     *         <code>crawl-delay</code>), typos of directive names are counted
+     *         for the directive, lines starting with an unknown directive are
+     *         counted as <code>unknown</code>, lines without a directive as
+     *         <code>missing</code>. Only directives found in the robots.txt
+     *         file are included.
+     */
+    public Map<String, Integer> getDirectiveCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < _directiveCounts.length; i++) {
+            if (_directiveCounts[i] > 0) {
+                counts.put(_directiveNames[i], _directiveCounts[i]);
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * @return number of agent groups the rules are selected for, see
+     *         {@link SimpleRobotRulesParser#parseContentForAgents(String, byte[], String, java.util.Collection)}
+     */
+    public int getNumAgentGroups() {
+        return _numAgentGroups;
+    }
+
+    /**
+     * @return number of allow/disallow rules kept, summed over all agent
+     *         groups
+     */
+    public int getNumRules() {
+        return _numRules;
+    }
+
+    /** @return number of warnings about problems in the robots.txt file */
+    public int getNumWarnings() {
+        return _numWarnings;
+    }
+
+    /**
+     * @return whether the robots.txt file is served as HTML or contains HTML
+     *         markup
+     */
+    public boolean isHtmlDetected() {
+        return _htmlDetected;
+    }
+
+    /**
+     * @return whether the robots.txt file is an HTML page without any
+     *         user-agent directive, which is ignored (all URLs are allowed)
+     */
+    public boolean isHtmlIgnored() {
+        return _htmlIgnored;
+    }
+
+    /**
+     * @return whether the Crawl-delay exceeds the max. value (see
+     *         {@link SimpleRobotRulesParser#setMaxCrawlDelay(long)}) for at
+     *         least one agent group, so that all URLs are disallowed
+     */
+    public boolean isCrawlDelayExceeded() {
+        return _crawlDelayExceeded;
+    }
+
+    /**
+     * @return whether the rules have not been parsed but taken from the
+     *         interned rules (for all agent groups), see
+     *         {@link SimpleRobotRulesParser#setMaxInternedRules(int)}
+     */
+    public boolean isInterned() {
+        return _interned;
+    }
+
+    /** @return time in nanoseconds spent to parse the robots.txt file */
+    public long getElapsedNanos() {
+        return _elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RobotsParseStats [url=" + _url + ", contentLength=" + _contentLength + ", parsedLength=" + _parsedLength + ", truncated=" + _truncated + ", numLines=" + _numLines
+                        + ", directives=" + getDirectiveCounts() + ", numAgentGroups=" + _numAgentGroups + ", numRules=" + _numRules + ", numWarnings=" + _numWarnings
+                        + ", htmlDetected=" + _htmlDetected + ", htmlIgnored=" + _htmlIgnored + ", crawlDelayExceeded=" + _crawlDelayExceeded + ", interned=" + _interned
+                        + ", elapsedNanos=" + _elapsedNanos + "]";
+    }
+}
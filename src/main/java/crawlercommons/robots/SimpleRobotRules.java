@@ -20,6 +20,9 @@ import java.io.Serializable;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -128,6 +131,12 @@ public class SimpleRobotRules extends BaseRobotRules {
     protected ArrayList<RobotRule> _rules;
     protected RobotRulesMode _mode;
 
+    /** Matcher compiled from the rules, see {@link #sortRules()} */
+    private transient RobotRulesMatcher _matcher;
+
+    /** Packed rules replacing {@link #_rules}, see {@link #compact()} */
+    private PackedRobotRules _packed;
+
     /** Special characters which require percent-encoding for path matching */
     protected final static boolean[] specialCharactersPathMatching = new boolean[128];
     static {
@@ -147,7 +156,13 @@ public class SimpleRobotRules extends BaseRobotRules {
     }
 
     public void clearRules() {
-        _rules.clear();
+        if (_rules == null) {
+            _rules = new ArrayList<>();
+        } else {
+            _rules.clear();
+        }
+        _matcher = null;
+        _packed = null;
     }
 
     /**
@@ -165,14 +180,88 @@ public class SimpleRobotRules extends BaseRobotRules {
             allow = true;
         }
 
+        expand();
         _rules.add(new RobotRule(prefix, allow));
+        _matcher = null;
     }
 
     /**
-     * @return the list of allow/disallow rules
+     * @return the list of allow/disallow rules. If the rules are
+     *         {@link #compact() compacted}, an unmodifiable list decoded from
+     *         the compact representation is returned, the rules stay
+     *         compacted.
      */
     public List<RobotRule> getRobotRules() {
-        return this._rules;
+        return rules();
+    }
+
+    /**
+     * @return the number of rules, without expanding them if compacted
+     */
+    int getRuleCount() {
+        // read the list first: compact() sets the packed rules before the
+        // list is set to null
+        List<RobotRule> rules = _rules;
+        if (rules == null) {
+            return _packed.size();
+        }
+        return rules.size();
+    }
+
+    /**
+     * @return the rules, without expanding them if compacted
+     */
+    List<RobotRule> rules() {
+        List<RobotRule> rules = _rules;
+        if (rules == null) {
+            return Collections.unmodifiableList(_packed.getRules());
+        }
+        return rules;
+    }
+
+    /**
+     * Convert the rules into a compact representation to reduce the memory
+     * footprint, e.g. if the rules of many hosts are cached. All patterns are
+     * held in a single string, together with an array of offsets and a bitmap
+     * of allow flags. The number of objects required to hold a rule set does
+     * not depend on the number of rules. The rules are sorted and deduplicated
+     * (see {@link #sortRules()}).
+     * 
+     * <p>
+     * Compacted rules are matched one by one, longest pattern first, until the
+     * first pattern matches. This is slower than matching the rules compiled
+     * into a trie by {@link #sortRules()}, especially if there are many rules.
+     * </p>
+     * 
+     * <p>
+     * While the rules are compacted, the field {@link #_rules} is null. The
+     * rules are expanded again only if they are modified, e.g. if rules are
+     * added. The list returned by {@link #getRobotRules()} is then
+     * unmodifiable.
+     * </p>
+     */
+    public void compact() {
+        if (_packed != null) {
+            return;
+        }
+        _packed = new PackedRobotRules(new LinkedHashSet<>(_rules));
+        _rules = null;
+        _matcher = null;
+    }
+
+    /**
+     * @return whether the rules are held in a compact representation, see
+     *         {@link #compact()}
+     */
+    public boolean isCompact() {
+        return _packed != null;
+    }
+
+    private void expand() {
+        if (_packed != null) {
+            _rules = new ArrayList<>(_packed.getRules());
+            _packed = null;
+        }
     }
 
     /**
@@ -200,7 +289,80 @@ public class SimpleRobotRules extends BaseRobotRules {
         } else if (_mode == RobotRulesMode.ALLOW_ALL) {
             return true;
         }
-        return isAllowedPath(getPath(url, true));
+        long pathSpan = PathNormalizer.findPathAndQuery(url);
+        if (pathSpan == -1) {
+            // not a simple HTTP(S) URL, needs to be parsed
+            return isAllowedPath(getPath(url, true));
+        }
+        return isAllowedPath(PathNormalizer.normalize(url, (int) (pathSpan >>> 32), (int) pathSpan));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * The path normalization buffers are shared by all URLs of the batch. If
+     * consecutive URLs share the same normalized path and query (e.g. they
+     * differ only in the fragment or the letter case of the host name), the
+     * rules are matched only once.
+     * </p>
+     */
+    @Override
+    public void isAllowed(String[] urls, boolean[] allowed) {
+        if (allowed.length < urls.length) {
+            throw new IllegalArgumentException("Output array shorter than array of URLs");
+        }
+        if (_mode != RobotRulesMode.ALLOW_SOME) {
+            Arrays.fill(allowed, 0, urls.length, _mode == RobotRulesMode.ALLOW_ALL);
+            return;
+        }
+        StringBuilder previousPath = new StringBuilder();
+        boolean previousAllowed = false;
+        for (int i = 0; i < urls.length; i++) {
+            String url = urls[i];
+            long pathSpan = PathNormalizer.findPathAndQuery(url);
+            CharSequence path;
+            if (pathSpan == -1) {
+                path = getPath(url, true);
+            } else {
+                path = PathNormalizer.normalize(url, (int) (pathSpan >>> 32), (int) pathSpan);
+            }
+            if (i == 0 || CharSequence.compare(previousPath, path) != 0) {
+                previousAllowed = isAllowedPath(path);
+                previousPath.setLength(0);
+                previousPath.append(path);
+            }
+            allowed[i] = previousAllowed;
+        }
+    }
+
+    /**
+     * Check whether a URL is allowed to be fetched according to the robots
+     * rules, given the position of the path within the URL. This method is
+     * meant for callers which have already split the URL into its components:
+     * the URL isn't parsed again and no intermediate objects are created.
+     * 
+     * @see #isAllowed(String)
+     * 
+     * @param url
+     *            URL (or any other character sequence) containing the path
+     * @param pathStart
+     *            offset of the path in the URL, e.g. the position of the first
+     *            slash after the host name. If the URL has no path, the
+     *            offset of the query (<code>?</code>) or of the end of the URL
+     * @param pathEnd
+     *            end offset of the path resp. the query if present (the
+     *            position of the fragment separator <code>#</code> or the end
+     *            of the URL)
+     * @return true if the URL is allowed
+     */
+    public boolean isAllowed(CharSequence url, int pathStart, int pathEnd) {
+        if (_mode == RobotRulesMode.ALLOW_NONE) {
+            return false;
+        } else if (_mode == RobotRulesMode.ALLOW_ALL) {
+            return true;
+        }
+        return isAllowedPath(PathNormalizer.normalize(url, pathStart, pathEnd));
     }
 
     /**
@@ -223,56 +385,32 @@ public class SimpleRobotRules extends BaseRobotRules {
         return isAllowedPath(getPath(url, true));
     }
 
-    private boolean isAllowedPath(String pathWithQuery) {
+    private boolean isAllowedPath(CharSequence pathWithQuery) {
         // Always allow robots.txt
-        if (pathWithQuery.equals("/robots.txt")) {
+        if ("/robots.txt".contentEquals(pathWithQuery)) {
             return true;
         }
 
-        boolean isAllowed = true;
-        int longestRuleMatch = Integer.MIN_VALUE;
-        for (RobotRule rule : _rules) {
-            int matchLength = ruleMatches(pathWithQuery, rule._prefix);
-            if (matchLength == -1) {
-                /*
-                 * See precedence-of-rules test case for an example
-                 * 
-                 * Some webmasters expect behavior close to Google's, and this
-                 * block is equivalent to:
-                 * https://github.com/google/robotstxt/blob/
-                 * 02bc6cdfa32db50d42563180c42aeb47042b4f0c/robots.cc#L605-L618
-                 * 
-                 * There are example robots.txt in the wild that benefit from
-                 * this. As of 2/7/2022, https://venmo.com/robots.txt for
-                 * instance.
-                 * 
-                 * RFC 9309
-                 * (https://www.rfc-editor.org/rfc/rfc9309.html#name-the-allow-
-                 * and-disallow-line) requires that "The most specific match
-                 * found MUST be used. The most specific match is the match that
-                 * has the most octets."
-                 */
-                if (rule._prefix.endsWith("index.htm") || rule._prefix.endsWith("index.html")) {
-                    matchLength = ruleMatches(pathWithQuery, rule._prefix.substring(0, rule._prefix.indexOf("index.htm")) + "$");
-                    if (matchLength == -1) {
-                        continue;
-                    }
-                } else {
-                    continue;
-                }
-            }
-
-            if (longestRuleMatch < matchLength) {
-                longestRuleMatch = matchLength;
-                isAllowed = rule.isAllow();
-            } else if (longestRuleMatch == matchLength) {
-                isAllowed |= rule.isAllow();
-            }
-            // else we've already got a more specific rule, and this match
-            // doesn't matter
+        PackedRobotRules packed = _packed;
+        if (packed != null) {
+            return packed.isAllowed(pathWithQuery);
         }
+        return getMatcher().isAllowed(pathWithQuery);
+    }
 
-        return isAllowed;
+    /**
+     * @return the matcher compiled from the current rules, compiled on demand
+     *         if {@link #sortRules()} hasn't been called after the rules were
+     *         modified
+     */
+    private RobotRulesMatcher getMatcher() {
+        RobotRulesMatcher matcher = _matcher;
+        if (matcher == null) {
+            // the matcher is immutable, a concurrent compilation is harmless
+            matcher = new RobotRulesMatcher(_rules);
+            _matcher = matcher;
+        }
+        return matcher;
     }
 
     /**
@@ -293,7 +431,7 @@ public class SimpleRobotRules extends BaseRobotRules {
         return BasicURLNormalizer.escapePath(BasicURLNormalizer.unescapePath(urlPathQuery), additionalEncodedBytes);
     }
 
-    private String getPath(String url, boolean getWithQuery) {
+    static String getPath(String url, boolean getWithQuery) {
         try {
             URL urlObj = new URI(url).toURL();
 
@@ -305,7 +443,7 @@ public class SimpleRobotRules extends BaseRobotRules {
         }
     }
 
-    private String getPath(URL url, boolean getWithQuery) {
+    static String getPath(URL url, boolean getWithQuery) {
         String path = url.getPath();
         if ((path == null) || (path.equals(""))) {
             path = "/";
@@ -329,93 +467,6 @@ public class SimpleRobotRules extends BaseRobotRules {
         return escapePath(path, specialCharactersPathMatching);
     }
 
-    private int ruleMatches(String text, String pattern) {
-        int patternPos = 0;
-        int textPos = 0;
-
-        int patternEnd = pattern.length();
-        int textEnd = text.length();
-
-        boolean containsEndChar = pattern.endsWith("$");
-        if (containsEndChar) {
-            patternEnd -= 1;
-        }
-
-        while ((patternPos < patternEnd) && (textPos < textEnd)) {
-            // Find next wildcard in the pattern.
-            int wildcardPos = pattern.indexOf('*', patternPos);
-            if (wildcardPos == -1) {
-                wildcardPos = patternEnd;
-            }
-
-            // If we're at a wildcard in the pattern, find the place in the text
-            // where the character(s) after the wildcard match up with what's in
-            // the text.
-            if (wildcardPos == patternPos) {
-                patternPos += 1;
-                if (patternPos >= patternEnd) {
-                    // Pattern ends with '*', we're all good.
-                    return pattern.length();
-                }
-
-                // TODO - don't worry about having two '*' in a row?
-
-                // Find the end of the pattern piece we need to match.
-                int patternPieceEnd = pattern.indexOf('*', patternPos);
-                if (patternPieceEnd == -1) {
-                    patternPieceEnd = patternEnd;
-                }
-
-                boolean matched = false;
-                int patternPieceLen = patternPieceEnd - patternPos;
-                while ((textPos + patternPieceLen <= textEnd) && !matched) {
-                    // See if patternPieceLen chars from text at textPos match
-                    // chars from pattern at patternPos
-                    matched = true;
-                    for (int i = 0; i < patternPieceLen && matched; i++) {
-                        if (text.charAt(textPos + i) != pattern.charAt(patternPos + i)) {
-                            matched = false;
-                        }
-                    }
-
-                    // If we matched, we're all set, otherwise we have to
-                    // advance textPos
-                    if (!matched) {
-                        textPos += 1;
-                    }
-                }
-
-                // If we matched, we're all set, otherwise we failed
-                if (!matched) {
-                    return -1;
-                }
-            } else {
-                // See if the pattern from patternPos to wildcardPos matches the
-                // text starting at textPos
-                while ((patternPos < wildcardPos) && (textPos < textEnd)) {
-                    if (text.charAt(textPos++) != pattern.charAt(patternPos++)) {
-                        return -1;
-                    }
-                }
-            }
-        }
-
-        // If we didn't reach the end of the pattern, make sure we're not at a
-        // wildcard, that's a 0 or more match, so then we're still OK.
-        while ((patternPos < patternEnd) && (pattern.charAt(patternPos) == '*')) {
-            patternPos += 1;
-        }
-
-        // We're at the end, so we have a match if the pattern was completely
-        // consumed, and either we consumed all the text or we didn't have to
-        // match it all (no '$' at end of the pattern)
-        if ((patternPos == patternEnd) && ((textPos == textEnd) || !containsEndChar)) {
-            return pattern.length();
-        } else {
-            return -1;
-        }
-    }
-
     /**
      * Sort and deduplicate robot rules. This method must be called after the
      * robots.txt has been processed and before rule matching.
@@ -428,11 +479,65 @@ public class SimpleRobotRules extends BaseRobotRules {
      * <blockquote>The most specific match found MUST be used. The most specific
      * match is the match that has the most octets. Duplicate rules in a group
      * MAY be deduplicated.</blockquote>
+     * 
+     * <p>
+     * After sorting, the rules are compiled into an immutable matcher which
+     * indexes the rules in a trie by their literal prefix, so that the cost of
+     * {@link #isAllowed(String)} depends on the length of the URL path but not
+     * on the number of rules. Rules ending in <code>index.htm</code> or
+     * <code>index.html</code> are expanded into an additional rule matching
+     * the directory path (Google-compatible), so that no rules need to be
+     * derived while matching. The derived rules are not added to the list
+     * returned by {@link #getRobotRules()}. If rules are added or removed via
+     * this list, this method must be called again.
+     * </p>
      */
     public void sortRules() {
+        if (_packed != null) {
+            // compacted rules are sorted
+            return;
+        }
         if (_rules.size() > 1) {
             _rules = new ArrayList<>(_rules.stream().sorted().distinct().collect(Collectors.toList()));
         }
+        _matcher = new RobotRulesMatcher(_rules);
+    }
+
+    /**
+     * Sort the rules (see {@link #sortRules()}) and remove rules which never
+     * affect the result of rule matching: disallow rules which never win over
+     * an allow rule, and rules shadowed by a broader rule with the same
+     * verdict. If no disallow rule remains, the rule set is collapsed into the
+     * mode {@link RobotRulesMode#ALLOW_ALL}, so that URLs are not normalized
+     * and matched at all.
+     *
+     * <p>
+     * The result of {@link #isAllowed(String)} is not changed for any URL.
+     * However, the list of rules returned by {@link #getRobotRules()} and the
+     * result of {@link #isAllowAll()} and {@link #equals(Object)} may differ
+     * from the rules before optimization.
+     * </p>
+     */
+    public void optimize() {
+        if (_mode != RobotRulesMode.ALLOW_SOME) {
+            return;
+        }
+        boolean compacted = (_packed != null);
+        expand();
+        sortRules();
+        List<RobotRule> rules = RobotRulesOptimizer.optimize(_rules);
+        if (rules.stream().noneMatch(r -> !r._allow)) {
+            _mode = RobotRulesMode.ALLOW_ALL;
+            clearRules();
+            return;
+        }
+        if (rules.size() < _rules.size()) {
+            _rules = new ArrayList<>(rules);
+            _matcher = new RobotRulesMatcher(_rules);
+        }
+        if (compacted) {
+            compact();
+        }
     }
 
     /**
@@ -470,7 +575,7 @@ public class SimpleRobotRules extends BaseRobotRules {
         final int prime = 31;
         int result = super.hashCode();
         result = prime * result + ((_mode == null) ? 0 : _mode.hashCode());
-        result = prime * result + ((_rules == null) ? 0 : _rules.hashCode());
+        result = prime * result + rules().hashCode();
         return result;
     }
 
@@ -485,12 +590,7 @@ public class SimpleRobotRules extends BaseRobotRules {
         SimpleRobotRules other = (SimpleRobotRules) obj;
         if (_mode != other._mode)
             return false;
-        if (_rules == null) {
-            if (other._rules != null)
-                return false;
-        } else if (!_rules.equals(other._rules))
-            return false;
-        return true;
+        return rules().equals(other.rules());
     }
 
     /*
@@ -503,7 +603,8 @@ public class SimpleRobotRules extends BaseRobotRules {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(super.toString());
-        int nRules = _rules.size();
+        List<RobotRule> rules = rules();
+        int nRules = rules.size();
         if (nRules == 0) {
             sb.append(" - no rules");
             if (isAllowNone()) {
@@ -516,7 +617,7 @@ public class SimpleRobotRules extends BaseRobotRules {
             sb.append(" - number of rules: ").append(nRules).append('\n');
             int numOfRulesToShow = Math.min(nRules, 10);
             for (int i = 0; i < numOfRulesToShow; i++) {
-                RobotRule r = _rules.get(i);
+                RobotRule r = rules.get(i);
                 sb.append(r._allow ? "   A" : "   Disa").append("llow: ").append(r._prefix).append('\n');
             }
         }
@@ -17,6 +17,7 @@
 package crawlercommons.robots;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
@@ -24,16 +25,19 @@ import java.net.URL;
 import java.net.URI;
 import java.net.URLConnection;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.StringTokenizer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -234,6 +238,13 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
          */
         private int _numWarnings;
 
+        /*
+         * Whether warnings are logged, or only counted. If multiple agent
+         * groups are parsed at once, warnings are logged only for the first
+         * group to avoid repeated log messages.
+         */
+        private boolean _logWarnings = true;
+
         private String _url;
         private Collection<String> _targetNames;
 
@@ -371,24 +382,6 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
 
     }
 
-    private static class RobotToken {
-        private RobotDirective _directive;
-        private String _data;
-
-        public RobotToken(RobotDirective directive, String data) {
-            _directive = directive;
-            _data = data;
-        }
-
-        public RobotDirective getDirective() {
-            return _directive;
-        }
-
-        public String getData() {
-            return _data;
-        }
-    }
-
     private static Map<String, RobotDirective> DIRECTIVE_PREFIX = new HashMap<String, RobotDirective>();
 
     static {
@@ -429,61 +422,53 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
         DIRECTIVE_PREFIX.put("https", RobotDirective.HTTP);
     }
 
-    // separator is either one or more spaces/tabs, or a colon
-    private static final Pattern COLON_DIRECTIVE_DELIMITER = Pattern.compile("[ \t]*:[ \t]*(.*)");
-    private static final Pattern BLANK_DIRECTIVE_DELIMITER = Pattern.compile("[ \t]+(.*)");
-
-    // match the rest of the directive, up until whitespace or colon
-    private static final Pattern DIRECTIVE_SUFFIX_PATTERN = Pattern.compile("[^: \t]+(.*)");
+    /**
+     * Directive name or typo variant as lower-case bytes, used to recognize
+     * directives without decoding the line.
+     */
+    private static class DirectivePrefix {
+        final byte[] _prefix;
+        final RobotDirective _directive;
 
-    // split pattern for robot names
-    private static final Pattern ROBOT_NAMES_SPLIT = Pattern.compile("\\s*,\\s*|\\s+");
+        DirectivePrefix(String prefix, RobotDirective directive) {
+            _prefix = prefix.getBytes(StandardCharsets.US_ASCII);
+            _directive = directive;
+        }
+    }
 
     /**
-     * Figure out directive on line of text from robots.txt file. We assume the
-     * line has been lower-cased
-     * 
-     * @param line
-     * @return robot command found on line
+     * Directive prefixes from {@link #DIRECTIVE_PREFIX}, indexed by their first
+     * byte. No prefix is a prefix of another one followed by a directive
+     * delimiter, so at most one prefix matches a line and the order of the
+     * prefixes does not matter.
      */
-    private static RobotToken tokenize(String line) {
-        String lowerLine = line.toLowerCase(Locale.ROOT);
-        for (String prefix : DIRECTIVE_PREFIX.keySet()) {
-            int prefixLength = prefix.length();
-            if (lowerLine.startsWith(prefix)) {
-                RobotDirective directive = DIRECTIVE_PREFIX.get(prefix);
-                String dataPortion = line.substring(prefixLength);
-
-                if (directive.isPrefix()) {
-                    Matcher m = DIRECTIVE_SUFFIX_PATTERN.matcher(dataPortion);
-                    if (m.matches()) {
-                        dataPortion = m.group(1);
-                    } else {
-                        continue;
-                    }
-                }
-
-                Matcher m = COLON_DIRECTIVE_DELIMITER.matcher(dataPortion);
-                if (!m.matches()) {
-                    m = BLANK_DIRECTIVE_DELIMITER.matcher(dataPortion);
-                }
+    private static final DirectivePrefix[][] DIRECTIVE_PREFIX_BY_FIRST_BYTE = new DirectivePrefix[128][];
 
-                if (m.matches()) {
-                    return new RobotToken(directive, m.group(1).trim());
-                }
-            }
+    static {
+        Map<Integer, List<DirectivePrefix>> byFirstByte = new HashMap<>();
+        for (Map.Entry<String, RobotDirective> e : DIRECTIVE_PREFIX.entrySet()) {
+            byFirstByte.computeIfAbsent((int) e.getKey().charAt(0), k -> new ArrayList<>()).add(new DirectivePrefix(e.getKey(), e.getValue()));
         }
+        for (Map.Entry<Integer, List<DirectivePrefix>> e : byFirstByte.entrySet()) {
+            DIRECTIVE_PREFIX_BY_FIRST_BYTE[e.getKey()] = e.getValue().toArray(new DirectivePrefix[0]);
+        }
+    }
 
-        Matcher m = COLON_DIRECTIVE_DELIMITER.matcher(lowerLine);
-        if (m.matches()) {
-            return new RobotToken(RobotDirective.UNKNOWN, line);
-        } else {
-            return new RobotToken(RobotDirective.MISSING, line);
+    /** Names of the directives for reporting, indexed by ordinal */
+    private static final String[] DIRECTIVE_NAMES = new String[RobotDirective.values().length];
+
+    static {
+        for (RobotDirective directive : RobotDirective.values()) {
+            DIRECTIVE_NAMES[directive.ordinal()] = directive.name().toLowerCase(Locale.ROOT).replace('_', '-');
         }
     }
 
-    private static final Pattern SIMPLE_HTML_PATTERN = Pattern.compile("(?is)<(html|head|body)\\s*>");
-    private static final Pattern USER_AGENT_PATTERN = Pattern.compile("(?i)user-agent:");
+    private static final byte[] USER_AGENT_BYTES = "user-agent:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] HTML_TAG_NAMES = { "html".getBytes(StandardCharsets.US_ASCII), "head".getBytes(StandardCharsets.US_ASCII),
+                    "body".getBytes(StandardCharsets.US_ASCII) };
+
+    // split pattern for robot names
+    private static final Pattern ROBOT_NAMES_SPLIT = Pattern.compile("\\s*,\\s*|\\s+");
 
     /**
      * Pattern to match a valid user-agent product tokens as defined in
@@ -504,12 +489,24 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      */
     public static final long DEFAULT_MAX_CRAWL_DELAY = 300000;
 
+    /**
+     * Min. number of bytes of a robots.txt file which must be parsed if the
+     * content is limited (500 KiB), see {@link #setMaxContentLength(int)}
+     */
+    public static final int DEFAULT_MAX_CONTENT_LENGTH = 500 * 1024;
+
     // number of warnings found in the latest processed robots.txt file
     private ThreadLocal<Integer> _numWarningsDuringLastParse = new ThreadLocal<>();
 
     private int _maxWarnings;
     private long _maxCrawlDelay;
     private boolean _exactUserAgentMatching;
+    private int _maxInternedRules = 0;
+    private int _maxContentLength = 0;
+    private transient volatile RobotRulesInterner _interner;
+    private transient RobotsParseListener _parseListener;
+    private boolean _freezeRules = false;
+    private boolean _optimizeRules = false;
 
     public SimpleRobotRulesParser() {
         this(DEFAULT_MAX_CRAWL_DELAY, DEFAULT_MAX_WARNINGS);
@@ -579,6 +576,9 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
             result.setDeferVisits(true);
         }
 
+        if (_freezeRules) {
+            return new FrozenRobotRules(result);
+        }
         return result;
     }
 
@@ -686,6 +686,11 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      */
     @Override
     public SimpleRobotRules parseContent(String url, byte[] content, String contentType, Collection<String> robotNames) {
+        checkRobotNames(robotNames);
+        return parseContent(url, content, contentType, robotNames, isExactUserAgentMatching());
+    }
+
+    private void checkRobotNames(Collection<String> robotNames) {
         if (isExactUserAgentMatching()) {
             for (String robotName : robotNames) {
                 if (!isValidUserAgentToObey(robotName)) {
@@ -699,14 +704,302 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
                 }
             }
         }
-        return parseContent(url, content, contentType, robotNames, isExactUserAgentMatching());
+    }
+
+    /**
+     * Parse the robots.txt file in <i>content</i> once and return the rules
+     * for multiple crawlers, e.g. if a crawler operates under several
+     * identities. The result is the same as if
+     * {@link #parseContent(String, byte[], String, Collection)} is called for
+     * every group of agent names, but the robots.txt file is split into lines
+     * and directives only once.
+     * 
+     * <p>
+     * Warnings about problems in the robots.txt file are logged only once,
+     * when processing the first group of agent names. {@link #getNumWarnings()}
+     * returns the max. number of warnings counted for any of the agent groups.
+     * </p>
+     * 
+     * @param url
+     *            URL of the robots.txt file
+     * @param content
+     *            raw bytes from the site's robots.txt file
+     * @param contentType
+     *            HTTP response header (mime-type)
+     * @param agentGroups
+     *            groups of crawler (user-agent) names, every group is used to
+     *            select rules as the parameter {@code robotNames} of
+     *            {@link #parseContent(String, byte[], String, Collection)}
+     * @return map of robot rules per agent group, in the iteration order of
+     *         the agent groups
+     * @throws IllegalArgumentException
+     *             if any agent group contains the wildcard user-agent or a
+     *             user-agent token not in lower-case and exact user-agent
+     *             matching is configured
+     *             ({@link #setExactUserAgentMatching(boolean)})
+     */
+    public Map<Collection<String>, SimpleRobotRules> parseContentForAgents(String url, byte[] content, String contentType, Collection<? extends Collection<String>> agentGroups) {
+        RobotsParseListener listener = _parseListener;
+        RobotsParseStats stats = (listener == null) ? null : new RobotsParseStats(url, content, DIRECTIVE_NAMES);
+        Map<Collection<String>, SimpleRobotRules> results = parseContentForAgents(url, content, contentType, agentGroups, stats);
+        if (_freezeRules) {
+            results.replaceAll((robotNames, rules) -> FrozenRobotRules.freeze(rules));
+        }
+        if (stats != null) {
+            stats.finish(results.values());
+            listener.onParse(stats);
+        }
+        return results;
+    }
+
+    private Map<Collection<String>, SimpleRobotRules> parseContentForAgents(String url, byte[] content, String contentType, Collection<? extends Collection<String>> agentGroups,
+                    RobotsParseStats stats) {
+        Map<Collection<String>, SimpleRobotRules> results = new LinkedHashMap<>();
+        List<Collection<String>> groupsToParse = new ArrayList<>();
+        for (Collection<String> robotNames : agentGroups) {
+            checkRobotNames(robotNames);
+            results.put(robotNames, null);
+        }
+
+        RobotRulesInterner interner = getInterner();
+        boolean useInterner = interner != null && content != null && content.length > 0;
+        boolean isHtmlType = ((contentType != null) && contentType.toLowerCase(Locale.ROOT).startsWith("text/html"));
+        boolean[] flags = { isHtmlType, isExactUserAgentMatching(), _optimizeRules };
+        int numInternedWarnings = 0;
+        for (Collection<String> robotNames : results.keySet()) {
+            if (useInterner) {
+                RobotRulesInterner.Entry entry = interner.get(RobotRulesInterner.key(content, robotNames, flags), content, robotNames, flags);
+                if (entry != null) {
+                    results.put(robotNames, entry.rules);
+                    numInternedWarnings = Math.max(numInternedWarnings, entry.numWarnings);
+                    continue;
+                }
+            }
+            groupsToParse.add(robotNames);
+        }
+        if (groupsToParse.isEmpty()) {
+            this._numWarningsDuringLastParse.set(numInternedWarnings);
+            if (stats != null) {
+                stats.setInterned();
+                stats.setNumWarnings(numInternedWarnings);
+            }
+            return results;
+        }
+
+        int[] numWarnings = new int[groupsToParse.size()];
+        SimpleRobotRules[] parsed = parseContentNotInterned(url, content, contentType, groupsToParse, numWarnings, stats, false);
+        for (int i = 0; i < parsed.length; i++) {
+            Collection<String> robotNames = groupsToParse.get(i);
+            SimpleRobotRules rules = parsed[i];
+            if (useInterner && rules.getSitemaps().isEmpty()) {
+                FrozenRobotRules frozenRules = new FrozenRobotRules(rules);
+                interner.put(RobotRulesInterner.key(content, robotNames, flags), content, robotNames, flags, frozenRules, numWarnings[i]);
+                rules = frozenRules;
+            }
+            results.put(robotNames, rules);
+        }
+        int maxNumWarnings = Math.max(numInternedWarnings, getNumWarnings());
+        this._numWarningsDuringLastParse.set(maxNumWarnings);
+        if (stats != null) {
+            stats.setNumWarnings(maxNumWarnings);
+        }
+        return results;
+    }
+
+    /**
+     * Parse the robots.txt file read from an input stream, see
+     * {@link #parseContent(String, byte[], String, Collection)}. If the content
+     * length is limited, see {@link #setMaxContentLength(int)}, only the first
+     * {@link #getMaxContentLength()} bytes (plus a byte order mark) are read
+     * from the stream, and the stream is not read to its end. The stream is
+     * not closed.
+     * 
+     * @param url
+     *            URL of the robots.txt file
+     * @param content
+     *            stream to read the robots.txt content from
+     * @param contentType
+     *            HTTP response header (mime-type)
+     * @param robotNames
+     *            crawler (user-agent) name(s), see
+     *            {@link #parseContent(String, byte[], String, Collection)}
+     * @return robot rules
+     * @throws IOException
+     *             if reading from the stream fails
+     */
+    public SimpleRobotRules parseContent(String url, InputStream content, String contentType, Collection<String> robotNames) throws IOException {
+        byte[] bytes = content.readNBytes(getMaxBytesToRead());
+        return parseContent(url, bytes, contentType, robotNames);
+    }
+
+    /**
+     * Parse the robots.txt file held in a byte buffer, see
+     * {@link #parseContent(String, byte[], String, Collection)}. The content
+     * between the buffer's position and limit is parsed, at maximum
+     * {@link #getMaxContentLength()} bytes (plus a byte order mark) if the
+     * content length is limited. The position of the buffer is not changed.
+     * 
+     * @param url
+     *            URL of the robots.txt file
+     * @param content
+     *            buffer holding the robots.txt content
+     * @param contentType
+     *            HTTP response header (mime-type)
+     * @param robotNames
+     *            crawler (user-agent) name(s), see
+     *            {@link #parseContent(String, byte[], String, Collection)}
+     * @return robot rules
+     */
+    public SimpleRobotRules parseContent(String url, ByteBuffer content, String contentType, Collection<String> robotNames) {
+        byte[] bytes;
+        int length = Math.min(content.remaining(), getMaxBytesToRead());
+        if (content.hasArray() && content.position() == 0 && content.arrayOffset() == 0 && content.array().length == length) {
+            bytes = content.array();
+        } else {
+            bytes = new byte[length];
+            content.duplicate().get(bytes);
+        }
+        return parseContent(url, bytes, contentType, robotNames);
+    }
+
+    /**
+     * Extract the sitemap URLs from a robots.txt file, without selecting and
+     * parsing the rules for any user-agent. Only lines with a sitemap
+     * directive are processed, all other lines are skipped right after
+     * recognizing the directive name. The result is the same as
+     * {@link BaseRobotRules#getSitemaps()} of the rules returned by
+     * {@link #parseContent(String, byte[], String, Collection)}, but
+     * extracting the sitemaps is considerably cheaper, e.g. for sitemap
+     * discovery.
+     * 
+     * <p>
+     * Interning (see {@link #setMaxInternedRules(int)}) and the parse listener
+     * (see {@link #setParseListener(RobotsParseListener)}) do not apply. The
+     * number of warnings (see {@link #getNumWarnings()}) includes only
+     * warnings about invalid sitemap URLs.
+     * </p>
+     * 
+     * @param url
+     *            URL of the robots.txt file, relative sitemap URLs are resolved
+     *            against it
+     * @param content
+     *            raw bytes from the site's robots.txt file
+     * @param contentType
+     *            HTTP response header (mime-type)
+     * @return the sitemap URLs in the order of the robots.txt file, without
+     *         duplicates
+     */
+    public List<String> extractSitemaps(String url, byte[] content, String contentType) {
+        return parseContentNotInterned(url, content, contentType, List.of(Set.of()), null, null, true)[0].getSitemaps();
+    }
+
+    /**
+     * @return number of bytes required to parse a robots.txt file truncated at
+     *         the max. content length: a byte order mark (up to 3 bytes) is not
+     *         counted, and a line separator (up to 3 bytes) just at the limit
+     *         must be seen to decide whether the last line is complete
+     */
+    private int getMaxBytesToRead() {
+        return (int) Math.min(Integer.MAX_VALUE - 8, (long) getContentLimit() + 6);
+    }
+
+    /**
+     * @return the max. content length, or {@link Integer#MAX_VALUE} if the
+     *         content length is not limited
+     */
+    private int getContentLimit() {
+        return (_maxContentLength > 0) ? _maxContentLength : Integer.MAX_VALUE;
     }
 
     private SimpleRobotRules parseContent(String url, byte[] content, String contentType, Collection<String> robotNames, boolean exactUserAgentMatching) {
+        RobotsParseListener listener = _parseListener;
+        RobotsParseStats stats = (listener == null) ? null : new RobotsParseStats(url, content, DIRECTIVE_NAMES);
+        SimpleRobotRules rules = parseContent(url, content, contentType, robotNames, exactUserAgentMatching, stats);
+        if (_freezeRules) {
+            rules = FrozenRobotRules.freeze(rules);
+        }
+        if (stats != null) {
+            stats.finish(List.of(rules));
+            listener.onParse(stats);
+        }
+        return rules;
+    }
+
+    private SimpleRobotRules parseContent(String url, byte[] content, String contentType, Collection<String> robotNames, boolean exactUserAgentMatching, RobotsParseStats stats) {
+        RobotRulesInterner interner = getInterner();
+        if (interner == null || content == null || content.length == 0) {
+            return parseContentNotInterned(url, content, contentType, robotNames, stats);
+        }
+
+        boolean isHtmlType = ((contentType != null) && contentType.toLowerCase(Locale.ROOT).startsWith("text/html"));
+        boolean[] flags = { isHtmlType, exactUserAgentMatching, _optimizeRules };
+        long key = RobotRulesInterner.key(content, robotNames, flags);
+        RobotRulesInterner.Entry entry = interner.get(key, content, robotNames, flags);
+        if (entry != null) {
+            this._numWarningsDuringLastParse.set(entry.numWarnings);
+            if (stats != null) {
+                stats.setInterned();
+                stats.setNumWarnings(entry.numWarnings);
+            }
+            return entry.rules;
+        }
+
+        SimpleRobotRules rules = parseContentNotInterned(url, content, contentType, robotNames, stats);
+        if (!rules.getSitemaps().isEmpty()) {
+            // sitemaps are specific to a host, also because relative sitemap
+            // URLs are resolved against the robots.txt URL
+            return rules;
+        }
+        FrozenRobotRules frozenRules = new FrozenRobotRules(rules);
+        interner.put(key, content, robotNames, flags, frozenRules, getNumWarnings());
+        return frozenRules;
+    }
+
+    private RobotRulesInterner getInterner() {
+        RobotRulesInterner interner = _interner;
+        if (interner == null && _maxInternedRules > 0) {
+            // not yet created after deserialization
+            synchronized (this) {
+                interner = _interner;
+                if (interner == null) {
+                    interner = new RobotRulesInterner(_maxInternedRules);
+                    _interner = interner;
+                }
+            }
+        }
+        return interner;
+    }
+
+    private SimpleRobotRules parseContentNotInterned(String url, byte[] content, String contentType, Collection<String> robotNames, RobotsParseStats stats) {
+        return parseContentNotInterned(url, content, contentType, List.of(robotNames), null, stats, false)[0];
+    }
+
+    /**
+     * Parse the robots.txt content once and select the rules for multiple
+     * groups of agent names at the same time. Every line is split, stripped
+     * and matched against the directive names only once, one parse state per
+     * agent group tracks the group membership.
+     * 
+     * @param numWarnings
+     *            if not null, receives the number of warnings per agent group
+     * @param stats
+     *            if not null, receives parse statistics
+     * @param sitemapsOnly
+     *            if true, only process sitemap directives, see
+     *            {@link #extractSitemaps(String, byte[], String)}
+     * @return robot rules for every agent group, in the order of the groups
+     */
+    private SimpleRobotRules[] parseContentNotInterned(String url, byte[] content, String contentType, List<Collection<String>> agentGroups, int[] numWarnings,
+                    RobotsParseStats stats, boolean sitemapsOnly) {
+        SimpleRobotRules[] results = new SimpleRobotRules[agentGroups.size()];
 
         // If there's nothing there, treat it like we have no restrictions.
         if ((content == null) || (content.length == 0)) {
-            return new SimpleRobotRules(RobotRulesMode.ALLOW_ALL);
+            this._numWarningsDuringLastParse.set(0);
+            for (int i = 0; i < results.length; i++) {
+                results[i] = new SimpleRobotRules(RobotRulesMode.ALLOW_ALL);
+            }
+            return results;
         }
 
         int bytesLen = content.length;
@@ -742,8 +1035,42 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
             encoding = StandardCharsets.UTF_16BE;
         }
 
-        String contentAsStr;
-        contentAsStr = new String(content, offset, bytesLen, encoding);
+        /*
+         * RFC 9309 requires to parse at least 500 KiB, see <a href=
+         * "https://www.rfc-editor.org/rfc/rfc9309.html#name-limits"> RFC 9309,
+         * section 2.5 Limits</a>. If the content is truncated, the last line
+         * is skipped unless it is complete: a truncated rule might block or
+         * allow more than intended.
+         */
+        boolean truncated = false;
+        int maxContentLength = getContentLimit();
+        if (stats != null) {
+            stats.setParsedLength(Math.min(bytesLen, maxContentLength), bytesLen > maxContentLength);
+        }
+        if (bytesLen > maxContentLength) {
+            LOGGER.debug("Parsing only the first {} of {} bytes of robots.txt file: {}", maxContentLength, bytesLen, url);
+            if (encoding == StandardCharsets.UTF_8) {
+                truncated = !isLineSeparator(content, offset + maxContentLength, offset + bytesLen);
+                bytesLen = maxContentLength;
+            } else {
+                truncated = true;
+                // do not split UTF-16 code units
+                bytesLen = maxContentLength & ~1;
+            }
+        }
+
+        byte[] bytes = content;
+        int end = offset + bytesLen;
+        if (encoding != StandardCharsets.UTF_8) {
+            // convert to UTF-8, so that only one parser implementation is
+            // required
+            bytes = new String(content, offset, bytesLen, encoding).getBytes(StandardCharsets.UTF_8);
+            offset = 0;
+            end = bytes.length;
+        }
+        if (truncated) {
+            end = findLastLineSeparator(bytes, offset, end);
+        }
 
         // Decide if we need to do special HTML processing.
         boolean isHtmlType = ((contentType != null) && contentType.toLowerCase(Locale.ROOT).startsWith("text/html"));
@@ -754,10 +1081,17 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
          * random HTML page instead of a robots.txt file.
          */
         boolean hasHTML = false;
-        if (isHtmlType || SIMPLE_HTML_PATTERN.matcher(contentAsStr).find()) {
-            if (!USER_AGENT_PATTERN.matcher(contentAsStr).find()) {
+        if (isHtmlType || containsHtmlTag(bytes, offset, end)) {
+            if (indexOfIgnoreCase(bytes, offset, end, USER_AGENT_BYTES) == -1) {
                 LOGGER.trace("Found non-robots.txt HTML file: {}", url);
-                return new SimpleRobotRules(RobotRulesMode.ALLOW_ALL);
+                if (stats != null) {
+                    stats.setHtmlDetected(true);
+                }
+                this._numWarningsDuringLastParse.set(0);
+                for (int i = 0; i < results.length; i++) {
+                    results[i] = new SimpleRobotRules(RobotRulesMode.ALLOW_ALL);
+                }
+                return results;
             } else {
                 // We'll try to strip out HTML tags below.
                 if (isHtmlType) {
@@ -767,17 +1101,32 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
                 }
 
                 hasHTML = true;
+                if (stats != null) {
+                    stats.setHtmlDetected(false);
+                }
             }
         }
 
-        // Break on anything that might be used as a line ending. Since
-        // tokenizer doesn't return empty tokens, a \r\n sequence still
-        // works since it looks like an empty string between the \r and \n.
-        StringTokenizer lineParser = new StringTokenizer(contentAsStr, "\n\r\u0085\u2028\u2029");
-        ParseState parseState = new ParseState(url, robotNames);
+        ParseState[] parseStates = new ParseState[agentGroups.size()];
+        for (int i = 0; i < parseStates.length; i++) {
+            parseStates[i] = new ParseState(url, agentGroups.get(i));
+            // log problems of the robots.txt file only once
+            parseStates[i]._logWarnings = (i == 0);
+        }
+        DirectiveData data = new DirectiveData();
+        byte[] htmlStrippedLine = null;
+
+        // Break on anything that might be used as a line ending: \n, \r, and
+        // the UTF-8 encoded characters U+0085, U+2028 and U+2029. Empty lines
+        // are skipped, so a \r\n sequence still works.
+        int pos = offset;
+        while (pos < end) {
+            int lineEnd = findLineSeparator(bytes, pos, end);
+            int nextLine = lineEnd + lineSeparatorLength(bytes, lineEnd, end);
 
-        while (lineParser.hasMoreTokens()) {
-            String line = lineParser.nextToken();
+            byte[] line = bytes;
+            int lineStart = pos;
+            pos = nextLine;
 
             /*
              * Get rid of HTML markup, in case some brain-dead webmaster has
@@ -786,79 +1135,435 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
              * that's a very tiny percentage of all robots.txt files.
              */
             if (hasHTML) {
-                line = line.replaceAll("<[^>]+>", "");
+                if (htmlStrippedLine == null || htmlStrippedLine.length < (lineEnd - lineStart)) {
+                    htmlStrippedLine = new byte[Math.max(256, lineEnd - lineStart)];
+                }
+                line = htmlStrippedLine;
+                lineEnd = stripHtmlTags(bytes, lineStart, lineEnd, htmlStrippedLine);
+                lineStart = 0;
             }
 
             // trim out comments and whitespace
-            int hashPos = line.indexOf("#");
-            if (hashPos >= 0) {
-                line = line.substring(0, hashPos);
+            for (int i = lineStart; i < lineEnd; i++) {
+                if (line[i] == '#') {
+                    lineEnd = i;
+                    break;
+                }
+            }
+            while (lineStart < lineEnd && (line[lineStart] & 0xff) <= ' ') {
+                lineStart++;
+            }
+            while (lineEnd > lineStart && (line[lineEnd - 1] & 0xff) <= ' ') {
+                lineEnd--;
+            }
+            if (lineStart == lineEnd) {
+                continue;
+            }
+
+            if (sitemapsOnly) {
+                parseSitemapLine(parseStates[0], line, lineStart, lineEnd, data);
+            } else {
+                parseLine(parseStates, line, lineStart, lineEnd, content.length, data, stats);
+            }
+        }
+
+        int maxNumWarnings = 0;
+        for (int i = 0; i < parseStates.length; i++) {
+            maxNumWarnings = Math.max(maxNumWarnings, parseStates[i]._numWarnings);
+            if (numWarnings != null) {
+                numWarnings[i] = parseStates[i]._numWarnings;
+            }
+            SimpleRobotRules result = parseStates[i].getRobotRules();
+            if (result.getCrawlDelay() > _maxCrawlDelay) {
+                // Some evil sites use a value like 3600 (seconds) for the crawl
+                // delay, which would cause lots of problems for us.
+                LOGGER.debug("Crawl delay exceeds max value - so disallowing all URLs: {}", url);
+                results[i] = new SimpleRobotRules(RobotRulesMode.ALLOW_NONE);
+                if (stats != null) {
+                    stats.setCrawlDelayExceeded();
+                }
+            } else {
+                if (_optimizeRules) {
+                    result.optimize();
+                } else {
+                    result.sortRules();
+                }
+                results[i] = result;
+            }
+        }
+        this._numWarningsDuringLastParse.set(maxNumWarnings);
+        if (stats != null) {
+            stats.setNumWarnings(maxNumWarnings);
+        }
+        return results;
+    }
+
+    /**
+     * Figure out the directive of a line from the robots.txt file and process
+     * it for every parse state. Only the data of the directive is decoded to a
+     * string and only if it is used.
+     * 
+     * @param states
+     *            current parsing states, one per agent group
+     * @param line
+     *            byte array holding the UTF-8 encoded line
+     * @param start
+     *            start of the line, without leading white space
+     * @param end
+     *            end of the line, without comment and trailing white space
+     * @param contentLength
+     *            size of the robots.txt file, for reporting
+     * @param data
+     *            holder for the directive data, reused for all lines
+     * @param stats
+     *            if not null, receives parse statistics
+     */
+    private void parseLine(ParseState[] states, byte[] line, int start, int end, int contentLength, DirectiveData data, RobotsParseStats stats) {
+        int first = line[start] & 0xff;
+        if (first >= 'A' && first <= 'Z') {
+            first += 'a' - 'A';
+        }
+        DirectivePrefix[] prefixes = first < 128 ? DIRECTIVE_PREFIX_BY_FIRST_BYTE[first] : null;
+        if (prefixes != null) {
+            for (DirectivePrefix prefix : prefixes) {
+                int dataStart = matchDirective(line, start, end, prefix);
+                if (dataStart != -1) {
+                    while (dataStart < end && (line[dataStart] & 0xff) <= ' ') {
+                        dataStart++;
+                    }
+                    data.set(line, dataStart, end);
+                    if (stats != null) {
+                        stats.countLine(prefix._directive.ordinal());
+                    }
+                    for (ParseState state : states) {
+                        handleDirective(state, prefix._directive, data);
+                    }
+                    return;
+                }
             }
+        }
 
-            line = line.trim();
-            if (line.length() == 0) {
+        if (stats != null) {
+            stats.countLine((line[start] == ':' ? RobotDirective.UNKNOWN : RobotDirective.MISSING).ordinal());
+        }
+        for (ParseState state : states) {
+            if (line[start] == ':') {
+                if (isWarningLogged(state)) {
+                    reportWarning(state, "Unknown directive in robots.txt file: {}", decode(line, start, end));
+                } else {
+                    reportWarning(state, null);
+                }
+            } else {
+                if (isWarningLogged(state)) {
+                    reportWarning(state, "Unknown line in robots.txt file (size {}): {}", contentLength, decode(line, start, end));
+                } else {
+                    reportWarning(state, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Process a line only if it holds a sitemap directive (including a sitemap
+     * URL without directive name, see {@link #handleHttp(ParseState, String)}),
+     * ignore all other lines.
+     */
+    private void parseSitemapLine(ParseState state, byte[] line, int start, int end, DirectiveData data) {
+        int first = line[start] & 0xff;
+        if (first >= 'A' && first <= 'Z') {
+            first += 'a' - 'A';
+        }
+        if (first != 's' && first != 'h') {
+            return;
+        }
+        for (DirectivePrefix prefix : DIRECTIVE_PREFIX_BY_FIRST_BYTE[first]) {
+            if (prefix._directive != RobotDirective.SITEMAP && prefix._directive != RobotDirective.HTTP) {
                 continue;
             }
+            int dataStart = matchDirective(line, start, end, prefix);
+            if (dataStart != -1) {
+                while (dataStart < end && (line[dataStart] & 0xff) <= ' ') {
+                    dataStart++;
+                }
+                data.set(line, dataStart, end);
+                handleDirective(state, prefix._directive, data);
+                return;
+            }
+        }
+    }
 
-            RobotToken token = tokenize(line);
-            switch (token.getDirective()) {
-                case USER_AGENT:
-                handleUserAgent(parseState, token);
-                    break;
+    /**
+     * Match a directive name at the beginning of a line, followed by a
+     * delimiter: a colon (optionally surrounded by spaces or tabs) or at least
+     * one space or tab. Directive names are matched case-insensitive.
+     * 
+     * @return start position of the directive data or -1 if the directive does
+     *         not match
+     */
+    private static int matchDirective(byte[] line, int start, int end, DirectivePrefix prefix) {
+        byte[] name = prefix._prefix;
+        if ((end - start) < name.length) {
+            return -1;
+        }
+        for (int i = 0; i < name.length; i++) {
+            int b = line[start + i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != name[i]) {
+                return -1;
+            }
+        }
+        int pos = start + name.length;
+        if (prefix._directive.isPrefix()) {
+            // skip over the remaining part of the directive name
+            int suffixStart = pos;
+            while (pos < end && line[pos] != ':' && line[pos] != ' ' && line[pos] != '\t') {
+                pos++;
+            }
+            if (pos == suffixStart) {
+                return -1;
+            }
+        }
+        int delimiterStart = pos;
+        while (pos < end && (line[pos] == ' ' || line[pos] == '\t')) {
+            pos++;
+        }
+        if (pos < end && line[pos] == ':') {
+            pos++;
+        } else if (pos == delimiterStart) {
+            // neither colon nor blank
+            return -1;
+        }
+        return pos;
+    }
 
-                case DISALLOW:
-                parseState.setFinishedAgentFields(true);
-                handleDisallow(parseState, token);
-                    break;
+    private void handleDirective(ParseState state, RobotDirective directive, DirectiveData data) {
+        switch (directive) {
+            case USER_AGENT:
+            handleUserAgent(state, data.get());
+                break;
 
-                case ALLOW:
-                parseState.setFinishedAgentFields(true);
-                handleAllow(parseState, token);
-                    break;
+            case DISALLOW:
+            state.setFinishedAgentFields(true);
+            if (state.isAddingRules()) {
+                handleDisallow(state, data.get());
+            }
+                break;
 
-                case CRAWL_DELAY:
-                handleCrawlDelay(parseState, token);
-                parseState.setAddingCrawlDelay(false);
-                    break;
+            case ALLOW:
+            state.setFinishedAgentFields(true);
+            if (state.isAddingRules()) {
+                handleAllow(state, data.get());
+            }
+                break;
 
-                case SITEMAP:
-                handleSitemap(parseState, token);
-                    break;
+            case CRAWL_DELAY:
+            if (state.isAddingCrawlDelay()) {
+                handleCrawlDelay(state, data.get());
+            }
+            state.setAddingCrawlDelay(false);
+                break;
 
-                case HTTP:
-                handleHttp(parseState, token);
-                    break;
+            case SITEMAP:
+            handleSitemap(state, data.get());
+                break;
 
-                case UNKNOWN:
-                reportWarning(parseState, "Unknown directive in robots.txt file: {}", line);
-                    break;
+            case HTTP:
+            handleHttp(state, data.get());
+                break;
 
-                case MISSING:
-                reportWarning(parseState, "Unknown line in robots.txt file (size {}): {}", content.length, line);
-                    break;
+            default:
+                // All others we just ignore
+                break;
+        }
+    }
 
-                default:
-                    // All others we just ignore
-                    break;
+    /**
+     * Data of a directive line, decoded lazily and at most once even if the
+     * line is processed for multiple parse states.
+     */
+    private static class DirectiveData {
+        private byte[] _line;
+        private int _start;
+        private int _end;
+        private String _decoded;
+
+        void set(byte[] line, int start, int end) {
+            _line = line;
+            _start = start;
+            _end = end;
+            _decoded = null;
+        }
+
+        String get() {
+            if (_decoded == null) {
+                _decoded = decode(_line, _start, _end);
             }
+            return _decoded;
         }
+    }
 
-        this._numWarningsDuringLastParse.set(parseState._numWarnings);
-        SimpleRobotRules result = parseState.getRobotRules();
-        if (result.getCrawlDelay() > _maxCrawlDelay) {
-            // Some evil sites use a value like 3600 (seconds) for the crawl
-            // delay, which would cause lots of problems for us.
-            LOGGER.debug("Crawl delay exceeds max value - so disallowing all URLs: {}", url);
-            return new SimpleRobotRules(RobotRulesMode.ALLOW_NONE);
-        } else {
-            result.sortRules();
-            return result;
+    private static String decode(byte[] bytes, int start, int end) {
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return position of the next line separator (\n, \r, U+0085, U+2028 or
+     *         U+2029 in UTF-8) or <code>end</code> if there is none
+     */
+    private static int findLineSeparator(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '\n' || b == '\r') {
+                return i;
+            } else if (b < 0 && lineSeparatorLength(bytes, i, end) > 0) {
+                return i;
+            }
         }
+        return end;
+    }
+
+    /**
+     * @return length in bytes of the line separator at the given position, 0
+     *         if there is no line separator
+     */
+    private static int lineSeparatorLength(byte[] bytes, int pos, int end) {
+        if (pos >= end) {
+            return 0;
+        }
+        byte b = bytes[pos];
+        if (b == '\n' || b == '\r') {
+            return 1;
+        } else if (b == (byte) 0xC2 && (pos + 1) < end && bytes[pos + 1] == (byte) 0x85) {
+            // U+0085 (next line)
+            return 2;
+        } else if (b == (byte) 0xE2 && (pos + 2) < end && bytes[pos + 1] == (byte) 0x80 && (bytes[pos + 2] == (byte) 0xA8 || bytes[pos + 2] == (byte) 0xA9)) {
+            // U+2028 (line separator) or U+2029 (paragraph separator)
+            return 3;
+        }
+        return 0;
+    }
+
+    private static boolean isLineSeparator(byte[] bytes, int pos, int end) {
+        return lineSeparatorLength(bytes, pos, end) > 0;
+    }
+
+    /**
+     * @return position of the last line separator or <code>start</code> if
+     *         there is none
+     */
+    private static int findLastLineSeparator(byte[] bytes, int start, int end) {
+        int last = start;
+        int pos = start;
+        while (pos < end) {
+            pos = findLineSeparator(bytes, pos, end);
+            if (pos < end) {
+                last = pos;
+                pos += lineSeparatorLength(bytes, pos, end);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * @return whether the content contains one of the HTML tags
+     *         <code>&lt;html&gt;</code>, <code>&lt;head&gt;</code> or
+     *         <code>&lt;body&gt;</code> (case-insensitive, optionally with
+     *         white space before the closing angle bracket)
+     */
+    private static boolean containsHtmlTag(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] != '<') {
+                continue;
+            }
+            for (byte[] tagName : HTML_TAG_NAMES) {
+                if (regionMatchesIgnoreCase(bytes, i + 1, end, tagName)) {
+                    int pos = i + 1 + tagName.length;
+                    while (pos < end && isHtmlWhitespace(bytes[pos])) {
+                        pos++;
+                    }
+                    if (pos < end && bytes[pos] == '>') {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHtmlWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    /**
+     * @return position of the ASCII lower-case string <code>s</code> in the
+     *         content (matched case-insensitive), -1 if not found
+     */
+    private static int indexOfIgnoreCase(byte[] bytes, int start, int end, byte[] s) {
+        for (int i = start; i <= (end - s.length); i++) {
+            if (regionMatchesIgnoreCase(bytes, i, end, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatchesIgnoreCase(byte[] bytes, int start, int end, byte[] s) {
+        if ((end - start) < s.length) {
+            return false;
+        }
+        for (int i = 0; i < s.length; i++) {
+            int b = bytes[start + i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != s[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove HTML tags (a <code>&lt;</code> followed by at least one character
+     * and a <code>&gt;</code>) from a line.
+     * 
+     * @param target
+     *            array receiving the line without HTML tags, must be at least
+     *            as long as the line
+     * @return length of the line without HTML tags
+     */
+    private static int stripHtmlTags(byte[] bytes, int start, int end, byte[] target) {
+        int length = 0;
+        int i = start;
+        while (i < end) {
+            if (bytes[i] == '<') {
+                int tagEnd = i + 1;
+                while (tagEnd < end && bytes[tagEnd] != '>') {
+                    tagEnd++;
+                }
+                if (tagEnd < end && tagEnd > (i + 1)) {
+                    i = tagEnd + 1;
+                    continue;
+                }
+            }
+            target[length++] = bytes[i++];
+        }
+        return length;
+    }
+
+    private boolean isWarningLogged(ParseState state) {
+        return state._logWarnings && (state._numWarnings + 1) < _maxWarnings;
     }
 
     private void reportWarning(ParseState state, String msg, Object... args) {
         state._numWarnings += 1;
 
+        if (!state._logWarnings) {
+            return;
+        }
+
         if (state._numWarnings == 1) {
             LOGGER.warn("Problem processing robots.txt for {}", state._url);
         }
@@ -905,10 +1610,10 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      * 
      * @param state
      *            current parsing state
-     * @param token
+     * @param data
      *            data for directive
      */
-    private void handleUserAgent(ParseState state, RobotToken token) {
+    private void handleUserAgent(ParseState state, String data) {
         // If we are adding rules, and had already finished reading user agent
         // fields, then we are in a new section, hence stop adding rules.
         if (state.isAddingRules() && state.isFinishedAgentFields()) {
@@ -925,7 +1630,7 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
         Collection<String> targetNames = state.getTargetNames();
 
         if (isExactUserAgentMatching()) {
-            String agentName = token.getData().trim().toLowerCase(Locale.ROOT);
+            String agentName = data.trim().toLowerCase(Locale.ROOT);
             if (agentName.isEmpty()) {
                 // Ignore empty names
             } else if (agentName.equals("*") && !state.isMatchedRealName()) {
@@ -953,7 +1658,7 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
              * expected match the robots.txt directive "User-agent: mybot"
              * or also "User-agent: my".
              */
-            String agentNameFull = token.getData().trim().toLowerCase(Locale.ROOT);
+            String agentNameFull = data.trim().toLowerCase(Locale.ROOT);
             boolean matched = false;
             if (agentNameFull.equals("*") && !state.isMatchedRealName()) {
                 state.setMatchedWildcard(true);
@@ -965,7 +1670,7 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
             } else {
                 String[] agentNames = ROBOT_NAMES_SPLIT.split(agentNameFull);
                 if (agentNames.length > 1) {
-                    LOGGER.debug("Multiple agent names in user-agent line: {}", token.getData());
+                    LOGGER.debug("Multiple agent names in user-agent line: {}", data);
                 }
                 for (String agentName : agentNames) {
                     for (String targetName : targetNames) {
@@ -1018,16 +1723,14 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      * 
      * @param state
      *            current parsing state
-     * @param token
+     * @param path
      *            data for directive
      */
-    private void handleDisallow(ParseState state, RobotToken token) {
+    private void handleDisallow(ParseState state, String path) {
         if (!state.isAddingRules()) {
             return;
         }
 
-        String path = token.getData();
-
         try {
             path = normalizePathDirective(path);
             if (path.length() == 0) {
@@ -1058,16 +1761,14 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      * 
      * @param state
      *            current parsing state
-     * @param token
+     * @param path
      *            data for directive
      */
-    private void handleAllow(ParseState state, RobotToken token) {
+    private void handleAllow(ParseState state, String path) {
         if (!state.isAddingRules()) {
             return;
         }
 
-        String path = token.getData();
-
         try {
             path = normalizePathDirective(path);
         } catch (Exception e) {
@@ -1090,15 +1791,14 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      * 
      * @param state
      *            current parsing state
-     * @param token
+     * @param delayString
      *            data for directive
      */
-    private void handleCrawlDelay(ParseState state, RobotToken token) {
+    private void handleCrawlDelay(ParseState state, String delayString) {
         if (!state.isAddingCrawlDelay()) {
             return;
         }
 
-        String delayString = token.getData();
         if (delayString.length() > 0) {
             try {
                 // Some sites use values like 0.5 for the delay.
@@ -1123,12 +1823,11 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      * 
      * @param state
      *            current parsing state
-     * @param token
+     * @param sitemap
      *            data for directive
      */
-    private void handleSitemap(ParseState state, RobotToken token) {
+    private void handleSitemap(ParseState state, String sitemap) {
 
-        String sitemap = token.getData();
         try {
             URL sitemapUrl;
             URL base = null;
@@ -1157,14 +1856,12 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      * 
      * @param state
      *            current parsing state
-     * @param token
+     * @param urlFragment
      *            data for directive
      */
-    private void handleHttp(ParseState state, RobotToken token) {
-        String urlFragment = token.getData();
+    private void handleHttp(ParseState state, String urlFragment) {
         if (urlFragment.contains("sitemap")) {
-            RobotToken fixedToken = new RobotToken(RobotDirective.SITEMAP, "http:" + token.getData());
-            handleSitemap(state, fixedToken);
+            handleSitemap(state, "http:" + urlFragment);
         } else {
             reportWarning(state, "Found raw non-sitemap URL: http:{}", urlFragment);
         }
@@ -1216,6 +1913,7 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
      */
     public void setMaxCrawlDelay(long maxCrawlDelay) {
         _maxCrawlDelay = maxCrawlDelay;
+        clearInternedRules();
     }
 
     /**
@@ -1267,6 +1965,162 @@ public class SimpleRobotRulesParser extends BaseRobotsParser {
         return _exactUserAgentMatching;
     }
 
+    /**
+     * Set the max. number of bytes of a robots.txt file which are parsed.
+     * Content beyond this limit is ignored, and a line cut by the limit is
+     * skipped. <a href=
+     * "https://www.rfc-editor.org/rfc/rfc9309.html#name-limits">RFC 9309,
+     * section 2.5 Limits</a> requires that crawlers parse at least 500 KiB.
+     * 
+     * <p>
+     * By default, the content length is not limited and the entire content is
+     * parsed. Input streams are then read to their end.
+     * </p>
+     * 
+     * @param maxContentLength
+     *            max. number of bytes to parse, at least
+     *            {@link #DEFAULT_MAX_CONTENT_LENGTH} (500 KiB), or 0 to parse
+     *            the entire content
+     * @throws IllegalArgumentException
+     *             if the limit is lower than 500 KiB and not 0
+     */
+    public void setMaxContentLength(int maxContentLength) {
+        if (maxContentLength != 0 && maxContentLength < DEFAULT_MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Max. content length must be at least " + DEFAULT_MAX_CONTENT_LENGTH + " bytes (RFC 9309)");
+        }
+        _maxContentLength = maxContentLength;
+        clearInternedRules();
+    }
+
+    /**
+     * @return the max. number of bytes of a robots.txt file which are parsed,
+     *         0 if the content length is not limited, see
+     *         {@link #setMaxContentLength(int)}
+     */
+    public int getMaxContentLength() {
+        return _maxContentLength;
+    }
+
+    /**
+     * Enable interning of parsed robots rules: if a robots.txt file with the
+     * same content has been parsed before for the same user-agent names, the
+     * rules are not parsed again but the previous result is returned. The rules
+     * are shared between all hosts serving the same robots.txt content, e.g.
+     * default robots.txt files of content management systems or hosting
+     * providers, and are therefore immutable, see {@link FrozenRobotRules}.
+     * 
+     * <p>
+     * Rules containing sitemap URLs are not interned, because sitemaps are
+     * specific to a host. No warnings are logged when interned rules are
+     * returned, but {@link #getNumWarnings()} returns the number of warnings
+     * from the first time the robots.txt has been parsed.
+     * </p>
+     * 
+     * <p>
+     * The interning table holds at maximum the given number of robots.txt
+     * files and rules, the least recently used entries are removed first.
+     * Entries are held by soft references and are reclaimed by the garbage
+     * collector if memory is low.
+     * </p>
+     * 
+     * @param maxInternedRules
+     *            maximum number of interned rules, 0 disables interning
+     *            (default)
+     */
+    public void setMaxInternedRules(int maxInternedRules) {
+        if (maxInternedRules < 0) {
+            throw new IllegalArgumentException("Maximum number of interned rules must not be negative");
+        }
+        _maxInternedRules = maxInternedRules;
+        _interner = (maxInternedRules > 0) ? new RobotRulesInterner(maxInternedRules) : null;
+    }
+
+    /**
+     * @return the maximum number of interned rules, see
+     *         {@link #setMaxInternedRules(int)}
+     */
+    public int getMaxInternedRules() {
+        return _maxInternedRules;
+    }
+
+    /**
+     * Remove all interned rules, see {@link #setMaxInternedRules(int)}.
+     */
+    public void clearInternedRules() {
+        RobotRulesInterner interner = _interner;
+        if (interner != null) {
+            interner.clear();
+        }
+    }
+
+    /**
+     * Configure the parser to return immutable rules, see
+     * {@link FrozenRobotRules}. Frozen rules are sorted and compiled for
+     * matching when returned and can be cached and shared between threads
+     * without synchronization.
+     * 
+     * @param freezeRules
+     *            if true, return frozen rules from
+     *            {@link #parseContent(String, byte[], String, Collection)},
+     *            {@link #parseContentForAgents(String, byte[], String, Collection)}
+     *            and {@link #failedFetch(int)}
+     */
+    public void setFreezeRules(boolean freezeRules) {
+        _freezeRules = freezeRules;
+    }
+
+    /**
+     * @return whether the parser returns frozen rules, see
+     *         {@link #setFreezeRules(boolean)}
+     */
+    public boolean isFreezeRules() {
+        return _freezeRules;
+    }
+
+    /**
+     * Configure the parser to optimize the parsed rules, see
+     * {@link SimpleRobotRules#optimize()}: rules which never affect the result
+     * of rule matching are removed, and rules which never disallow a URL are
+     * collapsed into the mode {@link RobotRulesMode#ALLOW_ALL}. Whether a URL is
+     * allowed does not change, but the list of rules returned by
+     * {@link SimpleRobotRules#getRobotRules()} may be shorter.
+     * 
+     * @param optimizeRules
+     *            if true, optimize the parsed rules
+     */
+    public void setOptimizeRules(boolean optimizeRules) {
+        _optimizeRules = optimizeRules;
+    }
+
+    /**
+     * @return whether the parsed rules are optimized, see
+     *         {@link #setOptimizeRules(boolean)}
+     */
+    public boolean isOptimizeRules() {
+        return _optimizeRules;
+    }
+
+    /**
+     * Set a listener which is notified with statistics about every parsed
+     * robots.txt file, see {@link RobotsParseStats}. Statistics are only
+     * collected if a listener is set. The listener is not serialized with the
+     * parser.
+     * 
+     * @param listener
+     *            listener, or null to remove the current listener
+     */
+    public void setParseListener(RobotsParseListener listener) {
+        _parseListener = listener;
+    }
+
+    /**
+     * @return the listener notified about every parsed robots.txt file, null
+     *         if none is set, see {@link #setParseListener(RobotsParseListener)}
+     */
+    public RobotsParseListener getParseListener() {
+        return _parseListener;
+    }
+
     public static void main(String[] args) throws IOException, URISyntaxException {
         if (args.length < 1) {
             System.err.println("SimpleRobotRulesParser <robots.txt> [[<agentname>] <URL>...]");
@@ -0,0 +1,396 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precompiled robots.txt path pattern with wildcards (<code>*</code>) and an
+ * optional end-of-path anchor (<code>$</code>).
+ * 
+ * <p>
+ * The pattern is split into a literal lead (the part before the first
+ * wildcard), which must match at the beginning of the path, and literal pieces
+ * following a wildcard. Consecutive wildcards are collapsed. The pieces are
+ * searched from left to right, every piece at the leftmost position after the
+ * previous piece. If the pattern is anchored, the last piece must match at the
+ * end of the path. Pieces are located using the two-way string matching
+ * algorithm (Crochemore and Perrin, 1991), which runs in linear time and
+ * constant space. Matching a path against a pattern therefore takes time
+ * linear in the length of the path and the pattern, independent from the
+ * number of wildcards or repetitions in path or pattern.
+ * </p>
+ * 
+ * <p>
+ * The static method {@link #matches(CharSequence, CharSequence, int, int)} matches a
+ * pattern without compiling it, at the cost of computing the critical
+ * factorization of the pieces required by the two-way algorithm on every call.
+ * </p>
+ */
+final class WildcardPattern {
+
+    private final String _pattern;
+
+    /** end of the literal lead */
+    private final int _leadEnd;
+
+    /**
+     * literal pieces following a wildcard, four values per piece: start and
+     * end offset in the pattern and the critical factorization (see
+     * {@link #factorize(CharSequence, int, int)}) split into two ints
+     */
+    private final int[] _pieces;
+
+    /** whether the pattern contains a wildcard */
+    private final boolean _hasWildcard;
+
+    /** whether the pattern ends with the end-of-path anchor */
+    private final boolean _anchored;
+
+    private static final int[] NO_PIECES = new int[0];
+
+    WildcardPattern(String pattern) {
+        _pattern = pattern;
+        int end = pattern.length();
+        _anchored = end > 0 && pattern.charAt(end - 1) == '$';
+        if (_anchored) {
+            end--;
+        }
+        int wildcard = indexOfWildcard(pattern, 0, end);
+        _leadEnd = wildcard;
+        _hasWildcard = wildcard < end;
+        if (!_hasWildcard) {
+            _pieces = NO_PIECES;
+            return;
+        }
+        List<int[]> pieces = new ArrayList<>();
+        int pos = wildcard + 1;
+        while (pos <= end) {
+            int pieceEnd = indexOfWildcard(pattern, pos, end);
+            // skip empty pieces (consecutive wildcards), except for the last
+            // piece of an anchored pattern, which must match at the end
+            if (pieceEnd > pos || (_anchored && pieceEnd == end)) {
+                long factorization = factorize(pattern, pos, pieceEnd);
+                pieces.add(new int[] { pos, pieceEnd, (int) (factorization >> 32), (int) factorization });
+            }
+            pos = pieceEnd + 1;
+        }
+        _pieces = new int[pieces.size() * 4];
+        for (int i = 0; i < pieces.size(); i++) {
+            System.arraycopy(pieces.get(i), 0, _pieces, i * 4, 4);
+        }
+    }
+
+    /** @return the pattern string */
+    String getPattern() {
+        return _pattern;
+    }
+
+    /**
+     * @return length of the literal lead, the part of the pattern before the
+     *         first wildcard or the end-of-path anchor
+     */
+    int getLeadLength() {
+        return _leadEnd;
+    }
+
+    /**
+     * @param text
+     *            path (and query) to match
+     * @return true if the pattern matches the text
+     */
+    boolean matches(CharSequence text) {
+        if (!regionMatches(text, 0, _pattern, 0, _leadEnd)) {
+            return false;
+        }
+        return matchesAfterLead(text);
+    }
+
+    /**
+     * Match the pattern, assuming that the text starts with the literal lead
+     * of the pattern.
+     * 
+     * @param text
+     *            path (and query) to match
+     * @return true if the pattern matches the text
+     */
+    boolean matchesAfterLead(CharSequence text) {
+        int textPos = _leadEnd;
+        int textEnd = text.length();
+        if (!_hasWildcard) {
+            return !_anchored || textPos == textEnd;
+        }
+        int numPieces = _pieces.length / 4;
+        int lastFloating = _anchored ? numPieces - 1 : numPieces;
+        int searchEnd = textEnd;
+        if (_anchored) {
+            // the last piece must match at the end of the text
+            searchEnd -= _pieces[lastFloating * 4 + 1] - _pieces[lastFloating * 4];
+            if (searchEnd < textPos) {
+                return false;
+            }
+        }
+        for (int i = 0; i < lastFloating; i++) {
+            int j = i * 4;
+            long factorization = ((long) _pieces[j + 2] << 32) | (_pieces[j + 3] & 0xffffffffL);
+            int found = indexOf(text, textPos, searchEnd, _pattern, _pieces[j], _pieces[j + 1], factorization);
+            if (found == -1) {
+                return false;
+            }
+            textPos = found + _pieces[j + 1] - _pieces[j];
+        }
+        if (_anchored) {
+            int j = lastFloating * 4;
+            return regionMatches(text, searchEnd, _pattern, _pieces[j], _pieces[j + 1]);
+        }
+        return true;
+    }
+
+    /**
+     * Match a pattern without compiling it.
+     * 
+     * @param text
+     *            path (and query) to match
+     * @param pattern
+     *            string holding the pattern
+     * @param start
+     *            start position of the pattern in the pattern string
+     * @param end
+     *            end position of the pattern in the pattern string
+     * @return true if the pattern matches the text
+     */
+    static boolean matches(CharSequence text, CharSequence pattern, int start, int end) {
+        boolean anchored = end > start && pattern.charAt(end - 1) == '$';
+        if (anchored) {
+            end--;
+        }
+        int textEnd = text.length();
+        int leadEnd = indexOfWildcard(pattern, start, end);
+        if (!regionMatches(text, 0, pattern, start, leadEnd)) {
+            return false;
+        }
+        int textPos = leadEnd - start;
+        if (leadEnd == end) {
+            return !anchored || textPos == textEnd;
+        }
+
+        int searchEnd = textEnd;
+        int lastPieceStart = end;
+        if (anchored) {
+            lastPieceStart = lastIndexOfWildcard(pattern, leadEnd, end) + 1;
+            searchEnd -= end - lastPieceStart;
+            if (searchEnd < textPos) {
+                return false;
+            }
+        }
+        int pos = leadEnd + 1;
+        while (pos < lastPieceStart) {
+            int pieceEnd = indexOfWildcard(pattern, pos, lastPieceStart);
+            if (pieceEnd > pos) {
+                int found = indexOf(text, textPos, searchEnd, pattern, pos, pieceEnd, factorize(pattern, pos, pieceEnd));
+                if (found == -1) {
+                    return false;
+                }
+                textPos = found + pieceEnd - pos;
+            }
+            pos = pieceEnd + 1;
+        }
+        if (anchored) {
+            return regionMatches(text, searchEnd, pattern, lastPieceStart, end);
+        }
+        return true;
+    }
+
+    private static int indexOfWildcard(CharSequence pattern, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (pattern.charAt(i) == '*') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int lastIndexOfWildcard(CharSequence pattern, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (pattern.charAt(i) == '*') {
+                return i;
+            }
+        }
+        return start - 1;
+    }
+
+    private static boolean regionMatches(CharSequence text, int textStart, CharSequence pattern, int start, int end) {
+        if (text.length() - textStart < end - start) {
+            return false;
+        }
+        for (int i = start, j = textStart; i < end; i++, j++) {
+            if (text.charAt(j) != pattern.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute the critical factorization of a non-empty pattern piece required
+     * by the two-way string matching algorithm.
+     * 
+     * @return the critical position (upper 32 bits) and the shift (lower 32
+     *         bits): the period of the piece if the piece is periodic,
+     *         otherwise the negated shift used after a match of the right
+     *         half of the piece
+     */
+    static long factorize(CharSequence pattern, int start, int end) {
+        int m = end - start;
+        if (m == 0) {
+            return 1L;
+        }
+        long suffix = maxSuffix(pattern, start, m, false);
+        long reverseSuffix = maxSuffix(pattern, start, m, true);
+        if ((int) (reverseSuffix >> 32) > (int) (suffix >> 32)) {
+            suffix = reverseSuffix;
+        }
+        int ell = (int) (suffix >> 32);
+        int per = (int) suffix;
+        if (regionMatches(pattern, start, pattern, start + per, start + per + ell + 1)) {
+            return ((long) ell << 32) | per;
+        }
+        int shift = Math.max(ell + 1, m - ell - 1) + 1;
+        return ((long) ell << 32) | (-shift & 0xffffffffL);
+    }
+
+    /**
+     * Compute the maximal suffix of the pattern piece, with respect to the
+     * natural order of characters or the reversed order.
+     * 
+     * @return start of the maximal suffix minus one (upper 32 bits) and the
+     *         period of the suffix (lower 32 bits)
+     */
+    private static long maxSuffix(CharSequence x, int start, int m, boolean reversed) {
+        int ms = -1;
+        int j = 0;
+        int k = 1;
+        int p = 1;
+        while (j + k < m) {
+            char a = x.charAt(start + j + k);
+            char b = x.charAt(start + ms + k);
+            if (reversed ? a > b : a < b) {
+                j += k;
+                k = 1;
+                p = j - ms;
+            } else if (a == b) {
+                if (k != p) {
+                    k++;
+                } else {
+                    j += p;
+                    k = 1;
+                }
+            } else {
+                ms = j;
+                j = ms + 1;
+                k = p = 1;
+            }
+        }
+        return ((long) ms << 32) | p;
+    }
+
+    /**
+     * Find the first occurrence of a pattern piece in the text, using the
+     * two-way string matching algorithm.
+     * 
+     * @param text
+     *            text to search in
+     * @param from
+     *            start position in the text
+     * @param to
+     *            end position in the text (exclusive), the occurrence must end
+     *            before or at this position
+     * @param x
+     *            string holding the pattern piece
+     * @param start
+     *            start of the piece in the pattern string
+     * @param end
+     *            end of the piece in the pattern string
+     * @param factorization
+     *            critical factorization of the piece, see
+     *            {@link #factorize(CharSequence, int, int)}
+     * @return position of the first occurrence in the text or -1 if the piece
+     *         does not occur
+     */
+    static int indexOf(CharSequence text, int from, int to, CharSequence x, int start, int end, long factorization) {
+        int m = end - start;
+        if (m == 0) {
+            return from <= to ? from : -1;
+        }
+        int ell = (int) (factorization >> 32);
+        int shift = (int) factorization;
+        int j = from;
+        if (shift > 0) {
+            // periodic piece: remember the prefix already matched after a
+            // shift by the period
+            int per = shift;
+            int memory = -1;
+            while (j <= to - m) {
+                int i = Math.max(ell, memory) + 1;
+                while (i < m && x.charAt(start + i) == text.charAt(i + j)) {
+                    i++;
+                }
+                if (i >= m) {
+                    i = ell;
+                    while (i > memory && x.charAt(start + i) == text.charAt(i + j)) {
+                        i--;
+                    }
+                    if (i <= memory) {
+                        return j;
+                    }
+                    j += per;
+                    memory = m - per - 1;
+                } else {
+                    j += i - ell;
+                    memory = -1;
+                }
+            }
+        } else {
+            int per = -shift;
+            while (j <= to - m) {
+                int i = ell + 1;
+                while (i < m && x.charAt(start + i) == text.charAt(i + j)) {
+                    i++;
+                }
+                if (i >= m) {
+                    i = ell;
+                    while (i >= 0 && x.charAt(start + i) == text.charAt(i + j)) {
+                        i--;
+                    }
+                    if (i < 0) {
+                        return j;
+                    }
+                    j += per;
+                } else {
+                    j += i - ell;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return _pattern;
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CompactSuffixTrieTest {
+
+    @Test
+    public final void testCompactSuffixTrie() throws Exception {
+        SuffixTrie<Boolean> trie = new SuffixTrie<>();
+        String[] strings = { "www.example.com", "subdomain.example.com", "example.com", "co.uk", "com.ac", "com" };
+        for (String s : strings) {
+            trie.put(s, true);
+        }
+        CompactSuffixTrie<Boolean> compact = new CompactSuffixTrie<>(trie);
+        for (String s : strings) {
+            assertTrue(compact.contains(s));
+        }
+        assertEquals(strings.length, compact.size());
+        assertFalse(compact.contains(""));
+        assertFalse(compact.contains("ample.com"));
+        assertFalse(compact.contains("www.example.co"));
+        assertEquals(4, compact.getLongestSuffix("www.subdomain.example.com").offset);
+        assertNull(compact.getLongestSuffix("example.org"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.put("org", true));
+
+        // insert empty string and test again
+        trie.put("", true);
+        CompactSuffixTrie<Boolean> compact2 = new CompactSuffixTrie<>(trie);
+        assertTrue(compact2.contains(""));
+        assertEquals(0, compact2.getLongestSuffix("").offset);
+        assertEquals(11, compact2.getLongestSuffix("example.org").offset);
+        // test whether all suffixes contained in string and trie are found
+        List<SuffixTrie.LookupResult<Boolean>> suffixes = compact2.getSuffixes("www.subdomain.example.com");
+        assertEquals(4, suffixes.size());
+        assertEquals(25, suffixes.get(0).offset);
+        assertEquals(22, suffixes.get(1).offset);
+        assertEquals(14, suffixes.get(2).offset);
+        assertEquals(4, suffixes.get(3).offset);
+    }
+
+    @Test
+    public final void testForEach() throws Exception {
+        SuffixTrie<Integer> trie = new SuffixTrie<>();
+        String[] strings = { "www.example.com", "example.com", "co.uk", "com", "", "бесплатныеобъявления.рф", "\ud801\udc00.x" };
+        for (int i = 0; i < strings.length; i++) {
+            trie.put(strings[i], i);
+        }
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < strings.length; i++) {
+            expected.put(strings[i], i);
+        }
+        Map<String, Integer> actual = new HashMap<>();
+        new CompactSuffixTrie<>(trie).forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public final void testEmptyTrie() throws Exception {
+        CompactSuffixTrie<Boolean> compact = new CompactSuffixTrie<>(new SuffixTrie<>());
+        assertEquals(0, compact.size());
+        assertFalse(compact.contains(""));
+        assertFalse(compact.contains("com"));
+        assertNull(compact.getLongestSuffix("www.example.com"));
+        assertTrue(compact.getSuffixes("www.example.com").isEmpty());
+    }
+
+    /**
+     * Compare lookups in random host names with the mutable trie.
+     */
+    @Test
+    public final void testRandomHostNames() throws Exception {
+        Random random = new Random(42);
+        SuffixTrie<Integer> trie = new SuffixTrie<>();
+        for (int i = 0; i < 5000; i++) {
+            String host = randomHostName(random);
+            trie.put(host, i);
+        }
+        CompactSuffixTrie<Integer> compact = new CompactSuffixTrie<>(trie);
+        for (int i = 0; i < 20000; i++) {
+            String host = randomHostName(random);
+            assertEquals(trie.get(host), compact.get(host));
+            SuffixTrie.LookupResult<Integer> expected = trie.getLongestSuffix(host);
+            SuffixTrie.LookupResult<Integer> actual = compact.getLongestSuffix(host);
+            if (expected == null) {
+                assertNull(actual);
+            } else {
+                assertEquals(expected.offset, actual.offset);
+                assertEquals(expected.value, actual.value);
+            }
+            List<SuffixTrie.LookupResult<Integer>> expectedSuffixes = trie.getSuffixes(host);
+            List<SuffixTrie.LookupResult<Integer>> actualSuffixes = compact.getSuffixes(host);
+            assertEquals(expectedSuffixes.size(), actualSuffixes.size());
+            for (int j = 0; j < expectedSuffixes.size(); j++) {
+                assertEquals(expectedSuffixes.get(j).offset, actualSuffixes.get(j).offset);
+                assertEquals(expectedSuffixes.get(j).value, actualSuffixes.get(j).value);
+            }
+        }
+    }
+
+    private static String randomHostName(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int numSegments = 1 + random.nextInt(4);
+        for (int i = 0; i < numSegments; i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            int length = 1 + random.nextInt(3);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(4)));
+            }
+        }
+        return sb.toString();
+    }
+}
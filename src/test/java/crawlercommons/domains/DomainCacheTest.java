@@ -0,0 +1,135 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class DomainCacheTest {
+
+    private static final Object LIST = new Object();
+
+    @AfterEach
+    public void disableCache() {
+        EffectiveTldFinder.getInstance().setCacheSize(0);
+    }
+
+    @Test
+    public void testGetPut() {
+        DomainCache cache = new DomainCache(10);
+        int slot = DomainCache.slot(DomainCache.ASSIGNED_DOMAIN, true, false);
+        assertNull(cache.get("www.example.com", slot, LIST));
+        cache.put("www.example.com", slot, LIST, "example.com");
+        assertEquals("example.com", cache.get("www.example.com", slot, LIST));
+
+        // other flags and lookups are cached separately
+        for (int other : new int[] { DomainCache.slot(DomainCache.ASSIGNED_DOMAIN, false, false), DomainCache.slot(DomainCache.ASSIGNED_DOMAIN, true, true),
+                        DomainCache.slot(DomainCache.EFFECTIVE_TLD, false, false) }) {
+            assertNull(cache.get("www.example.com", other, LIST));
+        }
+
+        // null results are cached
+        cache.put("localhost", slot, LIST, null);
+        assertSame(DomainCache.NULL, cache.get("localhost", slot, LIST));
+
+        // results from a replaced list are not returned
+        Object newList = new Object();
+        assertNull(cache.get("www.example.com", slot, newList));
+        cache.put("www.example.com", slot, newList, "www.example.com");
+        assertEquals("www.example.com", cache.get("www.example.com", slot, newList));
+        assertNull(cache.get("www.example.com", slot, LIST));
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(6, cache.getMissCount());
+        assertEquals(3.0 / 9, cache.getHitRate(), 0.0001);
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("localhost", slot, LIST));
+        assertThrows(IllegalArgumentException.class, () -> new DomainCache(0));
+    }
+
+    @Test
+    public void testClockEviction() {
+        DomainCache cache = new DomainCache(4);
+        int slot = DomainCache.slot(DomainCache.ASSIGNED_DOMAIN, false, false);
+        for (int i = 0; i < 4; i++) {
+            cache.put("host" + i, slot, LIST, "value" + i);
+        }
+        assertEquals(4, cache.size());
+
+        // all entries are marked as used when inserted: the first sweep
+        // clears the marks and evicts the oldest entry
+        cache.put("host4", slot, LIST, "value4");
+        assertEquals(4, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get("host0", slot, LIST));
+
+        // host1 is used again and survives the next eviction, host2 is evicted
+        assertNotNull(cache.get("host1", slot, LIST));
+        cache.put("host5", slot, LIST, "value5");
+        assertNotNull(cache.get("host1", slot, LIST));
+        assertNull(cache.get("host2", slot, LIST));
+        assertEquals(4, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testSkewedLookups() throws Exception {
+        EffectiveTldFinder finder = EffectiveTldFinder.getInstance();
+        finder.setCacheSize(100);
+        DomainCache cache = finder.getCache();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        // 90% of the lookups for 10 frequent hosts
+                        int n = (i % 10 != 0) ? (i % 10) : (1000 + seed * 10000 + i);
+                        String host = "www.host" + n + ".co.uk";
+                        assertEquals("host" + n + ".co.uk", EffectiveTldFinder.getAssignedDomain(host));
+                        assertEquals("co.uk", EffectiveTldFinder.getEffectiveTLD(host).getDomain());
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.getHitRate() > 0.8, cache.toString());
+        assertEquals(80000, cache.getHitCount() + cache.getMissCount());
+    }
+}
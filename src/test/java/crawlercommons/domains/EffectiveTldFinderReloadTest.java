@@ -0,0 +1,162 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EffectiveTldFinderReloadTest {
+
+    private static final String LIST_A = "// test list A\ncom\nexample\n";
+    private static final String LIST_B = "// test list B\ncom\ntest\n*.wild.test\n";
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void restore() throws IOException {
+        try (InputStream in = EffectiveTldFinder.class.getResourceAsStream(EffectiveTldFinder.ETLD_DATA)) {
+            assertTrue(EffectiveTldFinder.getInstance().initialize(in));
+        }
+        EffectiveTldFinder.getInstance().setCacheSize(0);
+    }
+
+    private static InputStream stream(String list) {
+        return new ByteArrayInputStream(list.getBytes(UTF_8));
+    }
+
+    @Test
+    public void testReload() throws IOException {
+        EffectiveTldFinder finder = EffectiveTldFinder.getInstance();
+        finder.reload(stream(LIST_A));
+        assertTrue(finder.isConfigured());
+        assertEquals("foo.example", EffectiveTldFinder.getAssignedDomain("www.foo.example", true));
+        assertNull(EffectiveTldFinder.getAssignedDomain("www.foo.test", true));
+
+        // reload a compiled list
+        Path list = dir.resolve("list.dat");
+        Files.write(list, LIST_B.getBytes(UTF_8));
+        Path compiled = dir.resolve("list.bin");
+        PublicSuffixListCompiler.compile(list, compiled);
+        finder.reload(compiled);
+        assertEquals("foo.test", EffectiveTldFinder.getAssignedDomain("www.foo.test", true));
+        assertEquals("foo.bar.wild.test", EffectiveTldFinder.getAssignedDomain("www.foo.bar.wild.test", true));
+        assertNull(EffectiveTldFinder.getAssignedDomain("www.foo.example", true));
+
+        // failed reload keeps the current list
+        byte[] truncated = Files.readAllBytes(compiled);
+        assertThrows(IOException.class, () -> finder.reload(new ByteArrayInputStream(truncated, 0, truncated.length - 10)));
+        assertThrows(IOException.class, () -> finder.reload(dir.resolve("missing.dat")));
+        assertTrue(finder.isConfigured());
+        assertEquals("foo.test", EffectiveTldFinder.getAssignedDomain("www.foo.test", true));
+    }
+
+    /**
+     * Lookups running concurrently to reloads see either the old or the new
+     * list, but never an empty or partially loaded list.
+     */
+    @Test
+    public void testConcurrentReload() throws Exception {
+        EffectiveTldFinder finder = EffectiveTldFinder.getInstance();
+        finder.reload(stream(LIST_A));
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                while (!done.get()) {
+                    // "com" is in both lists
+                    String domain = EffectiveTldFinder.getAssignedDomain("www.foo.com", true);
+                    if (!"foo.com".equals(domain)) {
+                        failure.set(domain);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (int i = 0; i < 200; i++) {
+            finder.reload(stream(i % 2 == 0 ? LIST_B : LIST_A));
+        }
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void testWatch() throws Exception {
+        EffectiveTldFinder finder = EffectiveTldFinder.getInstance();
+        Path list = dir.resolve("public_suffix_list.dat");
+        Files.write(list, LIST_A.getBytes(UTF_8));
+        finder.reload(list);
+        try (Closeable watcher = finder.watch(list)) {
+            Path tmp = dir.resolve("public_suffix_list.dat.tmp");
+            Files.write(tmp, LIST_B.getBytes(UTF_8));
+            Files.move(tmp, list, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long deadline = System.currentTimeMillis() + 30000;
+            while (EffectiveTldFinder.getAssignedDomain("www.foo.test", true) == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("foo.test", EffectiveTldFinder.getAssignedDomain("www.foo.test", true));
+            assertNull(EffectiveTldFinder.getAssignedDomain("www.foo.example", true));
+        }
+    }
+
+    @Test
+    public void testCacheInvalidatedOnReload() throws IOException {
+        EffectiveTldFinder finder = EffectiveTldFinder.getInstance();
+        finder.setCacheSize(100);
+        DomainCache cache = finder.getCache();
+        finder.reload(stream(LIST_A));
+        assertEquals(0, cache.size());
+        assertEquals("foo.example", EffectiveTldFinder.getAssignedDomain("www.foo.example", true));
+        assertEquals("foo.example", EffectiveTldFinder.getAssignedDomain("WWW.Foo.Example", true));
+        assertNull(EffectiveTldFinder.getAssignedDomain("www.foo.test", true));
+        assertNull(EffectiveTldFinder.getAssignedDomain("www.foo.test", true));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        finder.reload(stream(LIST_B));
+        assertEquals(0, cache.size());
+        assertNull(EffectiveTldFinder.getAssignedDomain("www.foo.example", true));
+        assertEquals("foo.test", EffectiveTldFinder.getAssignedDomain("www.foo.test", true));
+        assertEquals("www.wild.test", EffectiveTldFinder.getEffectiveTLD("www.wild.test", false).getDomain());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+    }
+}
@@ -16,10 +16,13 @@
 
 package crawlercommons.domains;
 
+import java.util.Locale;
+
 import crawlercommons.domains.EffectiveTldFinder.EffectiveTLD;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -342,4 +345,40 @@ public class EffectiveTldFinderTest {
             assertEquals(expectedDomain, ad, "Domain under public suffix does not match");
         }
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "com", "www.example.com", "blogs.finance.yahoo.com", "www.bbc.co.uk", "anything.uk", "sch.uk", "northleamingtonschool.warwickshire.sch.uk",
+                    "www.city.kawasaki.jp", "city.kawasaki.jp", "kawasaki.jp", "www.example.kawasaki.jp", "myblog.blogspot.com", "foo.bar.gateway.dev", "спб.бесплатныеобъявления.рф",
+                    "xn--90a1af.xn--80abbembcyvesfij3at4loa4ff.xn--p1ai", "www..example..com", "www.example..com", ".com", "www.ex\ufffdmple.com", "\ufffd.kawasaki.jp",
+                    "www.example.c\ufffdm", "www.example.invalidtld", "localhost", "", "." })
+    public final void testOffsets(String hostName) throws Exception {
+        for (boolean excludePrivate : new boolean[] { false, true }) {
+            EffectiveTLD etld = EffectiveTldFinder.getEffectiveTLD(hostName, excludePrivate);
+            int offset = EffectiveTldFinder.getEffectiveTLDOffset(hostName, excludePrivate);
+            if (etld == null) {
+                assertEquals(-1, offset);
+            } else {
+                assertEquals(etld.getDomain(), hostName.substring(offset));
+            }
+            for (boolean strict : new boolean[] { false, true }) {
+                String domain = EffectiveTldFinder.getAssignedDomain(hostName, strict, excludePrivate);
+                offset = EffectiveTldFinder.getAssignedDomainOffset(hostName, strict, excludePrivate);
+                if (domain == null) {
+                    assertEquals(-1, offset);
+                } else {
+                    assertEquals(domain, hostName.substring(offset));
+                }
+                // case-insensitive matching of a host name embedded in a URL
+                String url = "https://" + hostName.toUpperCase(Locale.ROOT) + "/path";
+                int start = 8;
+                int end = start + hostName.length();
+                offset = EffectiveTldFinder.getAssignedDomainOffset(url, start, end, strict, excludePrivate);
+                if (domain == null) {
+                    assertEquals(-1, offset);
+                } else {
+                    assertEquals(domain, url.substring(offset, end).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import crawlercommons.domains.EffectiveTldFinder.EffectiveTLD;
+
+public class PublicSuffixListCompilerTest {
+
+    private static final String[] HOSTS = { "www.example.com", "www.bbc.co.uk", "northleamingtonschool.warwickshire.sch.uk", "www.city.kawasaki.jp", "www.example.kawasaki.jp",
+                    "myblog.blogspot.com", "спб.бесплатныеобъявления.рф", "xn--90a1af.xn--80abbembcyvesfij3at4loa4ff.xn--p1ai", "中国政府网.政务", "www.example.invalidtld" };
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void restore() throws IOException {
+        try (InputStream in = EffectiveTldFinder.class.getResourceAsStream(EffectiveTldFinder.ETLD_DATA)) {
+            assertTrue(EffectiveTldFinder.getInstance().initialize(in));
+        }
+    }
+
+    private Path compile() throws IOException {
+        Path list = dir.resolve("effective_tld_names.dat");
+        try (InputStream in = EffectiveTldFinder.class.getResourceAsStream(EffectiveTldFinder.ETLD_DATA)) {
+            Files.copy(in, list);
+        }
+        Path compiled = dir.resolve("effective_tld_names.bin");
+        PublicSuffixListCompiler.compile(list, compiled);
+        return compiled;
+    }
+
+    private static String lookups() {
+        StringBuilder sb = new StringBuilder();
+        for (String host : HOSTS) {
+            for (boolean excludePrivate : new boolean[] { false, true }) {
+                sb.append(EffectiveTldFinder.getEffectiveTLD(host, excludePrivate)).append('\n');
+                sb.append(EffectiveTldFinder.getAssignedDomain(host, true, excludePrivate)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testCompiledList() throws IOException {
+        restore();
+        Map<String, EffectiveTLD> expectedTlds = EffectiveTldFinder.getEffectiveTLDs();
+        String expectedLookups = lookups();
+
+        Path compiled = compile();
+        try (InputStream in = Files.newInputStream(compiled)) {
+            assertTrue(EffectiveTldFinder.getInstance().initializeCompiled(in));
+        }
+        assertTrue(EffectiveTldFinder.getInstance().isConfigured());
+        Map<String, EffectiveTLD> tlds = EffectiveTldFinder.getEffectiveTLDs();
+        assertEquals(expectedTlds.keySet(), tlds.keySet());
+        for (Map.Entry<String, EffectiveTLD> e : expectedTlds.entrySet()) {
+            assertEquals(e.getValue().toString(), tlds.get(e.getKey()).toString());
+        }
+        assertEquals(expectedLookups, lookups());
+    }
+
+    @Test
+    public void testInvalidCompiledList() throws IOException {
+        byte[] compiled = Files.readAllBytes(compile());
+        EffectiveTldFinder finder = EffectiveTldFinder.getInstance();
+        assertFalse(finder.initializeCompiled(new ByteArrayInputStream(new byte[0])));
+        assertFalse(finder.initializeCompiled(new ByteArrayInputStream(Arrays.copyOf(compiled, compiled.length / 2))));
+        compiled[0] = 'X';
+        assertFalse(finder.initializeCompiled(new ByteArrayInputStream(compiled)));
+        // the text list is not a compiled list
+        try (InputStream in = EffectiveTldFinder.class.getResourceAsStream(EffectiveTldFinder.ETLD_DATA)) {
+            assertFalse(finder.initializeCompiled(in));
+        }
+    }
+}
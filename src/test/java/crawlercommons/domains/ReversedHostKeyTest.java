@@ -0,0 +1,123 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.domains;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.IDN;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ReversedHostKeyTest {
+
+    @ParameterizedTest
+    @CsvSource({ //
+                    "www.example.co.uk, uk.co.example.www, 5, 13", //
+                    "WWW.Example.COM, com.example.www, 3, 11", //
+                    "example.com, com.example, 3, 11", //
+                    "a.b.myblog.blogspot.com, com.blogspot.myblog.b.a, 3, 12", //
+                    "www.city.kawasaki.jp, jp.kawasaki.city.www, 11, 16", //
+                    "localhost, localhost, 0, 9", //
+                    "1.2.3.4, 1.2.3.4, 0, 7", //
+                    "[1080:0:0:0:8:800:200c:417a], [1080:0:0:0:8:800:200c:417a], 0, 28", //
+                    "www..example.com, com.example.www, 0, 15", //
+                    "www.example.com., com.example.www, 3, 11", //
+                    "example.com.., com.example, 3, 11", //
+                    ".example.com, com.example, 0, 11", //
+                    "localhost., localhost, 0, 9", //
+                    "., '', 0, 0" })
+    public void testKey(String hostname, String key, int suffixLength, int pldLength) {
+        ReversedHostKey rk = ReversedHostKey.of(hostname);
+        assertEquals(key, rk.getKey());
+        assertEquals(suffixLength, rk.getSuffixLength());
+        assertEquals(pldLength, rk.getPLDLength());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "www.example.co.uk", "WWW.Example.COM", "xxx.domain.com", "myblog.blogspot.com", "www.city.kawasaki.jp", "1.2.3.4", "blah",
+                    "www.äöü.de", "www.十字架.中国", "spb.бесплатныеобъявления.рф" })
+    public void testConsistentWithPLD(String hostname) {
+        String pld = PaidLevelDomain.getPLD(hostname);
+        ReversedHostKey rk = ReversedHostKey.of("http://" + hostname + "/", 7, 7 + hostname.length());
+        assertEquals(hostname.toLowerCase(Locale.ROOT), reverse(rk.getKey()));
+        assertEquals(pld, reverse(rk.getReversedPLD()));
+        assertEquals(fnv1a(IDN.toASCII(pld).getBytes(UTF_8)), rk.getPLDHash());
+        assertEquals(rk.getPLDHash(), ReversedHostKey.hash(pld));
+        if (rk.getSuffixLength() > 0) {
+            // same PLD and hash for all hosts below the PLD
+            ReversedHostKey sub = ReversedHostKey.of("www2." + hostname);
+            assertEquals(rk.getReversedPLD(), sub.getReversedPLD());
+            assertEquals(rk.getPLDHash(), sub.getPLDHash());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "İstanbul.com.tr", "www.İstanbul.com.tr", "WWW.ÄÖÜ.DE", "www.straße.de", "ΣΊΣΥΦΟΣ.gr" })
+    public void testHashNonAscii(String hostname) {
+        ReversedHostKey rk = ReversedHostKey.of(hostname);
+        assertEquals(ReversedHostKey.hash(PaidLevelDomain.getPLD(hostname)), rk.getPLDHash());
+        assertEquals(PaidLevelDomain.getPLD(hostname), reverse(rk.getReversedPLD()));
+        // Unicode and ASCII form of the PLD have the same hash
+        String ascii = IDN.toASCII(hostname);
+        assertEquals(rk.getPLDHash(), ReversedHostKey.of(ascii).getPLDHash());
+        assertEquals(rk.getPLDHash(), ReversedHostKey.hash(IDN.toASCII(PaidLevelDomain.getPLD(hostname))));
+    }
+
+    @Test
+    public void testPartition() {
+        ReversedHostKey a = ReversedHostKey.of("www.example.com");
+        ReversedHostKey b = ReversedHostKey.of("shop.EXAMPLE.com");
+        for (int n : new int[] { 1, 7, 64, 1000 }) {
+            int partition = a.getPartition(n);
+            assertTrue(partition >= 0 && partition < n);
+            assertEquals(partition, b.getPartition(n));
+        }
+        // stable value: FNV-1a of "example.com"
+        assertEquals(fnv1a("example.com".getBytes(UTF_8)), a.getPLDHash());
+        assertEquals(ReversedHostKey.hash("example.com"), ReversedHostKey.hash("Example.COM"));
+    }
+
+    private static String reverse(String key) {
+        if (key.startsWith("[") || key.matches("[0-9.]+")) {
+            return key;
+        }
+        String[] labels = key.split("\\.", -1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = labels.length - 1; i >= 0; i--) {
+            sb.append(labels[i]);
+            if (i > 0) {
+                sb.append('.');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static long fnv1a(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Run the Google robots.txt tests on optimized rules, see
+ * {@link SimpleRobotRulesParser#setOptimizeRules(boolean)}.
+ */
+public class GoogleRobotsTxtOptimizedTest extends GoogleRobotsTxtTest {
+
+    @Override
+    boolean isUserAgentAllowed(String robotstxt, String userAgent, String url) {
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        parser.setOptimizeRules(true);
+        BaseRobotRules rules = parser.parseContent("https://www.example.com/robots.txt", robotstxt.getBytes(UTF_8), "text/plain", List.of(userAgent.toLowerCase(Locale.ROOT)));
+        return rules.isAllowed(url);
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRulesMode;
+
+public class RobotRulesCacheTest {
+
+    private static final long TTL = 1000;
+    private static final long DEFER_VISITS_TTL = 100;
+
+    private final AtomicLong time = new AtomicLong();
+
+    private RobotRulesCache createCache(long maxWeight) {
+        return new RobotRulesCache(maxWeight, TTL, DEFER_VISITS_TTL, rules -> 1, time::get);
+    }
+
+    private void advanceTime(long millis) {
+        time.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void testHitAndMiss() throws IOException {
+        RobotRulesCache cache = createCache(100);
+        AtomicInteger loads = new AtomicInteger();
+        RobotRulesCache.Loader loader = key -> {
+            loads.incrementAndGet();
+            return new SimpleRobotRules(RobotRulesMode.ALLOW_ALL);
+        };
+        BaseRobotRules rules = cache.get("https://www.example.com", loader);
+        assertSame(rules, cache.get("https://www.example.com", loader));
+        assertSame(rules, cache.getIfPresent("https://www.example.com"));
+        assertNull(cache.getIfPresent("https://example.org"));
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getLoadCount());
+        assertEquals(1, cache.size());
+
+        cache.invalidate("https://www.example.com");
+        assertNull(cache.getIfPresent("https://www.example.com"));
+        cache.get("https://www.example.com", loader);
+        assertEquals(2, loads.get());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void testExpiry() throws IOException {
+        RobotRulesCache cache = createCache(100);
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        cache.put("ok", new SimpleRobotRules());
+        cache.put("unreachable", parser.failedFetch(503));
+        cache.put("not-found", parser.failedFetch(404));
+
+        advanceTime(DEFER_VISITS_TTL);
+        assertNotNull(cache.getIfPresent("ok"));
+        assertNotNull(cache.getIfPresent("not-found"));
+        // rules deferring visits expire earlier
+        assertNull(cache.getIfPresent("unreachable"));
+
+        advanceTime(TTL - DEFER_VISITS_TTL);
+        assertNull(cache.getIfPresent("ok"));
+        assertNull(cache.getIfPresent("not-found"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        RobotRulesCache cache = createCache(16);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("host" + i, new SimpleRobotRules());
+        }
+        assertTrue(cache.size() <= 16);
+        assertTrue(cache.getWeight() <= 16);
+        assertEquals(1000 - cache.size(), cache.getEvictionCount());
+
+        // default weight depends on the number of rules
+        cache = new RobotRulesCache(1000);
+        SimpleRobotRules rules = new SimpleRobotRules();
+        rules.addRule("/a", false);
+        rules.addRule("/b", false);
+        cache.put("host", rules);
+        assertEquals(3, cache.getWeight());
+        rules.compact();
+        cache.put("host", rules);
+        assertEquals(3, cache.getWeight());
+    }
+
+    @Test
+    public void testLoadFailure() {
+        RobotRulesCache cache = createCache(100);
+        assertThrows(IOException.class, () -> cache.get("host", key -> {
+            throw new IOException("connection refused");
+        }));
+        assertThrows(IllegalStateException.class, () -> cache.get("host", key -> null));
+        assertEquals(2, cache.getLoadFailureCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSingleFlightLoading() throws Exception {
+        RobotRulesCache cache = createCache(100);
+        int numThreads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        RobotRulesCache.Loader loader = key -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            try {
+                releaseLoader.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return new SimpleRobotRules(RobotRulesMode.ALLOW_NONE);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<BaseRobotRules>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("host", loader)));
+            loaderStarted.await();
+            for (int i = 1; i < numThreads; i++) {
+                results.add(executor.submit(() -> cache.get("host", loader)));
+            }
+            // wait until all threads are waiting for the pending load
+            while (cache.getMissCount() < numThreads) {
+                Thread.sleep(1);
+            }
+            releaseLoader.countDown();
+            BaseRobotRules rules = results.get(0).get();
+            for (Future<BaseRobotRules> result : results) {
+                assertSame(rules, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getLoadCount());
+    }
+
+    @Test
+    public void testWeigherFailureReleasesWaitingThreads() throws Exception {
+        RobotRulesCache cache = new RobotRulesCache(1000, TTL, DEFER_VISITS_TTL, rules -> 0, time::get);
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        RobotRulesCache.Loader loader = key -> {
+            loaderStarted.countDown();
+            try {
+                releaseLoader.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return new SimpleRobotRules(RobotRulesMode.ALLOW_NONE);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<BaseRobotRules> loading = executor.submit(() -> cache.get("k", loader));
+            loaderStarted.await();
+            Future<BaseRobotRules> waiting = executor.submit(() -> cache.get("k", loader));
+            while (cache.getMissCount() < 2) {
+                Thread.sleep(1);
+            }
+            releaseLoader.countDown();
+            for (Future<BaseRobotRules> result : List.of(loading, waiting)) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, cache.getLoadFailureCount());
+        assertEquals(0, cache.size());
+        // the key can be loaded again
+        assertThrows(IllegalStateException.class, () -> cache.get("k", key -> new SimpleRobotRules(RobotRulesMode.ALLOW_ALL)));
+    }
+
+    /**
+     * Rules put or invalidated while a load is in progress must not be
+     * replaced by the result of the load.
+     */
+    @Test
+    public void testPutAndInvalidateDuringLoad() throws Exception {
+        RobotRulesCache cache = createCache(1000);
+        SimpleRobotRules loaded = new SimpleRobotRules(RobotRulesMode.ALLOW_NONE);
+        SimpleRobotRules put = new SimpleRobotRules(RobotRulesMode.ALLOW_ALL);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (String key : List.of("put", "invalidate")) {
+                CountDownLatch loaderStarted = new CountDownLatch(1);
+                CountDownLatch releaseLoader = new CountDownLatch(1);
+                RobotRulesCache.Loader loader = k -> {
+                    loaderStarted.countDown();
+                    try {
+                        releaseLoader.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return loaded;
+                };
+                Future<BaseRobotRules> loading = executor.submit(() -> cache.get(key, loader));
+                loaderStarted.await();
+                if (key.equals("put")) {
+                    cache.put(key, put);
+                } else {
+                    cache.invalidate(key);
+                }
+                releaseLoader.countDown();
+                assertSame(loaded, loading.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertSame(put, cache.getIfPresent("put"));
+        assertNull(cache.getIfPresent("invalidate"));
+        assertEquals(2, cache.getLoadCount());
+    }
+}
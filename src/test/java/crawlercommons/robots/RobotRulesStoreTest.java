@@ -0,0 +1,238 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import crawlercommons.robots.SimpleRobotRules.RobotRulesMode;
+
+public class RobotRulesStoreTest {
+
+    private static final String[] ROBOTS_FILES = { "/robots/wildcards.txt", "/robots/precedence-of-rules.txt", "/robots/twitter.com-robots.txt",
+                    "/robots/www.flot.com-robots.txt", "/robots/sitemap-robots.txt", "/robots/merge-rules.txt" };
+
+    private static final String[] URLS = { "http://www.example.com/", "http://www.example.com/robots.txt", "http://www.example.com/index.html",
+                    "http://www.example.com/search?q=robots", "http://www.example.com/wildcards/a/b.pdf", "http://www.example.com/dir/", "http://www.example.com/dir/index.htm",
+                    "http://www.example.com/tmp/bar/bar.txt", "http://www.example.com/foo/bar/bar.txt", "http://www.example.com/hashtag/x", "http://www.example.com/i/foo",
+                    "http://www.example.com/%7Euser/a%2Fb", "http://www.example.com/a b" };
+
+    @TempDir
+    Path dir;
+
+    private static byte[] readFile(String name) throws IOException {
+        try (InputStream in = RobotRulesStoreTest.class.getResourceAsStream(name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static SimpleRobotRules parse(String file, String agent) throws IOException {
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        return parser.parseContent("http://www.example.com/robots.txt", readFile(file), "text/plain", Set.of(agent));
+    }
+
+    private static void assertSameRules(SimpleRobotRules expected, BaseRobotRules actual) {
+        for (String url : URLS) {
+            assertEquals(expected.isAllowed(url), actual.isAllowed(url), () -> "Failed to match " + url + " against\n" + expected);
+        }
+        assertEquals(expected.isAllowAll(), actual.isAllowAll());
+        assertEquals(expected.isAllowNone(), actual.isAllowNone());
+        assertEquals(expected.getCrawlDelay(), actual.getCrawlDelay());
+        assertEquals(expected.isDeferVisits(), actual.isDeferVisits());
+        assertEquals(expected.getSitemaps(), actual.getSitemaps());
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        try (RobotRulesStore store = RobotRulesStore.open(dir)) {
+            assertNull(store.get("http://www.example.com"));
+            for (String file : ROBOTS_FILES) {
+                for (String agent : List.of("mybot", "googlebot", "wget")) {
+                    SimpleRobotRules rules = parse(file, agent);
+                    String key = file + "#" + agent;
+                    store.put(key, rules);
+                    MappedRobotRules mapped = store.get(key);
+                    assertNotNull(mapped);
+                    assertSameRules(rules, mapped);
+                    assertSameRules(rules, mapped.toSimpleRobotRules());
+                    assertEquals(rules, mapped.toSimpleRobotRules());
+                }
+            }
+            store.put("allow-all", parser.failedFetch(404));
+            store.put("allow-none", parser.failedFetch(503));
+            assertTrue(store.get("allow-all").isAllowAll());
+            assertTrue(store.get("allow-none").isAllowNone());
+            assertTrue(store.get("allow-none").isDeferVisits());
+            assertEquals(ROBOTS_FILES.length * 3 + 2, store.size());
+            assertTrue(store.contains("allow-all"));
+            assertFalse(store.contains("allow"));
+        }
+    }
+
+    @Test
+    public void testReplaceAndReopen() throws IOException {
+        SimpleRobotRules rules = parse("/robots/wildcards.txt", "mybot");
+        SimpleRobotRules replacement = parse("/robots/sitemap-robots.txt", "mybot");
+        try (RobotRulesStore store = RobotRulesStore.open(dir)) {
+            store.put("a", rules);
+            store.put("b", rules);
+            store.put("a", replacement);
+            assertSameRules(replacement, store.get("a"));
+            assertEquals(2, store.size());
+            assertEquals(store.get("a"), store.get("a"));
+            assertFalse(store.get("a").equals(store.get("b")));
+        }
+
+        try (RobotRulesStore store = RobotRulesStore.openReadOnly(dir)) {
+            assertSameRules(replacement, store.get("a"));
+            assertSameRules(rules, store.get("b"));
+            assertEquals(2, store.size());
+            assertThrows(IllegalStateException.class, () -> store.put("c", rules));
+        }
+
+        // rebuild the index from the segment file
+        Files.delete(dir.resolve(RobotRulesStore.INDEX_FILE_NAME));
+        try (RobotRulesStore store = RobotRulesStore.openReadOnly(dir)) {
+            assertSameRules(replacement, store.get("a"));
+            assertEquals(2, store.size());
+        }
+        try (RobotRulesStore store = RobotRulesStore.open(dir)) {
+            assertSameRules(replacement, store.get("a"));
+            store.put("c", rules);
+        }
+        try (RobotRulesStore store = RobotRulesStore.open(dir)) {
+            assertEquals(3, store.size());
+            assertSameRules(rules, store.get("c"));
+        }
+
+        RobotRulesStore store = RobotRulesStore.open(dir);
+        store.close();
+        assertThrows(IllegalStateException.class, () -> store.get("a"));
+    }
+
+    /**
+     * Records do not cross chunk boundaries, the index grows beyond the initial
+     * capacity.
+     */
+    @Test
+    public void testManyRecords() throws IOException {
+        SimpleRobotRules[] rules = new SimpleRobotRules[ROBOTS_FILES.length];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = parse(ROBOTS_FILES[i], "mybot");
+        }
+        int numKeys = 3000;
+        try (RobotRulesStore store = new RobotRulesStore(dir, false, 64 * 1024)) {
+            for (int i = 0; i < numKeys; i++) {
+                store.put("https://host" + i + ".example.com", rules[i % rules.length]);
+            }
+            assertEquals(numKeys, store.size());
+            assertTrue(store.getSegmentSize() > 64 * 1024);
+        }
+        // index covers only the first records, the others are added on open
+        try (RobotRulesStore store = new RobotRulesStore(dir, false, 64 * 1024)) {
+            for (int i = numKeys; i < 2 * numKeys; i++) {
+                store.put("https://host" + i + ".example.com", rules[i % rules.length]);
+            }
+        }
+        try (RobotRulesStore store = RobotRulesStore.openReadOnly(dir)) {
+            assertEquals(2 * numKeys, store.size());
+            for (int i = 0; i < 2 * numKeys; i += 7) {
+                assertSameRules(rules[i % rules.length], store.get("https://host" + i + ".example.com"));
+            }
+        }
+    }
+
+    /**
+     * A store at its capacity limit rejects new keys without writing a record,
+     * still accepts replacements, and can be reopened.
+     */
+    @Test
+    public void testFullStore() throws IOException {
+        SimpleRobotRules rules = parse(ROBOTS_FILES[0], "mybot");
+        SimpleRobotRules replacement = parse(ROBOTS_FILES[1], "mybot");
+        int maxKeys = RobotRulesStore.MIN_INDEX_CAPACITY / 2;
+        long segmentSize;
+        try (RobotRulesStore store = new RobotRulesStore(dir, false, 64 * 1024, RobotRulesStore.MIN_INDEX_CAPACITY)) {
+            for (int i = 0; i < maxKeys; i++) {
+                store.put("https://host" + i + ".example.com", rules);
+            }
+            segmentSize = store.getSegmentSize();
+            assertThrows(IOException.class, () -> store.put("https://host" + maxKeys + ".example.com", rules));
+            assertEquals(segmentSize, store.getSegmentSize());
+            assertEquals(maxKeys, store.size());
+            store.put("https://host0.example.com", replacement);
+            assertEquals(maxKeys, store.size());
+        }
+        try (RobotRulesStore store = new RobotRulesStore(dir, false, 64 * 1024, RobotRulesStore.MIN_INDEX_CAPACITY)) {
+            assertEquals(maxKeys, store.size());
+            assertNull(store.get("https://host" + maxKeys + ".example.com"));
+            assertSameRules(replacement, store.get("https://host0.example.com"));
+            assertSameRules(rules, store.get("https://host" + (maxKeys - 1) + ".example.com"));
+        }
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        SimpleRobotRules rules = parse("/robots/sitemap-robots.txt", "mybot");
+        try (RobotRulesStore store = RobotRulesStore.open(dir)) {
+            store.put("a", rules);
+            MappedRobotRules mapped = store.get("a");
+            assertThrows(UnsupportedOperationException.class, () -> mapped.setCrawlDelay(1000));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(mapped);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertEquals(rules, in.readObject());
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidInput() throws IOException {
+        try (RobotRulesStore store = RobotRulesStore.open(dir)) {
+            SimpleRobotRules rules = new SimpleRobotRules(RobotRulesMode.ALLOW_SOME);
+            rules.addRule("/café", false);
+            assertThrows(IllegalArgumentException.class, () -> store.put("a", rules));
+            assertThrows(IllegalArgumentException.class, () -> store.put("a".repeat(70000), new SimpleRobotRules()));
+            assertEquals(0, store.size());
+        }
+        Files.write(dir.resolve(RobotRulesStore.SEGMENT_FILE_NAME), "not a segment file".getBytes(UTF_8));
+        assertThrows(IOException.class, () -> RobotRulesStore.open(dir));
+    }
+}
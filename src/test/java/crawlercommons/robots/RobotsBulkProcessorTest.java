@@ -0,0 +1,176 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import crawlercommons.robots.RobotsBulkProcessor.Record;
+import crawlercommons.robots.RobotsBulkProcessor.RecordReader;
+import crawlercommons.robots.RobotsBulkProcessor.Stats;
+
+public class RobotsBulkProcessorTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static void appendRecord(ByteArrayOutputStream archive, String url, int status, String contentType, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String header = url + "\t" + status + "\t" + contentType + "\t" + bytes.length + "\n";
+        archive.writeBytes(header.getBytes(StandardCharsets.UTF_8));
+        archive.writeBytes(bytes);
+        archive.write('\n');
+    }
+
+    @Test
+    public void testArchive() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        appendRecord(archive, "http://a.example.com/robots.txt", 200, "text/plain",
+                        "User-agent: *\nDisallow: /private/\nAllow: /private/public\nCrawl-delay: 2\nSitemap: http://a.example.com/sitemap.xml\n");
+        appendRecord(archive, "http://b.example.com/robots.txt", 404, "-", "");
+        appendRecord(archive, "http://c.example.com/robots.txt", 503, "text/html", "<html>Service unavailable</html>");
+        appendRecord(archive, "http://d.example.com/robots.txt", 200, "-", "User-agent: *\nDisalow: /\nfoo\n");
+
+        StringWriter out = new StringWriter();
+        RobotsBulkProcessor processor = new RobotsBulkProcessor(new SimpleRobotRulesParser(), Set.of(), pool);
+        Stats stats = processor.process(RobotsBulkProcessor.archiveReader(new ByteArrayInputStream(archive.toByteArray())), out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("http://a.example.com/robots.txt\t200\tallow_some\t2000\t0\t+/private/public -/private/\thttp://a.example.com/sitemap.xml", lines[0]);
+        assertEquals("http://b.example.com/robots.txt\t404\tallow_all\t-\t0\t\t", lines[1]);
+        assertEquals("http://c.example.com/robots.txt\t503\tallow_none,defer\t-\t0\t\t", lines[2]);
+        assertEquals("http://d.example.com/robots.txt\t200\tallow_some\t-\t1\t-/\t", lines[3]);
+
+        assertEquals(4, stats.getNumRecords());
+        assertEquals(2, stats.getNumFailedFetches());
+        assertEquals(1, stats.getNumWithWarnings());
+        assertEquals(1, stats.getNumWarnings());
+        assertEquals(3, stats.getNumRules());
+        assertEquals(1, stats.getNumSitemaps());
+        assertEquals(0, stats.getNumTruncated());
+    }
+
+    /**
+     * A record failing with an exception is reported, the other records are
+     * still processed.
+     */
+    @Test
+    public void testFailingRecord() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        for (int i = 0; i < 100; i++) {
+            appendRecord(archive, "http://host" + i + ".example.com/robots.txt", 200, "text/plain", "User-agent: *\nDisallow: /private/\n");
+        }
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public SimpleRobotRules parseContent(String url, byte[] content, String contentType, Collection<String> robotNames) {
+                if (url.startsWith("http://host42.")) {
+                    throw new IllegalStateException("broken\nrecord");
+                }
+                return super.parseContent(url, content, contentType, robotNames);
+            }
+        };
+
+        StringWriter out = new StringWriter();
+        RobotsBulkProcessor processor = new RobotsBulkProcessor(parser, Set.of(), pool);
+        processor.setBatchSize(10);
+        Stats stats = processor.process(RobotsBulkProcessor.archiveReader(new ByteArrayInputStream(archive.toByteArray())), out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(100, lines.length);
+        assertEquals("http://host42.example.com/robots.txt\t200\terror\tjava.lang.IllegalStateException: broken record", lines[42]);
+        assertEquals("http://host43.example.com/robots.txt\t200\tallow_some\t-\t0\t-/private/\t", lines[43]);
+        assertEquals(100, stats.getNumRecords());
+        assertEquals(1, stats.getNumErrors());
+        assertEquals(99, stats.getNumRules());
+    }
+
+    @Test
+    public void testInvalidArchive() throws IOException {
+        RecordReader reader = RobotsBulkProcessor.archiveReader(new ByteArrayInputStream(new byte[0]));
+        assertNull(reader.next());
+
+        byte[] invalidHeader = "http://example.com/robots.txt\t200\n".getBytes(StandardCharsets.UTF_8);
+        RecordReader invalidHeaderReader = RobotsBulkProcessor.archiveReader(new ByteArrayInputStream(invalidHeader));
+        assertThrows(IOException.class, invalidHeaderReader::next);
+
+        byte[] truncated = "http://example.com/robots.txt\t200\t-\t100\nUser-agent: *\n".getBytes(StandardCharsets.UTF_8);
+        RecordReader truncatedReader = RobotsBulkProcessor.archiveReader(new ByteArrayInputStream(truncated));
+        assertThrows(IOException.class, truncatedReader::next);
+    }
+
+    /**
+     * Parsing in parallel and in multiple batches must give the same result as
+     * parsing all files sequentially.
+     */
+    @Test
+    public void testDirectory() throws IOException, URISyntaxException {
+        Path dir = Paths.get(RobotsBulkProcessorTest.class.getResource("/robots").toURI());
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+
+        List<String> expected = new ArrayList<>();
+        RecordReader reader = RobotsBulkProcessor.directoryReader(dir);
+        for (Record record; (record = reader.next()) != null;) {
+            SimpleRobotRules rules = parser.parseContent(record.getUrl(), record.getContent(), record.getContentType(), Set.of("mybot"));
+            expected.add(RobotsBulkProcessor.format(record, rules, parser.getNumWarnings()));
+        }
+        long numFiles;
+        try (var files = Files.walk(dir)) {
+            numFiles = files.filter(Files::isRegularFile).count();
+        }
+        assertEquals(numFiles, expected.size());
+
+        RobotsBulkProcessor processor = new RobotsBulkProcessor(parser, Set.of("mybot"), pool);
+        processor.setBatchSize(5);
+        StringWriter out = new StringWriter();
+        Stats stats = processor.process(RobotsBulkProcessor.directoryReader(dir), out);
+        assertEquals(expected, List.of(out.toString().split("\n")));
+        assertEquals(numFiles, stats.getNumRecords());
+    }
+
+    @Test
+    public void testUrlFromFileName() {
+        assertEquals("http://twitter.com/robots.txt", RobotsBulkProcessor.urlFromFileName("twitter.com-robots.txt"));
+        assertEquals("http://example.com/robots.txt", RobotsBulkProcessor.urlFromFileName("example.com.txt"));
+        assertEquals("http://example.com/robots.txt", RobotsBulkProcessor.urlFromFileName("example.com"));
+    }
+}
@@ -19,10 +19,14 @@ package crawlercommons.robots;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -1103,6 +1107,36 @@ public class SimpleRobotRulesParserTest {
         assertEquals(1, rules.getSitemaps().size(), "Sitemaps deduped");
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = { "/robots/sitemap-robots.txt", "/robots/relative-sitemap-robots.txt", "/robots/sitemap-robots-dedup.txt", "/robots/format-errors-robots.txt",
+                    "/robots/robots-with-utf16le-bom.txt", "/robots/twitter.com-robots.txt", "/robots/www.flot.com-robots.txt" })
+    void testExtractSitemaps(String file) throws Exception {
+        SimpleRobotRulesParser robotParser = new SimpleRobotRulesParser();
+        byte[] content = readFile(file);
+        List<String> sitemaps = robotParser.extractSitemaps(FAKE_ROBOTS_URL, content, "text/plain");
+        assertEquals(robotParser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("bot1")).getSitemaps(), sitemaps);
+    }
+
+    @Test
+    void testExtractSitemapsOnly() {
+        String robotsTxt = "User-agent: *\n" //
+                        + "Disallow: /sitemap.xml\n" //
+                        + "sitemap: /sitemap-relative.xml\n" //
+                        + "Sitemaps: https://www.example.com/sitemap.xml\n" //
+                        + "http://www.example.com/sitemap-no-directive.xml\n" //
+                        + "Host: www.example.com\n" //
+                        + "<html><body>Sitemap: https://www.example.com/not-html.xml</body></html>\n";
+        SimpleRobotRulesParser robotParser = new SimpleRobotRulesParser();
+        List<String> sitemaps = robotParser.extractSitemaps("https://www.example.com/robots.txt", robotsTxt.getBytes(UTF_8), "text/plain");
+        assertEquals(List.of("https://www.example.com/sitemap-relative.xml", "https://www.example.com/sitemap.xml", "http://www.example.com/sitemap-no-directive.xml",
+                        "https://www.example.com/not-html.xml"), sitemaps);
+
+        assertEquals(List.of(), robotParser.extractSitemaps("https://www.example.com/robots.txt", new byte[0], "text/plain"));
+        // HTML page without user-agent line
+        byte[] html = "<html><body>Sitemap: https://www.example.com/sitemap.xml</body></html>".getBytes(UTF_8);
+        assertEquals(List.of(), robotParser.extractSitemaps("https://www.example.com/robots.txt", html, "text/html"));
+    }
+
     @Test
     void testManyUserAgents() throws Exception {
         BaseRobotRules rules = createRobotRules("wget", readFile("/robots/many-user-agents.txt"));
@@ -1401,6 +1435,248 @@ public class SimpleRobotRulesParserTest {
         assertFalse(rules.isAllowed("https://example.org/path/index.html"));
     }
 
+    @Test
+    void testInternedRules() throws Exception {
+        byte[] robotstxt = readFile("/robots/rfc9309-example-simple-robots.txt");
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        SimpleRobotRules expected = parser.parseContent("https://example.org/robots.txt", robotstxt, "text/plain", Set.of("foobot"));
+        assertFalse(expected instanceof FrozenRobotRules);
+
+        parser.setMaxInternedRules(10);
+        SimpleRobotRules rules1 = parser.parseContent("https://example.org/robots.txt", robotstxt, "text/plain", Set.of("foobot"));
+        SimpleRobotRules rules2 = parser.parseContent("https://example.com/robots.txt", robotstxt.clone(), "text/plain", List.of("foobot"));
+        assertTrue(rules1 instanceof FrozenRobotRules);
+        assertSame(rules1, rules2);
+        assertEquals(expected.getRobotRules(), rules1.getRobotRules());
+        assertFalse(rules1.isAllowed("https://example.org/"));
+        assertTrue(rules1.isAllowed("https://example.org/example/page.html"));
+        assertThrows(UnsupportedOperationException.class, () -> rules1.addRule("/", true));
+        assertThrows(UnsupportedOperationException.class, () -> rules1.getRobotRules().clear());
+        assertThrows(UnsupportedOperationException.class, () -> rules1.setCrawlDelay(1000));
+
+        // other user-agent names, content type or content
+        assertNotSame(rules1, parser.parseContent("https://example.org/robots.txt", robotstxt, "text/plain", Set.of("barbot")));
+        assertNotSame(rules1, parser.parseContent("https://example.org/robots.txt", robotstxt, "text/html", Set.of("foobot")));
+        byte[] modified = robotstxt.clone();
+        modified[modified.length - 2] ^= 1;
+        assertNotSame(rules1, parser.parseContent("https://example.org/robots.txt", modified, "text/plain", Set.of("foobot")));
+
+        // rules with sitemaps are not interned
+        byte[] sitemapRobotstxt = "User-agent: *\nDisallow: /\nSitemap: /sitemap.xml\n".getBytes(UTF_8);
+        SimpleRobotRules rules3 = parser.parseContent("https://example.org/robots.txt", sitemapRobotstxt, "text/plain", Set.of("foobot"));
+        SimpleRobotRules rules4 = parser.parseContent("https://example.com/robots.txt", sitemapRobotstxt, "text/plain", Set.of("foobot"));
+        assertFalse(rules3 instanceof FrozenRobotRules);
+        assertEquals("https://example.com/sitemap.xml", rules4.getSitemaps().get(0));
+
+        // changing parser settings invalidates interned rules
+        parser.setMaxCrawlDelay(1000);
+        assertNotSame(rules1, parser.parseContent("https://example.org/robots.txt", robotstxt, "text/plain", Set.of("foobot")));
+    }
+
+    @Test
+    void testMaxContentLength() throws Exception {
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        // not limited by default
+        assertEquals(0, parser.getMaxContentLength());
+        assertThrows(IllegalArgumentException.class, () -> parser.setMaxContentLength(1024));
+        parser.setMaxContentLength(SimpleRobotRulesParser.DEFAULT_MAX_CONTENT_LENGTH);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("User-agent: *" + LF);
+        String padding = "# " + "x".repeat(100) + LF;
+        while (sb.length() + padding.length() < (parser.getMaxContentLength() - 20)) {
+            sb.append(padding);
+        }
+        sb.append("Disallow: /a" + LF);
+        // pad up to the limit with the last line ending exactly at the limit
+        sb.append("#".repeat(parser.getMaxContentLength() - sb.length() - 1)).append(LF);
+        assertEquals(parser.getMaxContentLength(), sb.length());
+        // line cut by the limit
+        sb.append("Disallow: /b" + LF);
+
+        byte[] content = sb.toString().getBytes(UTF_8);
+        BaseRobotRules rules = parser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("mybot"));
+        assertFalse(rules.isAllowed("http://www.domain.com/a"));
+        assertTrue(rules.isAllowed("http://www.domain.com/b"));
+
+        // a rule truncated by the limit ("Disallow: /c") is skipped
+        int lastLineStart = sb.lastIndexOf("Disallow: /b");
+        sb.setLength(lastLineStart - 12);
+        sb.setCharAt(sb.length() - 1, '\n');
+        sb.append("Disallow: /cgi-bin" + LF);
+        content = sb.toString().getBytes(UTF_8);
+        rules = parser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("mybot"));
+        assertFalse(rules.isAllowed("http://www.domain.com/a"));
+        assertTrue(rules.isAllowed("http://www.domain.com/c"));
+        assertTrue(rules.isAllowed("http://www.domain.com/cgi-bin"));
+
+        parser.setMaxContentLength(2 * SimpleRobotRulesParser.DEFAULT_MAX_CONTENT_LENGTH);
+        rules = parser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("mybot"));
+        assertTrue(rules.isAllowed("http://www.domain.com/c"));
+        assertFalse(rules.isAllowed("http://www.domain.com/cgi-bin"));
+
+        // the entire content is parsed if the limit is disabled
+        parser.setMaxContentLength(0);
+        rules = new SimpleRobotRulesParser().parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("mybot"));
+        assertFalse(rules.isAllowed("http://www.domain.com/cgi-bin"));
+        rules = parser.parseContent(FAKE_ROBOTS_URL, new ByteArrayInputStream(content), "text/plain", Set.of("mybot"));
+        assertFalse(rules.isAllowed("http://www.domain.com/cgi-bin"));
+    }
+
+    @Test
+    void testParseInputStreamAndByteBuffer() throws Exception {
+        byte[] robotstxt = readFile("/robots/rfc9309-example-simple-robots.txt");
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        SimpleRobotRules expected = parser.parseContent("https://example.org/robots.txt", robotstxt, "text/plain", Set.of("foobot"));
+
+        SimpleRobotRules rules = parser.parseContent("https://example.org/robots.txt", new ByteArrayInputStream(robotstxt), "text/plain", Set.of("foobot"));
+        assertEquals(expected, rules);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(robotstxt.length + 10);
+        buffer.put(new byte[10]).put(robotstxt).position(10);
+        rules = parser.parseContent("https://example.org/robots.txt", buffer, "text/plain", Set.of("foobot"));
+        assertEquals(expected, rules);
+        assertEquals(10, buffer.position());
+
+        rules = parser.parseContent("https://example.org/robots.txt", ByteBuffer.wrap(robotstxt), "text/plain", Set.of("foobot"));
+        assertEquals(expected, rules);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "\u0085", "\u2028", "\u2029", "\r\n", "\r" })
+    void testLineSeparators(String sep) {
+        final String simpleRobotsTxt = "User-agent: *" + sep //
+                        + "Disallow: /a" + sep //
+                        + "Allow: /a/b" + sep //
+                        + "Disallow: /\u00e4";
+
+        BaseRobotRules rules = createRobotRules("mybot", simpleRobotsTxt);
+        assertFalse(rules.isAllowed("http://www.domain.com/a/"));
+        assertTrue(rules.isAllowed("http://www.domain.com/a/b"));
+        assertFalse(rules.isAllowed("http://www.domain.com/%C3%A4"));
+        assertTrue(rules.isAllowed("http://www.domain.com/b"));
+    }
+
+    @Test
+    void testParseContentForAgents() throws Exception {
+        final String robotsTxt = "User-agent: foobot" + CRLF //
+                        + "Disallow: /foo" + CRLF //
+                        + "Crawl-delay: 5" + CRLF //
+                        + CRLF //
+                        + "User-agent: barbot" + CRLF //
+                        + "User-agent: bazbot" + CRLF //
+                        + "Disallow: /bar" + CRLF //
+                        + "unknown line" + CRLF //
+                        + CRLF //
+                        + "User-agent: *" + CRLF //
+                        + "Disallow: /" + CRLF //
+                        + "Sitemap: /sitemap.xml" + CRLF;
+        byte[] content = robotsTxt.getBytes(UTF_8);
+        List<Collection<String>> agentGroups = List.of(Set.of("foobot"), Set.of("barbot", "bazbot"), Set.of("otherbot"), Set.of());
+
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        Map<Collection<String>, SimpleRobotRules> rules = parser.parseContentForAgents(FAKE_ROBOTS_URL, content, "text/plain", agentGroups);
+        assertEquals(agentGroups, List.copyOf(rules.keySet()));
+        assertEquals(1, parser.getNumWarnings());
+        for (Collection<String> agentNames : agentGroups) {
+            SimpleRobotRules expected = parser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", agentNames);
+            assertEquals(expected, rules.get(agentNames), "rules for " + agentNames);
+        }
+        assertFalse(rules.get(Set.of("foobot")).isAllowed("http://domain.com/foo"));
+        assertTrue(rules.get(Set.of("foobot")).isAllowed("http://domain.com/bar"));
+        assertEquals(5000, rules.get(Set.of("foobot")).getCrawlDelay());
+        assertFalse(rules.get(Set.of("barbot", "bazbot")).isAllowed("http://domain.com/bar"));
+        assertFalse(rules.get(Set.of("otherbot")).isAllowed("http://domain.com/foo"));
+        assertEquals(List.of("http://domain.com/sitemap.xml"), rules.get(Set.of()).getSitemaps());
+
+        // rules are interned per agent group
+        parser.setMaxInternedRules(10);
+        SimpleRobotRules interned = parser.parseContent(FAKE_ROBOTS_URL, "User-agent: foobot\nDisallow: /\n".getBytes(UTF_8), "text/plain", Set.of("foobot"));
+        rules = parser.parseContentForAgents(FAKE_ROBOTS_URL, "User-agent: foobot\nDisallow: /\n".getBytes(UTF_8), "text/plain", agentGroups);
+        assertSame(interned, rules.get(Set.of("foobot")));
+        assertTrue(rules.get(Set.of("otherbot")).isAllowed("http://domain.com/foo"));
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parseContentForAgents(FAKE_ROBOTS_URL, content, "text/plain", List.of(Set.of("foobot"), Set.of("*"))));
+    }
+
+    @Test
+    void testParseListener() throws Exception {
+        final String robotsTxt = "User-agent: foobot" + LF //
+                        + "Disallow: /foo" + LF //
+                        + "Dissallow: /bar" + LF //
+                        + "# comment" + LF //
+                        + LF //
+                        + "User-agent: *" + LF //
+                        + "Crawl-delay: 3600" + LF //
+                        + "Disallow: /" + LF //
+                        + "unknown line" + LF;
+        byte[] content = robotsTxt.getBytes(UTF_8);
+        List<RobotsParseStats> parseStats = new ArrayList<>();
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        parser.setParseListener(parseStats::add);
+
+        parser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("foobot"));
+        assertEquals(1, parseStats.size());
+        RobotsParseStats stats = parseStats.get(0);
+        assertEquals(FAKE_ROBOTS_URL, stats.getUrl());
+        assertEquals(content.length, stats.getContentLength());
+        assertEquals(content.length, stats.getParsedLength());
+        assertFalse(stats.isTruncated());
+        assertEquals(7, stats.getNumLines());
+        assertEquals(Map.of("user-agent", 2, "disallow", 3, "crawl-delay", 1, "missing", 1), stats.getDirectiveCounts());
+        assertEquals(1, stats.getNumAgentGroups());
+        assertEquals(2, stats.getNumRules());
+        assertEquals(1, stats.getNumWarnings());
+        assertFalse(stats.isHtmlDetected());
+        assertFalse(stats.isCrawlDelayExceeded());
+        assertFalse(stats.isInterned());
+        assertTrue(stats.getElapsedNanos() > 0);
+
+        // wildcard group: crawl-delay exceeds max.
+        parser.parseContentForAgents(FAKE_ROBOTS_URL, content, "text/plain", List.of(Set.of("foobot"), Set.of("barbot")));
+        stats = parseStats.get(1);
+        assertEquals(2, stats.getNumAgentGroups());
+        assertEquals(2, stats.getNumRules());
+        assertTrue(stats.isCrawlDelayExceeded());
+
+        // HTML page
+        parser.parseContent(FAKE_ROBOTS_URL, "<html><body>Not found</body></html>".getBytes(UTF_8), "text/html", Set.of("foobot"));
+        stats = parseStats.get(2);
+        assertTrue(stats.isHtmlDetected());
+        assertTrue(stats.isHtmlIgnored());
+        assertEquals(0, stats.getNumLines());
+
+        // interned rules
+        parser.setMaxInternedRules(10);
+        parser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("foobot"));
+        parser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("foobot"));
+        assertFalse(parseStats.get(3).isInterned());
+        stats = parseStats.get(4);
+        assertTrue(stats.isInterned());
+        assertEquals(0, stats.getNumLines());
+        assertEquals(2, stats.getNumRules());
+        assertEquals(1, stats.getNumWarnings());
+
+        parser.setParseListener(null);
+        parser.parseContent(FAKE_ROBOTS_URL, content, "text/plain", Set.of("barbot"));
+        assertEquals(5, parseStats.size());
+    }
+
+    @Test
+    void testFreezeRules() throws Exception {
+        byte[] robotstxt = readFile("/robots/rfc9309-example-simple-robots.txt");
+        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
+        assertFalse(parser.isFreezeRules());
+        parser.setFreezeRules(true);
+        SimpleRobotRules rules = parser.parseContent("https://example.org/robots.txt", robotstxt, "text/plain", Set.of("foobot"));
+        assertTrue(rules instanceof FrozenRobotRules);
+        assertFalse(rules.isAllowed("https://example.org/"));
+        assertTrue(rules.isAllowed("https://example.org/example/page.html"));
+        assertTrue(parser.failedFetch(HttpURLConnection.HTTP_UNAVAILABLE) instanceof FrozenRobotRules);
+        assertTrue(parser.parseContentForAgents("https://example.org/robots.txt", robotstxt, "text/plain", List.of(Set.of("foobot"), Set.of("barbot"))).values().stream()
+                        .allMatch(r -> r instanceof FrozenRobotRules));
+    }
+
     private byte[] readFile(String filename) throws Exception {
         byte[] bigBuffer = new byte[100000];
         InputStream is = SimpleRobotRulesParserTest.class.getResourceAsStream(filename);
@@ -28,9 +28,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SimpleRobotRulesTest {
@@ -105,4 +115,390 @@ public class SimpleRobotRulesTest {
         String baseURL = new URL(new URL(urlNormalized), "/").toString();
         assertTrue(rules.isAllowed(baseURL));
     }
+
+    /**
+     * Match all rules one by one, the way rules were matched before they were
+     * compiled into a trie.
+     */
+    private static boolean isAllowedBruteForce(SimpleRobotRules rules, String path) {
+        boolean isAllowed = true;
+        int longestRuleMatch = Integer.MIN_VALUE;
+        for (SimpleRobotRules.RobotRule rule : rules.getRobotRules()) {
+            String prefix = rule.getPrefix();
+            int matchLength = -1;
+            if (WildcardPatternTest.matchesReference(path, prefix)) {
+                matchLength = prefix.length();
+            } else if (prefix.endsWith("index.htm") || prefix.endsWith("index.html")) {
+                String indexPrefix = prefix.substring(0, prefix.indexOf("index.htm")) + "$";
+                if (WildcardPatternTest.matchesReference(path, indexPrefix)) {
+                    matchLength = indexPrefix.length();
+                }
+            }
+            if (matchLength == -1) {
+                continue;
+            }
+            if (longestRuleMatch < matchLength) {
+                longestRuleMatch = matchLength;
+                isAllowed = rule.isAllow();
+            } else if (longestRuleMatch == matchLength) {
+                isAllowed |= rule.isAllow();
+            }
+        }
+        return isAllowed;
+    }
+
+    @Test
+    public void testCompiledMatcher() {
+        String[] pieces = { "/", "a", "b", "ab", "*", "$", "index.html", "?q=", "/a/" };
+        Random random = new Random(42);
+        for (int n = 0; n < 200; n++) {
+            SimpleRobotRules rules = new SimpleRobotRules();
+            SimpleRobotRules compactRules = new SimpleRobotRules();
+            int numRules = 1 + random.nextInt(20);
+            for (int i = 0; i < numRules; i++) {
+                StringBuilder pattern = new StringBuilder("/");
+                int numPieces = random.nextInt(5);
+                for (int j = 0; j < numPieces; j++) {
+                    pattern.append(pieces[random.nextInt(pieces.length)]);
+                }
+                boolean allow = random.nextBoolean();
+                rules.addRule(pattern.toString(), allow);
+                compactRules.addRule(pattern.toString(), allow);
+            }
+            rules.sortRules();
+            compactRules.compact();
+            for (int i = 0; i < 50; i++) {
+                StringBuilder path = new StringBuilder("/");
+                int numPieces = random.nextInt(6);
+                for (int j = 0; j < numPieces; j++) {
+                    String piece = pieces[random.nextInt(pieces.length)];
+                    if (!piece.equals("*") && !piece.equals("$")) {
+                        path.append(piece);
+                    }
+                }
+                String url = "https://www.example.com" + path;
+                if (path.toString().equals("/robots.txt")) {
+                    continue;
+                }
+                assertEquals(isAllowedBruteForce(rules, path.toString()), rules.isAllowed(url), () -> "Failed to match " + url + " against\n" + rules);
+                assertEquals(rules.isAllowed(url), compactRules.isAllowed(url), () -> "Failed to match " + url + " against compact\n" + rules);
+            }
+        }
+    }
+
+    @Test
+    public void testOptimizeRules() {
+        // only allow rules: collapsed into allow all
+        SimpleRobotRules rules = new SimpleRobotRules();
+        rules.addRule("", false);
+        rules.addRule("/public/", true);
+        rules.optimize();
+        assertTrue(rules.isAllowAll());
+        assertEquals(0, rules.getRobotRules().size());
+
+        // disallow rule never winning over the universal allow rule
+        rules = new SimpleRobotRules();
+        rules.addRule("/*", true);
+        rules.addRule("/", false);
+        rules.addRule("*", false);
+        rules.optimize();
+        assertTrue(rules.isAllowAll());
+
+        // shadowed disallow rules are removed
+        rules = new SimpleRobotRules();
+        rules.addRule("/private", false);
+        rules.addRule("/private/", false);
+        rules.addRule("/private/*.pdf$", false);
+        rules.addRule("/public/", true);
+        rules.optimize();
+        assertFalse(rules.isAllowAll());
+        assertEquals(List.of(new SimpleRobotRules.RobotRule("/public/", true), new SimpleRobotRules.RobotRule("/private", false)), rules.getRobotRules());
+
+        // an allow rule between the broader and the shadowed rule
+        rules = new SimpleRobotRules();
+        rules.addRule("/private", false);
+        rules.addRule("/private/", true);
+        rules.addRule("/private/secret", false);
+        rules.optimize();
+        assertEquals(3, rules.getRobotRules().size());
+        assertFalse(rules.isAllowed("https://www.example.com/private/secret.html"));
+    }
+
+    @Test
+    public void testOptimizeRulesRandom() {
+        String[] pieces = { "/", "a", "b", "ab", "*", "$", "index.html", "?q=", "/a/" };
+        String[] paths = { "", "/", "*", "/*" };
+        Random random = new Random(42);
+        int numCollapsed = 0;
+        for (int n = 0; n < 500; n++) {
+            SimpleRobotRules rules = new SimpleRobotRules();
+            SimpleRobotRules optimizedRules = new SimpleRobotRules();
+            int numRules = 1 + random.nextInt(12);
+            for (int i = 0; i < numRules; i++) {
+                StringBuilder pattern = new StringBuilder(paths[random.nextInt(paths.length)]);
+                int numPieces = random.nextInt(4);
+                for (int j = 0; j < numPieces; j++) {
+                    pattern.append(pieces[random.nextInt(pieces.length)]);
+                }
+                // more allow rules, to get rule sets collapsed into allow all
+                boolean allow = random.nextInt(3) > 0;
+                rules.addRule(pattern.toString(), allow);
+                optimizedRules.addRule(pattern.toString(), allow);
+            }
+            rules.sortRules();
+            optimizedRules.optimize();
+            assertTrue(optimizedRules.getRobotRules().size() <= rules.getRobotRules().size());
+            if (optimizedRules.isAllowAll()) {
+                numCollapsed++;
+            }
+            for (int i = 0; i < 50; i++) {
+                StringBuilder path = new StringBuilder("/");
+                int numPieces = random.nextInt(6);
+                for (int j = 0; j < numPieces; j++) {
+                    String piece = pieces[random.nextInt(pieces.length)];
+                    if (!piece.equals("*") && !piece.equals("$")) {
+                        path.append(piece);
+                    }
+                }
+                String url = "https://www.example.com" + path;
+                assertEquals(rules.isAllowed(url), optimizedRules.isAllowed(url), () -> "Failed to match " + url + " against optimized\n" + optimizedRules + "original\n" + rules);
+            }
+        }
+        assertTrue(numCollapsed > 0);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '\t', value = { //
+                    "https://www.example.com", //
+                    "https://www.example.com/", //
+                    "http://www.example.com:8080/path/file.html", //
+                    "HTTPS://WWW.EXAMPLE.COM/Path/", //
+                    "https://www.example.com?q=1", //
+                    "https://www.example.com/p?", //
+                    "https://www.example.com/p?q=1&r=*#fragment", //
+                    "https://www.example.com/%7Euser/%2fa%2Fb/%41%62%2a%24", //
+                    "https://www.example.com/a$b*c/$", //
+                    "https://www.example.com/%e2%82%ac%E2%82%AC" })
+    public void testPathNormalization(String url) throws Exception {
+        long span = PathNormalizer.findPathAndQuery(url);
+        assertNotEquals(-1, span);
+        URL u = new URI(url).toURL();
+        String expected = u.getPath().isEmpty() ? "/" : u.getPath();
+        if (u.getQuery() != null) {
+            expected += "?" + u.getQuery();
+        }
+        expected = SimpleRobotRules.escapePath(expected, SimpleRobotRules.specialCharactersPathMatching);
+        assertEquals(expected, PathNormalizer.normalize(url, (int) (span >>> 32), (int) span).toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '\t', value = { //
+                    "''", //
+                    "/relative/path", //
+                    "ftp://www.example.com/", //
+                    "https://user@www.example.com/", //
+                    "https://[::1]/", //
+                    "https://www.example.com/a b", //
+                    "https://www.example.com/%zz", //
+                    "https://www.example.com/%4%41", //
+                    "https://www.example.com/a#b#c", //
+                    "https://www.example.com/\u20ac" })
+    public void testPathNormalizationFallback(String url) {
+        assertEquals(-1, PathNormalizer.findPathAndQuery(url));
+    }
+
+    @Test
+    public void testIsAllowedPathOffsets() {
+        SimpleRobotRules rules = new SimpleRobotRules();
+        rules.addRule("/", true);
+        rules.addRule("/disallowed/", false);
+        rules.addRule("/*.php$", false);
+        rules.sortRules();
+        String url = "https://www.example.com/disallowed/index.html?q=1#top";
+        int pathStart = url.indexOf('/', 8);
+        int pathEnd = url.indexOf('#');
+        assertFalse(rules.isAllowed(url, pathStart, pathEnd));
+        assertTrue(rules.isAllowed(url, pathStart, pathStart + 1));
+        assertTrue(rules.isAllowed(url, pathEnd, pathEnd));
+        assertFalse(rules.isAllowed(new StringBuilder("/index.php"), 0, 10));
+        assertTrue(rules.isAllowed(new StringBuilder("/index.php?q=1"), 0, 14));
+        assertEquals(rules.isAllowed("https://www.example.com/index%2Ephp"), rules.isAllowed(new StringBuilder("/index%2Ephp"), 0, 12));
+    }
+
+    @Test
+    public void testBatchIsAllowed() {
+        SimpleRobotRules rules = new SimpleRobotRules();
+        rules.addRule("/", true);
+        rules.addRule("/disallowed/", false);
+        rules.addRule("*?isallowed=false", false);
+        rules.sortRules();
+        List<String> urls = Arrays.asList( //
+                        "https://example.org/index.html", //
+                        "https://example.org/disallowed/file.html", //
+                        "https://example.org/disallowed/file.html#top", //
+                        "https://EXAMPLE.org/disallowed/file.html", //
+                        "https://example.org/?isallowed=false", //
+                        "https://example.org/?isallowed=true", //
+                        "https://example.org/disallowed/a b.html", //
+                        "https://example.org/robots.txt", //
+                        "not a URL");
+        boolean[] allowed = new boolean[urls.size()];
+        rules.isAllowed(urls.toArray(new String[0]), allowed);
+        BitSet bits = rules.isAllowed(urls);
+        for (int i = 0; i < urls.size(); i++) {
+            assertEquals(rules.isAllowed(urls.get(i)), allowed[i], urls.get(i));
+            assertEquals(rules.isAllowed(urls.get(i)), bits.get(i), urls.get(i));
+        }
+
+        rules = new SimpleRobotRules(RobotRulesMode.ALLOW_ALL);
+        assertEquals(urls.size(), rules.isAllowed(urls).cardinality());
+        rules = new SimpleRobotRules(RobotRulesMode.ALLOW_NONE);
+        assertTrue(rules.isAllowed(urls).isEmpty());
+        rules.isAllowed(urls.toArray(new String[0]), allowed);
+        for (boolean a : allowed) {
+            assertFalse(a);
+        }
+    }
+
+    @Test
+    public void testIndexHtmlRules() {
+        SimpleRobotRules rules = new SimpleRobotRules();
+        rules.addRule("/", false);
+        rules.addRule("/allowed-slash/index.html", true);
+        rules.addRule("/allowed-slash-htm/index.htm", true);
+        rules.addRule("/*/wildcard/index.html", true);
+        rules.sortRules();
+        // derived rules are not exposed
+        assertEquals(4, rules.getRobotRules().size());
+        assertTrue(rules.isAllowed("https://www.example.com/allowed-slash/"));
+        assertTrue(rules.isAllowed("https://www.example.com/allowed-slash/index.html"));
+        assertFalse(rules.isAllowed("https://www.example.com/allowed-slash/index.htm"));
+        assertFalse(rules.isAllowed("https://www.example.com/allowed-slash/other.html"));
+        assertTrue(rules.isAllowed("https://www.example.com/allowed-slash-htm/"));
+        assertTrue(rules.isAllowed("https://www.example.com/foo/wildcard/"));
+        assertFalse(rules.isAllowed("https://www.example.com/foo/wildcard/bar"));
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        SimpleRobotRules rules = new SimpleRobotRules();
+        rules.addRule("/", false);
+        rules.addRule("/allowed/index.html", true);
+        rules.addRule("/allowed/$", false);
+        rules.addRule("/*.php", true);
+        rules.addRule("/*.php", true);
+        rules.addSitemap("https://www.example.com/sitemap.xml");
+        rules.sortRules();
+
+        SimpleRobotRules compactRules = new SimpleRobotRules();
+        for (SimpleRobotRules.RobotRule rule : rules.getRobotRules()) {
+            compactRules.addRule(rule.getPrefix(), rule.isAllow());
+        }
+        compactRules.addSitemap("https://www.example.com/sitemap.xml");
+        compactRules.compact();
+        assertTrue(compactRules.isCompact());
+        assertEquals(rules, compactRules);
+
+        // listing the rules does not expand them
+        assertEquals(rules.getRobotRules(), compactRules.getRobotRules());
+        assertTrue(compactRules.isCompact());
+        assertThrows(UnsupportedOperationException.class, () -> compactRules.getRobotRules().clear());
+        assertEquals(rules.hashCode(), compactRules.hashCode());
+        assertEquals(rules.toString(), compactRules.toString());
+        assertTrue(compactRules.isCompact());
+
+        for (String path : new String[] { "/", "/allowed/", "/allowed/index.html", "/allowed/index.htm", "/index.php", "/robots.txt" }) {
+            String url = "https://www.example.com" + path;
+            assertEquals(rules.isAllowed(url), compactRules.isAllowed(url), url);
+        }
+
+        // serialized in compact form
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(compactRules);
+        }
+        try (ObjectInputStream iis = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            SimpleRobotRules actualRules = (SimpleRobotRules) iis.readObject();
+            assertTrue(actualRules.isCompact());
+            assertEquals(rules, actualRules);
+        }
+
+        // expanded if rules are modified
+        compactRules.addRule("/allowed/", true);
+        assertFalse(compactRules.isCompact());
+        assertEquals(rules.getRobotRules().size() + 1, compactRules.getRobotRules().size());
+        assertTrue(compactRules.isAllowed("https://www.example.com/allowed/"));
+    }
+
+    @Test
+    public void testSitemapsEquality() {
+        SimpleRobotRules rules = new SimpleRobotRules();
+        assertTrue(rules.getSitemaps().isEmpty());
+        SimpleRobotRules other = new SimpleRobotRules();
+        other.addSitemap("https://www.example.com/sitemap.xml");
+        assertNotEquals(rules, other);
+        rules.addSitemap("https://www.example.com/sitemap.xml");
+        assertEquals(rules, other);
+        assertEquals(rules.hashCode(), other.hashCode());
+
+        // unmodifiable, but reflecting added sitemaps
+        List<String> sitemaps = rules.getSitemaps();
+        assertThrows(UnsupportedOperationException.class, () -> sitemaps.add("https://www.example.com/sitemap2.xml"));
+        assertSame(sitemaps, rules.getSitemaps());
+        rules.addSitemap("https://www.example.com/sitemap2.xml");
+        assertEquals(List.of("https://www.example.com/sitemap.xml", "https://www.example.com/sitemap2.xml"), rules.getSitemaps());
+    }
+
+    @Test
+    public void testFrozenRules() throws Exception {
+        SimpleRobotRules rules = new SimpleRobotRules();
+        rules.addRule("/", false);
+        rules.addRule("/allowed/index.html", true);
+        rules.addRule("/*.php", true);
+        rules.setCrawlDelay(5000);
+        rules.addSitemap("https://www.example.com/sitemap.xml");
+
+        FrozenRobotRules frozen = new FrozenRobotRules(rules);
+        assertSame(frozen, FrozenRobotRules.freeze(frozen));
+        FrozenRobotRules other = FrozenRobotRules.freeze(rules);
+        assertNotSame(frozen, other);
+        assertEquals(frozen, other);
+        assertEquals(frozen.hashCode(), other.hashCode());
+        assertNotEquals(frozen, rules);
+
+        rules.sortRules();
+        assertEquals(rules.getRobotRules(), frozen.getRobotRules());
+        assertEquals(rules.getSitemaps(), frozen.getSitemaps());
+        assertEquals(5000, frozen.getCrawlDelay());
+        assertEquals(3, frozen.getRuleCount());
+        assertTrue(frozen.toString().startsWith("class " + FrozenRobotRules.class.getName()));
+        for (String path : new String[] { "/", "/allowed/", "/allowed/index.html", "/index.php", "/robots.txt" }) {
+            String url = "https://www.example.com" + path;
+            assertEquals(rules.isAllowed(url), frozen.isAllowed(url), url);
+        }
+
+        // modifying the original rules does not affect the frozen rules
+        rules.addRule("/index.php", false);
+        rules.sortRules();
+        assertTrue(frozen.isAllowed("https://www.example.com/index.php"));
+
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addRule("/", true));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.clearRules());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setCrawlDelay(0));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.setDeferVisits(true));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addSitemap("https://www.example.com/"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getRobotRules().clear());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getSitemaps().clear());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(frozen);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            FrozenRobotRules deserialized = (FrozenRobotRules) ois.readObject();
+            assertEquals(frozen, deserialized);
+            assertFalse(deserialized.isAllowed("https://www.example.com/"));
+            assertTrue(deserialized.isAllowed("https://www.example.com/allowed/"));
+        }
+    }
 }
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2026 Crawler-Commons
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package crawlercommons.robots;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class WildcardPatternTest {
+
+    /**
+     * Reference implementation: translate the pattern into a regular
+     * expression.
+     */
+    static boolean matchesReference(String text, String pattern) {
+        boolean anchored = pattern.endsWith("$");
+        if (anchored) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        StringBuilder regex = new StringBuilder();
+        for (String piece : pattern.split("\\*", -1)) {
+            if (regex.length() > 0) {
+                regex.append(".*");
+            }
+            if (!piece.isEmpty()) {
+                regex.append(Pattern.quote(piece));
+            }
+        }
+        Matcher m = Pattern.compile(regex.toString(), Pattern.DOTALL).matcher(text);
+        return anchored ? m.matches() : m.lookingAt();
+    }
+
+    private static void assertMatches(boolean expected, String text, String pattern) {
+        assertEquals(expected, new WildcardPattern(pattern).matches(text), () -> "compiled pattern " + pattern + " on " + text);
+        String padded = "/xyz" + pattern + "/abc";
+        assertEquals(expected, WildcardPattern.matches(text, padded, 4, 4 + pattern.length()), () -> "pattern " + pattern + " on " + text);
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "true, /, /", //
+                    "true, /fish, /fish.html", //
+                    "false, /fish, /Fish", //
+                    "true, /fish$, /fish", //
+                    "false, /fish$, /fish/", //
+                    "true, /*.php, /folder/filename.php", //
+                    "true, /*.php, /folder/filename.php?parameters", //
+                    "false, /*.php, /windows.PHP", //
+                    "true, /*.php$, /filename.php", //
+                    "false, /*.php$, /filename.php?parameters", //
+                    "true, /fish*.php, /fishheads/catfish.php?parameters", //
+                    "false, /fish*.php, /Fish.PHP", //
+                    "true, /*a$, /xaya", //
+                    "true, /**a***b, /xaxb", //
+                    "true, /a*$, /a", //
+                    "true, /a*$, /abc", //
+                    "true, *, ''", //
+                    "true, $, ''", //
+                    "false, $, /", //
+                    "true, /*ab*ab$, /ababab", //
+                    "false, /*aba*aba$, /ababa", //
+                    "true, /*aba*aba$, /abaaba" })
+    void testMatches(boolean expected, String pattern, String text) {
+        assertEquals(expected, matchesReference(text, pattern));
+        assertMatches(expected, text, pattern);
+    }
+
+    @Test
+    void testRandomPatterns() {
+        Random random = new Random(42);
+        String[] pieces = { "a", "b", "ab", "aab", "aba", "*", "*", "**", "/" };
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder pattern = new StringBuilder("/");
+            int numPieces = random.nextInt(6);
+            for (int i = 0; i < numPieces; i++) {
+                pattern.append(pieces[random.nextInt(pieces.length)]);
+            }
+            if (random.nextBoolean()) {
+                pattern.append('$');
+            }
+            StringBuilder text = new StringBuilder("/");
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                text.append("ab/".charAt(random.nextInt(random.nextInt(10) == 0 ? 3 : 2)));
+            }
+            assertMatches(matchesReference(text.toString(), pattern.toString()), text.toString(), pattern.toString());
+        }
+    }
+
+    @Test
+    void testIndexOf() {
+        Random random = new Random(42);
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(30);
+            int alphabet = 1 + random.nextInt(3);
+            for (int i = 0; i < length; i++) {
+                text.append((char) ('a' + random.nextInt(alphabet)));
+            }
+            StringBuilder piece = new StringBuilder();
+            length = 1 + random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                piece.append((char) ('a' + random.nextInt(alphabet)));
+            }
+            String p = piece.toString();
+            int from = random.nextInt(text.length() + 1);
+            int expected = text.indexOf(p, from);
+            if (expected + p.length() > text.length()) {
+                expected = -1;
+            }
+            assertEquals(expected, WildcardPattern.indexOf(text, from, text.length(), p, 0, p.length(), WildcardPattern.factorize(p, 0, p.length())),
+                            () -> p + " in " + text + " from " + from);
+        }
+    }
+
+    @Test
+    void testPathologicalPatterns() {
+        // must complete quickly, backtracking matchers take exponential or
+        // polynomial time of high degree
+        String text = "/" + "a".repeat(100000);
+        String pattern = "/" + "*a".repeat(200) + "*b";
+        assertFalse(new WildcardPattern(pattern).matches(text));
+        assertFalse(WildcardPattern.matches(text, pattern, 0, pattern.length()));
+        pattern = "/*" + "a".repeat(1000) + "b";
+        assertFalse(new WildcardPattern(pattern).matches(text));
+        pattern = "/*" + "a".repeat(1000) + "$";
+        assertTrue(new WildcardPattern(pattern).matches(text));
+    }
+}